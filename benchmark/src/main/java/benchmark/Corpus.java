@@ -0,0 +1,127 @@
+package benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Standard-Instanzen für Benchmarks (Ressourcen unter corpus/).
+ *
+ * korf100: Korfs 100 Instanzen des 15-Puzzles mit optimaler Lösungslänge
+ * 5x5: 20 Instanzen des 24-Puzzles aus Random Walks
+ *
+ * Die Dateien verwenden Korfs Notation (Ziel 0 1 2 ..., Blank oben links). Beim Laden wird das Puzzle um 180 Grad
+ * gedreht und die Zahlen umnummeriert (Zahl t wird zu length-t), damit das Ziel wie im Solver 1 2 ... 0 ist.
+ * Die Drehung vertauscht nur die Richtungen der Bewegungen, die optimale Lösungslänge bleibt gleich.
+ *
+ * @author michael koch
+ */
+
+public class Corpus {
+
+	public static final String KORF100 = "korf100";
+	public static final String FIVE = "5x5";
+
+	private final int row;
+	private final int col;
+	private final List<int[]> puzzles = new ArrayList<int[]>();
+	private final List<Integer> lengths = new ArrayList<Integer>();
+
+	private Corpus(int row, int col){
+		this.row = row;
+		this.col = col;
+	}
+
+
+	/**
+	 * Lädt einen Corpus
+	 * @param name KORF100 oder FIVE
+	 * @return Corpus
+	 * @throws IOException falls die Ressource fehlt
+	 */
+	public static Corpus load(String name) throws IOException {
+		int size = name.equals(FIVE) ? 5 : 4;
+		Corpus corpus = new Corpus(size, size);
+		int length = size*size;
+
+		InputStream in = Corpus.class.getResourceAsStream("/corpus/" + name + ".txt");
+		if(in == null){
+			throw new IOException("unknown corpus: " + name);
+		}
+
+		try(BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.ISO_8859_1))){
+			String line;
+			while((line = reader.readLine()) != null){
+				line = line.trim();
+				if(line.isEmpty() || line.startsWith("#")){
+					continue;
+				}
+
+				//Nummer, Felder, optionale Lösungslänge
+				String[] fields = line.split("\\s+");
+				int[] korf = new int[length];
+				for(int i=0; i<length; i++){
+					korf[i] = Integer.parseInt(fields[i+1]);
+				}
+				corpus.puzzles.add(convert(korf));
+				corpus.lengths.add(fields.length > length+1 ? Integer.parseInt(fields[length+1]) : -1);
+			}
+		}
+		return corpus;
+	}
+
+
+	/**
+	 * Wandelt ein Puzzle in Korfs Notation in die Notation des Solvers
+	 * @param korf Ziel 0 1 2 ...
+	 * @return Ziel 1 2 ... 0
+	 */
+	static int[] convert(int[] korf){
+		int length = korf.length;
+		int[] puzzle = new int[length];
+		for(int pos=0; pos<length; pos++){
+			int tile = korf[pos];
+			puzzle[length-1-pos] = tile == 0 ? 0 : length - tile;
+		}
+		return puzzle;
+	}
+
+
+	/**
+	 * @return Anzahl Instanzen
+	 */
+	public int size(){
+		return puzzles.size();
+	}
+
+
+	/**
+	 * @param i Instanz ab 0 (Korfs Nummer - 1)
+	 * @return Puzzle in der Notation des Solvers
+	 */
+	public int[] getPuzzle(int i){
+		return puzzles.get(i).clone();
+	}
+
+
+	/**
+	 * @param i Instanz ab 0
+	 * @return optimale Lösungslänge, -1 wenn unbekannt
+	 */
+	public int getLength(int i){
+		return lengths.get(i);
+	}
+
+	public int getRow(){
+		return row;
+	}
+
+	public int getCol(){
+		return col;
+	}
+
+}
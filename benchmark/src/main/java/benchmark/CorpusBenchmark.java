@@ -0,0 +1,87 @@
+package benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import search.Solution;
+import solver.Config;
+import solver.ThreadSolver;
+
+/**
+ * Löst die Instanzen eines Corpus mit dem ThreadSolver (ohne MPJ) und gibt pro Instanz
+ * Lösungslänge, Nodes, Zeit bis zur Lösung und Nodes pro Sekunde aus, am Schluss die Summe.
+ *
+ * Ist die optimale Länge bekannt (korf100), wird die gefundene Länge damit verglichen.
+ * Die Zeit wird nur um solve() gemessen, das Laden der Heuristik zählt nicht dazu.
+ *
+ * <pre>java -cp benchmarks.jar benchmark.CorpusBenchmark korf100 1 10 -threads 4 -engine inplace</pre>
+ * Ohne -threads wird mit einem Thread gesucht, mit -verbose erscheint die Ausgabe des Solvers.
+ *
+ * @author michael koch
+ */
+
+public class CorpusBenchmark {
+
+	public static void main(String[] args) throws Exception{
+
+		if(args.length < 1){
+			System.out.println("usage: CorpusBenchmark <korf100|5x5> [from] [to] [solver options]");
+			System.exit(0);
+		}
+
+		Corpus corpus = Corpus.load(args[0]);
+		int from = args.length > 1 && !args[1].startsWith("-") ? Integer.parseInt(args[1]) : 1;
+		int to = args.length > 2 && !args[2].startsWith("-") ? Integer.parseInt(args[2]) : corpus.size();
+
+		Config config = Config.parse(args);
+		if(config.getThreads() == 0){
+			config.setThreads(1);
+		}
+		boolean verbose = false;
+		for(String arg : args){
+			verbose |= arg.equals("-verbose");
+		}
+
+		PrintStream out = System.out;
+		PrintStream silent = new PrintStream(new OutputStream(){
+			@Override
+			public void write(int b){
+			}
+		});
+
+		long totalNodes = 0;
+		long totalTime = 0;
+		int wrong = 0;
+
+		out.println("-------------Benchmark----------------");
+		out.println("corpus: " + args[0] + " " + from + "-" + to + ", " + config.getThreads() + " threads");
+
+		for(int i=from-1; i<to; i++){
+			ThreadSolver solver = new ThreadSolver(corpus.getRow(), corpus.getCol(), config);
+
+			if(!verbose){
+				System.setOut(silent);
+			}
+			long start = System.nanoTime();
+			Solution solution = solver.solve(corpus.getPuzzle(i));
+			long time = (System.nanoTime() - start) / 1000000;
+			System.setOut(out);
+
+			long nodes = solver.getNodes();
+			totalNodes += nodes;
+			totalTime += time;
+
+			String check = "";
+			if(corpus.getLength(i) >= 0 && solution.getLength() != corpus.getLength(i)){
+				check = " WRONG (optimal " + corpus.getLength(i) + ")";
+				wrong++;
+			}
+			out.println((i+1) + ": length " + solution.getLength() + check + ", " + nodes + " nodes, "
+					+ time + "ms, " + (time == 0 ? nodes : nodes * 1000 / time) + " nodes/s");
+		}
+
+		out.println("total: " + totalNodes + " nodes, " + totalTime + "ms, "
+				+ (totalTime == 0 ? totalNodes : totalNodes * 1000 / totalTime) + " nodes/s"
+				+ (wrong > 0 ? ", " + wrong + " not optimal" : ""));
+		out.println("--------------------------------------");
+	}
+}
@@ -0,0 +1,67 @@
+package benchmark;
+
+import heuristic.ManhattanDistance;
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import search.MovePruning;
+import search.SearchContext;
+
+/**
+ * Expandieren eines States (State.expandNode) und Zielvergleich (State.checkSolution),
+ * mit und ohne MovePruning-Automat (fsm = maximale Folgenlänge, 0 = aus)
+ *
+ * @author michael koch
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpandBenchmark {
+
+	@Param({"0", "12"})
+	public int fsm;
+
+	private SearchContext context;
+	private search.State[] states;
+	private Stack<search.State> stack = new Stack<search.State>();
+	private int next;
+
+	@Setup
+	public void setup() throws Exception {
+		MovePruning pruning = fsm > 0 ? new MovePruning(4, 4, fsm) : null;
+		context = new SearchContext(4, 4, new ManhattanDistance(4, 4), pruning);
+		states = Samples.states(context, 64, 20);
+	}
+
+	private search.State nextState(){
+		next = (next + 1) & (states.length - 1);
+		return states[next];
+	}
+
+	@Benchmark
+	public void expandNode(Blackhole blackhole){
+		stack.clear();
+		blackhole.consume(nextState().expandNode(stack, context));
+	}
+
+	@Benchmark
+	public boolean checkSolution(){
+		return nextState().checkSolution();
+	}
+
+}
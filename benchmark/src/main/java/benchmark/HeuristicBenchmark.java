@@ -0,0 +1,87 @@
+package benchmark;
+
+import heuristic.Heuristic;
+import heuristic.HeuristicType;
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import search.SearchContext;
+
+/**
+ * Heuristik eines ganzen Puzzles (evaluate, früher calcTotalManhattanDistance)
+ * und inkrementell nach einer Bewegung (update)
+ *
+ * Die Pattern-Database fehlt, weil ihre Tabellen zuerst erzeugt werden müssen.
+ *
+ * @author michael koch
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeuristicBenchmark {
+
+	@Param({"manhattan", "linear", "wd"})
+	public String heuristic;
+
+	private Heuristic function;
+	private int[][] puzzles;
+
+	//pro Bewegung: Child, Heuristik des Parents, Zahl, alte und neue Position
+	private search.State[] children;
+	private int[] estimates;
+	private int[] tiles;
+	private int[] sources;
+	private int[] targets;
+	private int next;
+
+	@Setup
+	public void setup() throws Exception {
+		function = HeuristicType.create(HeuristicType.parse(heuristic), 4, 4, null);
+		SearchContext context = new SearchContext(4, 4, function);
+		search.State[] states = Samples.states(context, 64, 20);
+
+		puzzles = new int[states.length][];
+		children = new search.State[states.length];
+		estimates = new int[states.length];
+		tiles = new int[states.length];
+		sources = new int[states.length];
+		targets = new int[states.length];
+
+		for(int i=0; i<states.length; i++){
+			puzzles[i] = states[i].getPuzzle();
+			search.State child = states[i].expandNode(new Stack<search.State>(), context).peek();
+			children[i] = child;
+			estimates[i] = states[i].getEstimate();
+			sources[i] = child.getBlankPos();
+			targets[i] = states[i].getBlankPos();
+			tiles[i] = child.getTile(targets[i]);
+		}
+	}
+
+	@Benchmark
+	public int evaluate(){
+		next = (next + 1) & (puzzles.length - 1);
+		return function.evaluate(puzzles[next]);
+	}
+
+	@Benchmark
+	public int update(){
+		int i = next = (next + 1) & (children.length - 1);
+		return function.update(estimates[i], children[i], tiles[i], sources[i], targets[i]);
+	}
+
+}
@@ -0,0 +1,100 @@
+package benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import messagePassing.Token;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import search.SearchContext;
+import search.StateCodec;
+
+/**
+ * Nachrichten des Workers ohne Netzwerk: verteilte Arbeit (State[]) mit dem StateCodec (MPI.BYTE)
+ * und zum Vergleich mit der Java-Serialisierung (MPI.OBJECT), sowie das Token des TokenRings (MPI.OBJECT).
+ *
+ * @author michael koch
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageBenchmark {
+
+	private StateCodec codec = new StateCodec(4, 4);
+	private search.State[] states;
+	private ByteBuffer buffer;
+	private byte[] encoded;
+	private byte[] serialized;
+	private byte[] token;
+
+	@Setup
+	public void setup() throws Exception {
+		//8 States wie bei einem Split in Tiefe 30
+		states = Samples.states(new SearchContext(4, 4), 8, 30);
+		buffer = ByteBuffer.allocate(codec.size(states));
+		codec.encode(states, buffer);
+		encoded = buffer.array().clone();
+		serialized = serialize(states);
+		token = serialize(new Token[]{new Token()});
+	}
+
+	private static byte[] serialize(Object object) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(object);
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	private static Object deserialize(byte[] bytes) throws Exception {
+		return new ObjectInputStream(new ByteArrayInputStream(bytes)).readObject();
+	}
+
+	@Benchmark
+	public ByteBuffer encodeStates(){
+		buffer.clear();
+		codec.encode(states, buffer);
+		return buffer;
+	}
+
+	@Benchmark
+	public search.State[] decodeStates(){
+		return codec.decode(ByteBuffer.wrap(encoded));
+	}
+
+	@Benchmark
+	public byte[] serializeStates() throws Exception {
+		return serialize(states);
+	}
+
+	@Benchmark
+	public Object deserializeStates() throws Exception {
+		return deserialize(serialized);
+	}
+
+	@Benchmark
+	public byte[] serializeToken() throws Exception {
+		return serialize(new Token[]{new Token()});
+	}
+
+	@Benchmark
+	public Object deserializeToken() throws Exception {
+		return deserialize(token);
+	}
+
+}
@@ -0,0 +1,42 @@
+package benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.Stack;
+import search.SearchContext;
+import search.State;
+
+/**
+ * Gemeinsame Eingaben der JMH-Benchmarks: States aus zufälligen Pfaden ab Korfs Instanz 1
+ *
+ * @author michael koch
+ */
+
+class Samples {
+
+	/**
+	 * Erzeugt count States, jeder am Ende eines zufälligen Pfads der Länge deep.
+	 * Verbietet der MovePruning-Automat alle Bewegungen, beginnt der Pfad neu.
+	 * @param context
+	 * @param count
+	 * @param deep
+	 * @return States
+	 * @throws IOException falls der Corpus fehlt
+	 */
+	static State[] states(SearchContext context, int count, int deep) throws IOException {
+		int[] puzzle = Corpus.load(Corpus.KORF100).getPuzzle(0);
+		Random random = new Random(count);
+		State[] states = new State[count];
+
+		for(int i=0; i<count; i++){
+			State state = new State(puzzle, context);
+			while(state.getDeep() < deep){
+				Stack<State> children = state.expandNode(new Stack<State>(), context);
+				state = children.isEmpty() ? new State(puzzle, context) : children.get(random.nextInt(children.size()));
+			}
+			states[i] = state;
+		}
+		return states;
+	}
+
+}
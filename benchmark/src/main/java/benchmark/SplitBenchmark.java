@@ -0,0 +1,65 @@
+package benchmark;
+
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import search.SearchContext;
+import solver.SplitPolicy;
+import solver.SplitPolicyType;
+
+/**
+ * Aufteilen der offenen States einer StackEngine (früher ParallelSolver.split, heute SplitPolicy)
+ *
+ * Der Stack entspricht einer Tiefensuche: pro Ebene die Geschwister des weiterverfolgten States.
+ * Pro Aufruf wird der Stack kopiert, die Kopie ist in der Zeit enthalten.
+ *
+ * @author michael koch
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitBenchmark {
+
+	@Param({"fixed", "root", "subtree", "adaptive"})
+	public String split;
+
+	private SplitPolicy policy;
+	private Stack<search.State> stack = new Stack<search.State>();
+	private int deeplimit;
+
+	@Setup
+	public void setup() throws Exception {
+		policy = SplitPolicyType.create(SplitPolicyType.parse(split));
+		SearchContext context = new SearchContext(4, 4);
+
+		//Tiefensuche entlang des ersten Childs, bis 40 States offen sind
+		search.State state = Samples.states(context, 1, 0)[0];
+		deeplimit = state.getHeuristic() + 10;
+		while(stack.size() < 40){
+			stack = state.expandNode(stack, context);
+			state = stack.pop();
+		}
+	}
+
+	@Benchmark
+	@SuppressWarnings("unchecked")
+	public search.State[] split(){
+		Stack<search.State> copy = (Stack<search.State>) stack.clone();
+		return policy.split(copy, deeplimit);
+	}
+
+}
@@ -0,0 +1,22 @@
+package heuristic;
+
+/**
+ * Board-Sicht auf ein Puzzle als int Array
+ * 
+ * @author michael koch
+ */
+
+class ArrayBoard implements Board {
+
+	private final int[] puzzle;
+
+	ArrayBoard(int[] puzzle){
+		this.puzzle = puzzle;
+	}
+
+	@Override
+	public int getTile(int pos) {
+		return puzzle[pos];
+	}
+
+}
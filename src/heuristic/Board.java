@@ -0,0 +1,18 @@
+package heuristic;
+
+/**
+ * Lesender Zugriff auf ein Puzzle, unabhängig davon wie es gespeichert ist
+ * (gepackter State oder veränderbares Puzzle der InPlaceEngine).
+ * 
+ * @author michael koch
+ */
+
+public interface Board {
+
+	/**
+	 * @param pos BufferPosition
+	 * @return Zahl an der Position pos, 0 für das Blank
+	 */
+	int getTile(int pos);
+
+}
@@ -0,0 +1,34 @@
+package heuristic;
+
+/**
+ * Eine Heuristik schätzt die Anzahl Bewegungen bis zur Lösung (ohne die bisherige Tiefe).
+ * 
+ * Die Heuristik muss zulässig sein (nie überschätzen) und für die Zielkonfiguration 0 liefern.
+ * Beim Expandieren wird sie nur inkrementell für die verschobene Zahl nachgeführt.
+ * 
+ * @author michael koch
+ */
+
+public interface Heuristic {
+
+	/**
+	 * Berechnet die Heuristik eines ganzen Puzzles
+	 * @param puzzle
+	 * @return Heuristik
+	 */
+	int evaluate(int[] puzzle);
+
+	/**
+	 * Führt die Heuristik nach einer Bewegung nach.
+	 * Die Zahl tile wurde von src nach dst verschoben, das Blank steht jetzt auf src.
+	 * 
+	 * @param heuristic Heuristik vor der Bewegung
+	 * @param board Puzzle nach der Bewegung
+	 * @param tile verschobene Zahl
+	 * @param src alte Position der Zahl
+	 * @param dst neue Position der Zahl
+	 * @return Heuristik nach der Bewegung
+	 */
+	int update(int heuristic, Board board, int tile, int src, int dst);
+
+}
@@ -0,0 +1,74 @@
+package heuristic;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Verfügbare Heuristiken
+ * 
+ * @author michael koch
+ *
+ */
+
+public class HeuristicType {
+
+	// Manhattan Distanz
+	public static final int MANHATTAN = 0;
+
+	// Additive Pattern-Database
+	public static final int PDB = 1;
+
+	// Manhattan Distanz mit Linear Conflicts
+	public static final int LINEAR_CONFLICT = 2;
+
+	// Walking Distance
+	public static final int WALKING_DISTANCE = 3;
+
+	private static final String[] NAMES = {"manhattan", "pdb", "linear", "wd"};
+
+	/**
+	 * Bestimmt den HeuristicType aus dem Namen
+	 * @param name z.B. "manhattan"
+	 * @return HeuristicType
+	 */
+	public static int parse(String name){
+		for(int i=0; i<NAMES.length; i++){
+			if(NAMES[i].equals(name)){
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("unknown heuristic: " + name);
+	}
+
+	/**
+	 * Bezeichnung des HeuristicType
+	 * @param heuristic
+	 * @return Name
+	 */
+	public static String getName(int heuristic){
+		return NAMES[heuristic];
+	}
+
+	/**
+	 * Erzeugt die Heuristik für eine Puzzle-Dimension
+	 * @param heuristic HeuristicType
+	 * @param row Anzahl Zeilen
+	 * @param col Anzahl Spalten
+	 * @param patternDatabase Verzeichnis der Pattern-Database Tabellen
+	 * @return Heuristik
+	 * @throws IOException falls die Tabellen nicht gelesen werden können
+	 */
+	public static Heuristic create(int heuristic, int row, int col, String patternDatabase) throws IOException {
+		switch(heuristic){
+		case PDB:
+			return new PatternDatabase(new File(patternDatabase), row, col);
+		case LINEAR_CONFLICT:
+			return new LinearConflict(row, col);
+		case WALKING_DISTANCE:
+			return new WalkingDistance(row, col);
+		default:
+			return new ManhattanDistance(row, col);
+		}
+	}
+
+}
@@ -0,0 +1,193 @@
+package heuristic;
+
+/**
+ * Manhattan Distanz mit Linear Conflicts
+ *
+ * Stehen zwei Zahlen in ihrer Zielzeile (bzw. Zielspalte), aber in vertauschter Reihenfolge,
+ * muss eine der beiden die Zeile verlassen: +2 Bewegungen. Pro Zeile bzw. Spalte zählt
+ * 2 * (Anzahl Zahlen der Zeile - längste aufsteigende Teilfolge).
+ *
+ * Eine Zeile wird codiert, indem pro Feld die Zielposition (+1) der Zahl in dieser Zeile gespeichert wird
+ * (0 = Zahl gehört nicht in diese Zeile). Die Conflicts sind pro Code vorberechnet.
+ * Beim Verschieben ändern sich nur die Manhattan Distanz der Zahl und zwei Zeilen bzw. zwei Spalten.
+ *
+ * @author michael koch
+ */
+
+public class LinearConflict implements Heuristic {
+
+	private final int row;
+	private final int col;
+
+	private final ManhattanDistance manhattan;
+
+	//Conflicts pro Code einer Zeile bzw. einer Spalte
+	private final byte[] rowConflicts;
+	private final byte[] colConflicts;
+
+	//Stellenwert pro Index innerhalb einer Zeile bzw. Spalte
+	private final int[] rowWeight;
+	private final int[] colWeight;
+
+	/**
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 */
+	public LinearConflict(int row, int col){
+		this.row = row;
+		this.col = col;
+		this.manhattan = new ManhattanDistance(row, col);
+
+		this.rowWeight = weights(col, col+1);
+		this.colWeight = weights(row, row+1);
+		this.rowConflicts = conflicts(col);
+		this.colConflicts = conflicts(row);
+	}
+
+	@Override
+	public int evaluate(int[] puzzle) {
+		int heuristic = manhattan.evaluate(puzzle);
+		Board board = new ArrayBoard(puzzle);
+
+		for(int r=0; r<row; r++){
+			heuristic += rowConflicts[rowCode(board, r)];
+		}
+		for(int c=0; c<col; c++){
+			heuristic += colConflicts[colCode(board, c)];
+		}
+		return heuristic;
+	}
+
+	@Override
+	public int update(int heuristic, Board board, int tile, int src, int dst) {
+		heuristic = manhattan.update(heuristic, board, tile, src, dst);
+
+		if(src / col == dst / col){
+			//horizontal: die Reihenfolge in der Zeile bleibt, die Zahl wechselt die Spalte
+			int cs = src % col;
+			int cd = dst % col;
+			int codeSrc = colCode(board, cs);
+			int codeDst = colCode(board, cd);
+			int value = colValue(tile, cs);
+			int index = src / col;
+
+			heuristic += colConflicts[codeSrc] - colConflicts[codeSrc + value*colWeight[index]];
+			value = colValue(tile, cd);
+			heuristic += colConflicts[codeDst] - colConflicts[codeDst - value*colWeight[index]];
+		}else{
+			//vertikal: die Zahl wechselt die Zeile
+			int rs = src / col;
+			int rd = dst / col;
+			int codeSrc = rowCode(board, rs);
+			int codeDst = rowCode(board, rd);
+			int value = rowValue(tile, rs);
+			int index = src % col;
+
+			heuristic += rowConflicts[codeSrc] - rowConflicts[codeSrc + value*rowWeight[index]];
+			value = rowValue(tile, rd);
+			heuristic += rowConflicts[codeDst] - rowConflicts[codeDst - value*rowWeight[index]];
+		}
+		return heuristic;
+	}
+
+	/**
+	 * Wert einer Zahl im Code der Zeile r: Zielspalte + 1, 0 wenn die Zahl nicht in diese Zeile gehört
+	 */
+	private int rowValue(int tile, int r){
+		return tile != 0 && (tile-1) / col == r ? (tile-1) % col + 1 : 0;
+	}
+
+	/**
+	 * Wert einer Zahl im Code der Spalte c: Zielzeile + 1, 0 wenn die Zahl nicht in diese Spalte gehört
+	 */
+	private int colValue(int tile, int c){
+		return tile != 0 && (tile-1) % col == c ? (tile-1) / col + 1 : 0;
+	}
+
+	private int rowCode(Board board, int r){
+		int code = 0;
+		for(int i=0; i<col; i++){
+			code += rowValue(board.getTile(r*col + i), r) * rowWeight[i];
+		}
+		return code;
+	}
+
+	private int colCode(Board board, int c){
+		int code = 0;
+		for(int i=0; i<row; i++){
+			code += colValue(board.getTile(i*col + c), c) * colWeight[i];
+		}
+		return code;
+	}
+
+	/**
+	 * Stellenwerte base^i
+	 */
+	private static int[] weights(int length, int base){
+		int[] weight = new int[length];
+		weight[0] = 1;
+		for(int i=1; i<length; i++){
+			weight[i] = weight[i-1] * base;
+		}
+		return weight;
+	}
+
+	/**
+	 * Berechnet die Conflicts für alle Codes einer Zeile der Länge length
+	 */
+	private static byte[] conflicts(int length){
+		if(length > 8){
+			throw new IllegalArgumentException("linear conflict supports at most 8 fields per line");
+		}
+
+		int base = length + 1;
+		int size = 1;
+		for(int i=0; i<length; i++){
+			size *= base;
+		}
+
+		byte[] conflicts = new byte[size];
+		int[] values = new int[length];
+
+		for(int code=0; code<size; code++){
+			int tiles = 0;
+			int rest = code;
+			boolean valid = true;
+			long used = 0;
+
+			for(int i=0; i<length; i++){
+				int value = rest % base;
+				rest /= base;
+				if(value != 0){
+					//jede Zielposition kommt höchstens einmal vor
+					valid &= (used & (1L << value)) == 0;
+					used |= 1L << value;
+					values[tiles++] = value;
+				}
+			}
+			if(valid){
+				conflicts[code] = (byte) (2 * (tiles - longestIncreasing(values, tiles)));
+			}
+		}
+		return conflicts;
+	}
+
+	/**
+	 * Länge der längsten aufsteigenden Teilfolge
+	 */
+	private static int longestIncreasing(int[] values, int length){
+		int[] best = new int[length];
+		int longest = 0;
+		for(int i=0; i<length; i++){
+			best[i] = 1;
+			for(int j=0; j<i; j++){
+				if(values[j] < values[i] && best[j] + 1 > best[i]){
+					best[i] = best[j] + 1;
+				}
+			}
+			longest = Math.max(longest, best[i]);
+		}
+		return longest;
+	}
+
+}
@@ -0,0 +1,59 @@
+package heuristic;
+
+/**
+ * Manhattan Distanz
+ * 
+ * Summe der horizontalen und vertikalen Abstände jeder Zahl zu ihrer Zielposition.
+ * Die Abstände sind pro Zahl und Position in einem flachen Array vorberechnet,
+ * update() braucht so pro Bewegung zwei Zugriffe ohne Indirektion über Zeilen-Arrays.
+ * 
+ * @author michael koch
+ */
+
+public class ManhattanDistance implements Heuristic {
+
+	//Manhattan Distanz pro Zahl und Position: distance[tile*length + pos]
+	private final int[] distance;
+	private final int length;
+
+	/**
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 */
+	public ManhattanDistance(int row, int col){
+		this.length = row*col;
+		this.distance = new int[length*length];
+
+		for(int n=1; n<length; n++){
+			for(int pos=0; pos<length; pos++){
+				distance[n*length + pos] = Math.abs(pos % col - (n-1) % col) + Math.abs(pos / col - (n-1) / col);
+			}
+		}
+	}
+
+	@Override
+	public int evaluate(int[] puzzle) {
+		int heuristic = 0;
+		for(int pos=0; pos<puzzle.length; pos++){
+			heuristic += distance[puzzle[pos]*length + pos];
+		}
+		return heuristic;
+	}
+
+	@Override
+	public int update(int heuristic, Board board, int tile, int src, int dst) {
+		int base = tile*length;
+		return heuristic - distance[base + src] + distance[base + dst];
+	}
+
+	/**
+	 * Manhattan Distanz einer Zahl
+	 * @param tile
+	 * @param pos
+	 * @return Abstand der Zahl tile auf der Position pos zu ihrer Zielposition
+	 */
+	public int distance(int tile, int pos){
+		return distance[tile*length + pos];
+	}
+
+}
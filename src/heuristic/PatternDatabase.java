@@ -0,0 +1,297 @@
+package heuristic;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Additive, disjunkte Pattern-Database
+ *
+ * Die Zahlen des Puzzles werden in disjunkte Patterns aufgeteilt (z.B. 6-6-3 beim 4x4 Puzzle).
+ * Pro Pattern enthält eine Tabelle die minimale Anzahl Bewegungen der Pattern-Zahlen, um sie an ihre
+ * Zielposition zu bringen. Da nur Bewegungen der Pattern-Zahlen gezählt werden, dürfen die Werte addiert werden.
+ *
+ * Die Tabellen werden vom PatternDatabaseGenerator erzeugt und hier mit einem MappedByteBuffer gelesen.
+ * Alle Prozessoren auf einem Rechner teilen sich so den Page-Cache, statt eine eigene Kopie im Heap zu halten.
+ *
+ * Dateiformat (big endian): MAGIC, row, col, Anzahl Zahlen k, k Zahlen, danach ein Byte pro Index.
+ *
+ * @author michael koch
+ */
+
+public class PatternDatabase implements Heuristic {
+
+	// "PDB1"
+	static final int MAGIC = 0x50444231;
+
+	private final int length;
+
+	//Zahlen pro Pattern
+	private final int[][] patterns;
+
+	//Pattern und Index im Pattern pro Zahl
+	private final int[] patternOf;
+	private final int[] slotOf;
+
+	//Tabellen der Patterns
+	private final ByteBuffer[] tables;
+	private final int[] offsets;
+
+	/**
+	 * Lädt die Tabellen der Standard-Aufteilung (siehe defaultPartition) aus einem Verzeichnis
+	 *
+	 * @param directory Verzeichnis mit den Tabellen
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 * @throws IOException falls eine Tabelle fehlt oder nicht passt
+	 */
+	public PatternDatabase(File directory, int row, int col) throws IOException {
+		this(directory, row, col, defaultPartition(row, col));
+	}
+
+	/**
+	 * Lädt die Tabellen einer Aufteilung aus einem Verzeichnis
+	 *
+	 * @param directory Verzeichnis mit den Tabellen
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 * @param patterns Aufteilung der Zahlen 1..row*col-1
+	 * @throws IOException falls eine Tabelle fehlt oder nicht passt
+	 */
+	public PatternDatabase(File directory, int row, int col, int[][] patterns) throws IOException {
+		this.length = row*col;
+		this.patterns = patterns;
+		this.patternOf = new int[length];
+		this.slotOf = new int[length];
+		this.tables = new ByteBuffer[patterns.length];
+		this.offsets = new int[patterns.length];
+
+		if(length > 64){
+			throw new IllegalArgumentException("pattern database supports at most 64 fields");
+		}
+
+		for(int p=0; p<patterns.length; p++){
+			if(patterns[p].length > 10){
+				throw new IllegalArgumentException("pattern with more than 10 tiles");
+			}
+			for(int i=0; i<patterns[p].length; i++){
+				patternOf[patterns[p][i]] = p;
+				slotOf[patterns[p][i]] = i;
+			}
+			map(p, new File(directory, fileName(row, col, patterns[p])), row, col);
+		}
+	}
+
+	/**
+	 * Mappt eine Tabelle in den Speicher und prüft den Header
+	 */
+	private void map(int p, File file, int row, int col) throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try{
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			int[] pattern = patterns[p];
+			boolean valid = buffer.getInt() == MAGIC && buffer.getInt() == row && buffer.getInt() == col
+					&& buffer.getInt() == pattern.length;
+			for(int i=0; valid && i<pattern.length; i++){
+				valid = buffer.getInt() == pattern[i];
+			}
+			offsets[p] = buffer.position();
+			if(!valid || channel.size() - offsets[p] != size(length, pattern.length)){
+				throw new IOException("invalid pattern database " + file);
+			}
+			tables[p] = buffer;
+		}finally{
+			//das Mapping bleibt nach dem Schliessen gültig
+			channel.close();
+		}
+	}
+
+	@Override
+	public int evaluate(int[] puzzle) {
+		int[][] positions = new int[patterns.length][];
+		for(int p=0; p<patterns.length; p++){
+			positions[p] = new int[patterns[p].length];
+		}
+		for(int pos=0; pos<puzzle.length; pos++){
+			if(puzzle[pos] != 0){
+				positions[patternOf[puzzle[pos]]][slotOf[puzzle[pos]]] = pos;
+			}
+		}
+
+		int heuristic = 0;
+		for(int p=0; p<patterns.length; p++){
+			heuristic += lookup(p, rank(positions[p], length));
+		}
+		return heuristic;
+	}
+
+	/**
+	 * Nur das Pattern der verschobenen Zahl ändert sich. Dessen Positionen werden mit einem Durchlauf
+	 * über das Puzzle in einem long gesammelt (6 Bit pro Zahl), daraus folgen die Indizes vor und nach der Bewegung.
+	 */
+	@Override
+	public int update(int heuristic, Board board, int tile, int src, int dst) {
+		int p = patternOf[tile];
+		long positions = 0;
+
+		for(int pos=0; pos<length; pos++){
+			int n = board.getTile(pos);
+			if(n != 0 && patternOf[n] == p){
+				positions |= ((long) pos) << (6*slotOf[n]);
+			}
+		}
+
+		int shift = 6*slotOf[tile];
+		long before = (positions & ~(63L << shift)) | (((long) src) << shift);
+
+		return heuristic - lookup(p, rank(before, patterns[p].length, length))
+				+ lookup(p, rank(positions, patterns[p].length, length));
+	}
+
+	private int lookup(int p, int index){
+		return tables[p].get(offsets[p] + index) & 0xFF;
+	}
+
+
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+	// INDEX
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Anzahl Einträge einer Tabelle: length! / (length-k)!
+	 * @param length Anzahl Felder
+	 * @param k Anzahl Zahlen im Pattern
+	 * @return Grösse der Tabelle
+	 */
+	static long size(int length, int k){
+		long size = 1;
+		for(int i=0; i<k; i++){
+			size *= length - i;
+		}
+		return size;
+	}
+
+	/**
+	 * Index der Positionen (k-Permutation aus length Feldern)
+	 * @param positions Positionen der Pattern-Zahlen
+	 * @param length Anzahl Felder (max. 64)
+	 * @return Index in der Tabelle
+	 */
+	static int rank(int[] positions, int length){
+		long index = 0;
+		long used = 0;
+		for(int i=0; i<positions.length; i++){
+			int pos = positions[i];
+			index = index * (length - i) + (pos - Long.bitCount(used & ((1L << pos) - 1)));
+			used |= 1L << pos;
+		}
+		return (int) index;
+	}
+
+	/**
+	 * Index von k Positionen, welche mit je 6 Bit in einem long gepackt sind
+	 * @param positions gepackte Positionen
+	 * @param k Anzahl Zahlen im Pattern
+	 * @param length Anzahl Felder (max. 64)
+	 * @return Index in der Tabelle
+	 */
+	static int rank(long positions, int k, int length){
+		long index = 0;
+		long used = 0;
+		for(int i=0; i<k; i++){
+			int pos = (int) (positions >>> (6*i)) & 63;
+			index = index * (length - i) + (pos - Long.bitCount(used & ((1L << pos) - 1)));
+			used |= 1L << pos;
+		}
+		return (int) index;
+	}
+
+	/**
+	 * Positionen zu einem Index (Umkehrung von rank)
+	 * @param index
+	 * @param length Anzahl Felder
+	 * @param positions Ausgabe der Positionen
+	 */
+	static void unrank(long index, int length, int[] positions){
+		int k = positions.length;
+		for(int i=k-1; i>=0; i--){
+			positions[i] = (int) (index % (length - i));
+			index /= length - i;
+		}
+
+		long used = 0;
+		for(int i=0; i<k; i++){
+			//die positions[i]-te noch freie Position
+			int free = positions[i];
+			int pos = 0;
+			while(true){
+				if((used & (1L << pos)) == 0){
+					if(free == 0){
+						break;
+					}
+					free--;
+				}
+				pos++;
+			}
+			positions[i] = pos;
+			used |= 1L << pos;
+		}
+	}
+
+
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+	// AUFTEILUNG
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Standard-Aufteilung der Zahlen: 6-6-3 für 4x4, 6-6-6-6 für 5x5,
+	 * sonst aufeinanderfolgende Gruppen von höchstens 6 Zahlen.
+	 *
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 * @return Zahlen pro Pattern
+	 */
+	public static int[][] defaultPartition(int row, int col){
+		if(row == 4 && col == 4){
+			return new int[][]{
+				{1, 2, 5, 6, 9, 13},
+				{3, 4, 7, 8, 11, 12},
+				{10, 14, 15}
+			};
+		}
+		if(row == 5 && col == 5){
+			return new int[][]{
+				{1, 2, 3, 6, 7, 8},
+				{4, 5, 9, 10, 14, 15},
+				{11, 12, 16, 17, 21, 22},
+				{13, 18, 19, 20, 23, 24}
+			};
+		}
+
+		int tiles = row*col - 1;
+		int[][] partition = new int[(tiles + 5) / 6][];
+		for(int p=0; p<partition.length; p++){
+			partition[p] = new int[Math.min(6, tiles - p*6)];
+			for(int i=0; i<partition[p].length; i++){
+				partition[p][i] = p*6 + i + 1;
+			}
+		}
+		return partition;
+	}
+
+	/**
+	 * Dateiname einer Tabelle, z.B. pdb-4x4-1-2-5-6-9-13.bin
+	 */
+	static String fileName(int row, int col, int[] pattern){
+		StringBuilder name = new StringBuilder("pdb-" + row + "x" + col);
+		for(int tile : pattern){
+			name.append('-').append(tile);
+		}
+		return name.append(".bin").toString();
+	}
+
+}
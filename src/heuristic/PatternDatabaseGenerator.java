@@ -0,0 +1,356 @@
+package heuristic;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Erzeugt die Tabellen der PatternDatabase offline mit einer parallelen Breitensuche.
+ *
+ * Ein Zustand der Suche besteht aus den Positionen der Pattern-Zahlen und der Position des Blanks.
+ * Bewegungen einer Pattern-Zahl kosten 1, Bewegungen anderer Zahlen kosten 0. Pro Kostenstufe wird deshalb
+ * zuerst die Hülle der 0-Kosten-Bewegungen gebildet, bevor die nächste Stufe beginnt.
+ *
+ * Besuchte Zustände und die Frontiers sind Bitsets (AtomicLongArray), welche pro Stufe in Wortblöcken
+ * auf die Threads verteilt werden. Speicherbedarf: 4 Bitsets mit je (Tabellengrösse * Anzahl Felder) Bit.
+ *
+ * Aufruf: PatternDatabaseGenerator row col verzeichnis [threads]
+ *
+ * @author michael koch
+ */
+
+public class PatternDatabaseGenerator {
+
+	// Anzahl Wörter pro Arbeitspaket
+	private static final int CHUNK = 4096;
+
+	private final int row;
+	private final int col;
+	private final int length;
+	private final int[] pattern;
+	private final ExecutorService executor;
+
+	//Nachbarposition des Blanks pro Position und Richtung, -1 = nicht möglich
+	private final int[] neighbor;
+
+	//Bitsets über alle Zustände (Index * length + Blank)
+	private AtomicLongArray visited;
+	private AtomicLongArray work;
+	private AtomicLongArray added;
+	private AtomicLongArray next;
+
+	//Ergebnis, 0xFF = noch nicht erreicht
+	private byte[] table;
+
+	public static void main(String[] args) throws Exception {
+
+		if(args.length < 3){
+			System.out.println("usage: PatternDatabaseGenerator row col directory [threads]");
+			return;
+		}
+
+		int row = Integer.parseInt(args[0]);
+		int col = Integer.parseInt(args[1]);
+		File directory = new File(args[2]);
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+		directory.mkdirs();
+		for(int[] pattern : PatternDatabase.defaultPartition(row, col)){
+			PatternDatabaseGenerator generator = new PatternDatabaseGenerator(row, col, pattern, threads);
+			try{
+				generator.generate(new File(directory, PatternDatabase.fileName(row, col, pattern)));
+			}finally{
+				generator.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 * @param pattern Zahlen des Patterns
+	 * @param threads Anzahl Threads
+	 */
+	public PatternDatabaseGenerator(int row, int col, int[] pattern, int threads){
+		this.row = row;
+		this.col = col;
+		this.length = row*col;
+		this.pattern = pattern;
+		this.executor = Executors.newFixedThreadPool(threads);
+
+		this.neighbor = new int[length*4];
+		for(int pos=0; pos<length; pos++){
+			int x = pos % col;
+			int y = pos / col;
+			neighbor[pos*4] = y > 0 ? pos - col : -1;
+			neighbor[pos*4 + 1] = y < row-1 ? pos + col : -1;
+			neighbor[pos*4 + 2] = x > 0 ? pos - 1 : -1;
+			neighbor[pos*4 + 3] = x < col-1 ? pos + 1 : -1;
+		}
+	}
+
+	/**
+	 * Führt die Breitensuche aus und schreibt die Tabelle
+	 * @param file Zieldatei
+	 * @throws Exception
+	 */
+	public void generate(File file) throws Exception {
+
+		long size = PatternDatabase.size(length, pattern.length);
+		if(size > Integer.MAX_VALUE){
+			throw new IllegalArgumentException("pattern too large: " + size + " entries");
+		}
+
+		int words = (int) ((size * length + 63) >>> 6);
+		visited = new AtomicLongArray(words);
+		work = new AtomicLongArray(words);
+		added = new AtomicLongArray(words);
+		next = new AtomicLongArray(words);
+		table = new byte[(int) size];
+		Arrays.fill(table, (byte) 0xFF);
+
+		long startTime = System.currentTimeMillis();
+
+		//Zielzustand: jede Zahl an ihrem Platz, Blank unten rechts
+		int[] goal = new int[pattern.length];
+		for(int i=0; i<pattern.length; i++){
+			goal[i] = pattern[i] - 1;
+		}
+		long start = (long) PatternDatabase.rank(goal, length) * length + (length - 1);
+		next.set((int) (start >>> 6), 1L << start);
+
+		int cost = 0;
+		long states = startLevel(cost);
+
+		while(states > 0){
+			long levelStates = states;
+
+			//Hülle der 0-Kosten-Bewegungen
+			long added;
+			do{
+				added = expand(cost);
+				levelStates += added;
+			}while(added > 0);
+
+			System.out.println(PatternDatabase.fileName(row, col, pattern) + " cost " + cost + ": " + levelStates + " states");
+
+			cost++;
+			states = startLevel(cost);
+		}
+
+		write(file);
+		System.out.println(file + " written in " + (System.currentTimeMillis() - startTime) + "ms");
+	}
+
+	public void shutdown(){
+		executor.shutdown();
+	}
+
+
+	/**
+	 * Übernimmt die noch nicht besuchten Zustände aus next als neue Frontier
+	 * @param cost Kosten der neuen Stufe
+	 * @return Anzahl Zustände der Frontier
+	 */
+	private long startLevel(final int cost) throws Exception {
+		final AtomicLong count = new AtomicLong();
+
+		parallel(new Block(){
+			public void run(int from, int to){
+				long n = 0;
+				for(int w=from; w<to; w++){
+					long bits = next.get(w) & ~visited.get(w);
+					next.set(w, 0);
+					work.set(w, bits);
+					visited.set(w, visited.get(w) | bits);
+					n += Long.bitCount(bits);
+
+					while(bits != 0){
+						record(((long) w << 6) + Long.numberOfTrailingZeros(bits), cost);
+						bits &= bits - 1;
+					}
+				}
+				count.addAndGet(n);
+			}
+		});
+		return count.get();
+	}
+
+
+	/**
+	 * Expandiert alle Zustände in work. 0-Kosten-Nachfolger kommen in die nächste Runde (added),
+	 * 1-Kosten-Nachfolger in die nächste Stufe (next).
+	 * @param cost aktuelle Kosten
+	 * @return Anzahl neuer 0-Kosten-Zustände
+	 */
+	private long expand(final int cost) throws Exception {
+		final AtomicLong count = new AtomicLong();
+
+		parallel(new Block(){
+			public void run(int from, int to){
+				int[] positions = new int[pattern.length];
+				int[] owner = new int[length];
+				long n = 0;
+
+				for(int w=from; w<to; w++){
+					long bits = work.get(w);
+					work.set(w, 0);
+
+					while(bits != 0){
+						long state = ((long) w << 6) + Long.numberOfTrailingZeros(bits);
+						bits &= bits - 1;
+
+						long index = state / length;
+						int blank = (int) (state % length);
+
+						PatternDatabase.unrank(index, length, positions);
+						Arrays.fill(owner, -1);
+						for(int i=0; i<positions.length; i++){
+							owner[positions[i]] = i;
+						}
+
+						for(int dir=0; dir<4; dir++){
+							int target = neighbor[blank*4 + dir];
+							if(target == -1){
+								continue;
+							}
+
+							int slot = owner[target];
+							if(slot == -1){
+								//andere Zahl verschoben: gleiche Kosten
+								long successor = index * length + target;
+								if(trySet(visited, successor)){
+									set(added, successor);
+									record(successor, cost);
+									n++;
+								}
+							}else{
+								//Pattern-Zahl verschoben: Kosten + 1
+								positions[slot] = blank;
+								long successor = (long) PatternDatabase.rank(positions, length) * length + target;
+								positions[slot] = target;
+								if(!get(visited, successor)){
+									set(next, successor);
+								}
+							}
+						}
+					}
+				}
+				count.addAndGet(n);
+			}
+		});
+
+		AtomicLongArray tmp = work;
+		work = added;
+		added = tmp;
+		return count.get();
+	}
+
+
+	/**
+	 * Minimum über alle Blank-Positionen: der erste erreichte Wert bleibt
+	 */
+	private void record(long state, int cost){
+		int index = (int) (state / length);
+		if(table[index] == (byte) 0xFF){
+			table[index] = (byte) cost;
+		}
+	}
+
+
+	/**
+	 * Schreibt Header und Tabelle
+	 */
+	private void write(File file) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+		try{
+			out.writeInt(PatternDatabase.MAGIC);
+			out.writeInt(row);
+			out.writeInt(col);
+			out.writeInt(pattern.length);
+			for(int tile : pattern){
+				out.writeInt(tile);
+			}
+			out.write(table);
+		}finally{
+			out.close();
+		}
+	}
+
+
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+	// BITSET
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+
+	private static boolean get(AtomicLongArray bits, long i){
+		return (bits.get((int) (i >>> 6)) & (1L << i)) != 0;
+	}
+
+	private static void set(AtomicLongArray bits, long i){
+		trySet(bits, i);
+	}
+
+	/**
+	 * Setzt ein Bit atomar
+	 * @return true, wenn das Bit vorher nicht gesetzt war
+	 */
+	private static boolean trySet(AtomicLongArray bits, long i){
+		int word = (int) (i >>> 6);
+		long mask = 1L << i;
+		long old;
+		do{
+			old = bits.get(word);
+			if((old & mask) != 0){
+				return false;
+			}
+		}while(!bits.compareAndSet(word, old, old | mask));
+		return true;
+	}
+
+
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+	// PARALLELISIERUNG
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Ein Block von Wörtern der Bitsets
+	 */
+	private interface Block {
+		void run(int from, int to);
+	}
+
+	/**
+	 * Verteilt alle Wörter in Blöcken auf die Threads und wartet, bis alle fertig sind
+	 */
+	private void parallel(final Block block) throws Exception {
+		final int words = visited.length();
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+
+		for(int from=0; from<words; from+=CHUNK){
+			final int start = from;
+			final int end = Math.min(words, from + CHUNK);
+			tasks.add(new Callable<Object>(){
+				public Object call(){
+					block.run(start, end);
+					return null;
+				}
+			});
+		}
+
+		for(Future<Object> future : executor.invokeAll(tasks)){
+			future.get();
+		}
+	}
+
+}
@@ -0,0 +1,101 @@
+package heuristic;
+
+/**
+ * Perimeter-Suche: eine Heuristik, welche nahe am Ziel die exakte Distanz aus der PerimeterTable verwendet.
+ *
+ * Liegt ein Puzzle im Perimeter (höchstens depth Bewegungen bis zum Ziel), ist die Heuristik die exakte Distanz.
+ * Sonst braucht es mindestens depth + 1 Bewegungen, die Heuristik ist das Maximum aus depth + 1 und der
+ * zugrundeliegenden Heuristik. IDA* sucht so nur bis zum Perimeter, innerhalb folgt es direkt der exakten Distanz.
+ * Die Parität der Lösungslänge ist durch das Puzzle bestimmt (gleich wie die der Manhattan Distanz), die untere
+ * Schranke wird deshalb auf depth + 2 erhöht, wenn depth + 1 die falsche Parität hat. Sonst gäbe es zusätzliche
+ * IDA*-Iterationen mit Suchtiefen, in welchen keine Lösung liegen kann.
+ *
+ * Nachgeführt wird wie bisher inkrementell. Nur wenn die Heuristik höchstens depth + 2 ist, kann der Wert der
+ * zugrundeliegenden Heuristik verloren sein, dann wird sie neu berechnet und im Perimeter nachgeschlagen.
+ * Weiter vom Ziel entfernte Puzzles kosten also nichts zusätzlich.
+ *
+ * @author michael koch
+ */
+
+public class PerimeterHeuristic implements Heuristic {
+
+	private final Heuristic heuristic;
+	private final PerimeterTable table;
+	private final int depth;
+	private final int length;
+
+	//Parität der Manhattan Distanz pro Zahl und Position
+	private final int[] parity;
+
+	/**
+	 * @param heuristic zugrundeliegende Heuristik ausserhalb des Perimeters
+	 * @param table Perimeter um das Ziel
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 */
+	public PerimeterHeuristic(Heuristic heuristic, PerimeterTable table, int row, int col){
+		this.heuristic = heuristic;
+		this.table = table;
+		this.depth = table.getDepth();
+		this.length = row*col;
+
+		this.parity = new int[length*length];
+		for(int n=1; n<length; n++){
+			for(int pos=0; pos<length; pos++){
+				parity[n*length + pos] = (pos % col + pos / col + (n-1) % col + (n-1) / col) & 1;
+			}
+		}
+	}
+
+	@Override
+	public int evaluate(int[] puzzle) {
+		return combine(heuristic.evaluate(puzzle), new ArrayBoard(puzzle));
+	}
+
+	@Override
+	public int update(int estimate, Board board, int tile, int src, int dst) {
+
+		//über depth + 2 ist die Heuristik unverändert die zugrundeliegende
+		if(estimate > depth + 2){
+			return combine(heuristic.update(estimate, board, tile, src, dst), board);
+		}
+
+		int[] puzzle = new int[length];
+		for(int pos=0; pos<length; pos++){
+			puzzle[pos] = board.getTile(pos);
+		}
+		return combine(heuristic.evaluate(puzzle), board);
+	}
+
+	/**
+	 * @param estimate zugrundeliegende Heuristik
+	 * @param board
+	 * @return exakte Distanz im Perimeter, sonst mindestens depth + 1 bzw. depth + 2
+	 */
+	private int combine(int estimate, Board board){
+
+		//die zugrundeliegende Heuristik überschätzt nie, das Puzzle liegt ausserhalb
+		if(estimate > depth){
+			return estimate;
+		}
+
+		int distance = table.distance(board);
+		if(distance != -1){
+			return distance;
+		}
+
+		int odd = 0;
+		for(int pos=0; pos<length; pos++){
+			odd ^= parity[board.getTile(pos)*length + pos];
+		}
+		return ((depth + 1) & 1) == odd ? depth + 1 : depth + 2;
+	}
+
+	/**
+	 * @return Perimeter um das Ziel
+	 */
+	public PerimeterTable getTable(){
+		return table;
+	}
+
+}
@@ -0,0 +1,416 @@
+package heuristic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Perimeter um die Zielkonfiguration: alle Puzzles mit höchstens depth Bewegungen bis zum Ziel und ihre exakte Distanz.
+ *
+ * Die Tabelle wird mit einer parallelen Breitensuche rückwärts vom Ziel erzeugt. Pro Stufe wird die Frontier
+ * in Blöcken auf die Threads verteilt, diese sammeln die noch unbekannten Nachbarn. Eingetragen wird danach
+ * in einem Thread, dabei fallen doppelte Nachbarn weg.
+ *
+ * Gespeichert wird in einer Hash-Tabelle mit offener Adressierung: das gepackte Puzzle (bits Bit pro Feld,
+ * bis 16 Felder in einem long) und die Distanz + 1 als byte, 0 = leer. Höchstens die Hälfte der Plätze ist belegt.
+ *
+ * Mit AUTO wird die Tiefe aus dem freien Speicher gewählt: eine weitere Stufe wird nur gesucht, wenn
+ * sie bei gleichem Wachstum wie die letzte Stufe in der Hälfte des freien Speichers Platz hat.
+ *
+ * Die Tabelle wird pro Puzzle-Grösse und Tiefe nur einmal erzeugt (siehe get()) und von allen Solvern
+ * und Threads der JVM gemeinsam gelesen.
+ *
+ * @author michael koch
+ */
+
+public class PerimeterTable {
+
+	// Tiefe aus dem freien Speicher wählen
+	public static final int AUTO = -1;
+
+	// grösste Distanz, welche in einem byte Platz hat
+	private static final int MAX_DEPTH = 126;
+
+	// Anzahl States der Frontier pro Arbeitspaket
+	private static final int CHUNK = 4096;
+
+	// bereits erzeugte Tabellen pro Puzzle-Grösse und Tiefe
+	private static final HashMap<String, PerimeterTable> TABLES = new HashMap<String, PerimeterTable>();
+
+	private final int row;
+	private final int col;
+	private final int length;
+
+	//Bit pro Feld, Felder pro long und longs pro Puzzle
+	private final int bits;
+	private final int fields;
+	private final int words;
+	private final long fieldMask;
+
+	//Nachbarposition des Blanks pro Position und Richtung, -1 = nicht möglich
+	private final int[] neighbor;
+
+	//Hash-Tabelle: words longs pro Platz, Distanz + 1 pro Platz
+	private long[] keys;
+	private byte[] distances;
+	private int mask;
+	private int size;
+
+	//alle Puzzles bis zu dieser Distanz sind in der Tabelle
+	private int depth;
+
+	private long buildTime;
+
+	/**
+	 * Tabelle für eine Puzzle-Grösse und Tiefe, wird beim ersten Aufruf erzeugt
+	 *
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 * @param depth Anzahl Bewegungen ab dem Ziel oder AUTO
+	 * @param threads Anzahl Threads der Breitensuche
+	 * @return Tabelle
+	 */
+	public static PerimeterTable get(int row, int col, int depth, int threads){
+		String key = row + "x" + col + ":" + depth;
+		synchronized(TABLES){
+			PerimeterTable table = TABLES.get(key);
+			if(table == null){
+				table = new PerimeterTable(row, col, depth, threads);
+				TABLES.put(key, table);
+			}
+			return table;
+		}
+	}
+
+
+	/**
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 * @param depth Anzahl Bewegungen ab dem Ziel oder AUTO
+	 * @param threads Anzahl Threads der Breitensuche
+	 */
+	private PerimeterTable(int row, int col, int depth, int threads){
+		if(depth != AUTO && (depth < 0 || depth > MAX_DEPTH)){
+			throw new IllegalArgumentException("perimeter depth must be between 0 and " + MAX_DEPTH + ": " + depth);
+		}
+		this.row = row;
+		this.col = col;
+		this.length = row*col;
+		this.bits = 32 - Integer.numberOfLeadingZeros(length - 1);
+		this.fields = 64 / bits;
+		this.words = (length + fields - 1) / fields;
+		this.fieldMask = (1L << bits) - 1;
+
+		this.neighbor = new int[length*4];
+		for(int pos=0; pos<length; pos++){
+			int x = pos % col;
+			int y = pos / col;
+			neighbor[pos*4] = y > 0 ? pos - col : -1;
+			neighbor[pos*4 + 1] = y < row-1 ? pos + col : -1;
+			neighbor[pos*4 + 2] = x > 0 ? pos - 1 : -1;
+			neighbor[pos*4 + 3] = x < col-1 ? pos + 1 : -1;
+		}
+
+		allocate(1024);
+
+		long startTime = System.currentTimeMillis();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+		try{
+			search(depth, executor);
+		}catch(Exception e){
+			throw new IllegalStateException("perimeter search failed: " + e, e);
+		}finally{
+			executor.shutdown();
+		}
+		this.buildTime = System.currentTimeMillis() - startTime;
+	}
+
+
+	/**
+	 * Breitensuche rückwärts vom Ziel, Stufe für Stufe
+	 */
+	private void search(int maxDepth, ExecutorService executor) throws Exception {
+
+		//Ziel: Zahlen aufsteigend, Blank unten rechts
+		long[] frontier = new long[words];
+		for(int pos=0; pos<length-1; pos++){
+			set(frontier, 0, pos, pos + 1);
+		}
+		insert(frontier, 0, 0);
+		int count = 1;
+		int previous = 0;
+
+		while(depth < (maxDepth == AUTO ? MAX_DEPTH : maxDepth)){
+			if(maxDepth == AUTO && !fits(count, previous)){
+				break;
+			}
+
+			long[] next = expand(frontier, count, executor);
+			previous = count;
+			count = 0;
+			for(int i=0; i<next.length; i+=words){
+				if(insert(next, i, depth + 1)){
+					System.arraycopy(next, i, next, count*words, words);
+					count++;
+				}
+			}
+			if(count == 0){
+				//alle erreichbaren Puzzles sind in der Tabelle
+				break;
+			}
+			frontier = next;
+			depth++;
+		}
+	}
+
+
+	/**
+	 * Schätzt, ob die nächste Stufe in der Hälfte des freien Speichers Platz hat
+	 * @param count Anzahl States der aktuellen Stufe
+	 * @param previous Anzahl States der vorherigen Stufe
+	 */
+	private boolean fits(int count, int previous){
+		double growth = previous == 0 ? 4 : Math.max(1.0, (double) count / previous);
+		double next = count * growth;
+
+		//Tabelle nach dem Vergrössern, Nachbarn aller Threads und neue Frontier
+		double bytes = 4 * (size + next) * (8*words + 1) + 3 * count * 8*words + next * 8*words;
+
+		Runtime runtime = Runtime.getRuntime();
+		long free = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+		return bytes < free / 2 && size + next < Integer.MAX_VALUE / (2*words);
+	}
+
+
+	/**
+	 * Sammelt parallel die noch nicht eingetragenen Nachbarn der Frontier
+	 * @return Nachbarn, words longs pro Puzzle, kann doppelte enthalten
+	 */
+	private long[] expand(final long[] frontier, int count, ExecutorService executor) throws Exception {
+		List<Future<long[]>> futures = new ArrayList<Future<long[]>>();
+
+		for(int start=0; start<count; start+=CHUNK){
+			final int from = start;
+			final int to = Math.min(count, start + CHUNK);
+			futures.add(executor.submit(new Callable<long[]>(){
+				public long[] call(){
+					long[] found = new long[4*(to - from)*words];
+					int n = 0;
+
+					for(int s=from; s<to; s++){
+						int offset = s*words;
+						int blank = blank(frontier, offset);
+
+						for(int move=0; move<4; move++){
+							int target = neighbor[blank*4 + move];
+							if(target == -1){
+								continue;
+							}
+							System.arraycopy(frontier, offset, found, n*words, words);
+							set(found, n*words, blank, get(frontier, offset, target));
+							set(found, n*words, target, 0);
+							if(find(found, n*words) == -1){
+								n++;
+							}
+						}
+					}
+					return Arrays.copyOf(found, n*words);
+				}
+			}));
+		}
+
+		int total = 0;
+		List<long[]> parts = new ArrayList<long[]>();
+		for(Future<long[]> future : futures){
+			long[] part = future.get();
+			parts.add(part);
+			total += part.length;
+		}
+
+		long[] next = new long[total];
+		int position = 0;
+		for(long[] part : parts){
+			System.arraycopy(part, 0, next, position, part.length);
+			position += part.length;
+		}
+		return next;
+	}
+
+
+	/**
+	 * Exakte Distanz eines Puzzles zum Ziel
+	 * @param board
+	 * @return Anzahl Bewegungen oder -1, wenn das Puzzle ausserhalb des Perimeters liegt
+	 */
+	public int distance(Board board){
+		if(words == 1){
+			long key = 0L;
+			for(int pos=0; pos<length; pos++){
+				key |= ((long) board.getTile(pos)) << (pos*bits);
+			}
+			for(int slot=hash(key) & mask; ; slot=(slot + 1) & mask){
+				if(distances[slot] == 0){
+					return -1;
+				}
+				if(keys[slot] == key){
+					return distances[slot] - 1;
+				}
+			}
+		}
+
+		long[] key = new long[words];
+		for(int pos=0; pos<length; pos++){
+			set(key, 0, pos, board.getTile(pos));
+		}
+		int slot = find(key, 0);
+		return slot == -1 ? -1 : distances[slot] - 1;
+	}
+
+
+	/**
+	 * @return alle Puzzles bis zu dieser Anzahl Bewegungen sind in der Tabelle
+	 */
+	public int getDepth(){
+		return depth;
+	}
+
+
+	/**
+	 * @return Anzahl Puzzles in der Tabelle
+	 */
+	public int size(){
+		return size;
+	}
+
+
+	/**
+	 * @return Speicherbedarf der Tabelle in Bytes
+	 */
+	public long getBytes(){
+		return (long) keys.length * 8 + distances.length;
+	}
+
+
+	@Override
+	public String toString(){
+		return "perimeter " + row + "x" + col + ": depth " + depth + ", " + size + " states, "
+				+ (getBytes() >> 20) + "MB, " + buildTime + "ms";
+	}
+
+
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+	// HASH-TABELLE
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+
+	private void allocate(int capacity){
+		keys = new long[capacity*words];
+		distances = new byte[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * @return Platz des Puzzles ab offset oder -1, wenn es nicht in der Tabelle ist
+	 */
+	private int find(long[] key, int offset){
+		for(int slot=hash(key, offset) & mask; ; slot=(slot + 1) & mask){
+			if(distances[slot] == 0){
+				return -1;
+			}
+			if(equals(slot, key, offset)){
+				return slot;
+			}
+		}
+	}
+
+	/**
+	 * Trägt ein Puzzle ein, falls es noch nicht in der Tabelle ist
+	 * @return true, wenn das Puzzle neu ist
+	 */
+	private boolean insert(long[] key, int offset, int distance){
+		if(2*(size + 1) > distances.length){
+			grow();
+		}
+		int slot = hash(key, offset) & mask;
+		while(distances[slot] != 0){
+			if(equals(slot, key, offset)){
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		System.arraycopy(key, offset, keys, slot*words, words);
+		distances[slot] = (byte) (distance + 1);
+		size++;
+		return true;
+	}
+
+	private void grow(){
+		long[] oldKeys = keys;
+		byte[] oldDistances = distances;
+		allocate(2*oldDistances.length);
+
+		for(int old=0; old<oldDistances.length; old++){
+			if(oldDistances[old] != 0){
+				int slot = hash(oldKeys, old*words) & mask;
+				while(distances[slot] != 0){
+					slot = (slot + 1) & mask;
+				}
+				System.arraycopy(oldKeys, old*words, keys, slot*words, words);
+				distances[slot] = oldDistances[old];
+			}
+		}
+	}
+
+	private boolean equals(int slot, long[] key, int offset){
+		for(int w=0; w<words; w++){
+			if(keys[slot*words + w] != key[offset + w]){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int hash(long[] key, int offset){
+		long h = key[offset];
+		for(int w=1; w<words; w++){
+			h = h * 0x9E3779B97F4A7C15L ^ key[offset + w];
+		}
+		return hash(h);
+	}
+
+	private static int hash(long key){
+		long h = key * 0x9E3779B97F4A7C15L;
+		h ^= h >>> 31;
+		h *= 0xBF58476D1CE4E5B9L;
+		return (int) (h ^ (h >>> 29));
+	}
+
+
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+	// GEPACKTES PUZZLE
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+
+	private int get(long[] key, int offset, int pos){
+		return (int) ((key[offset + pos / fields] >>> ((pos % fields) * bits)) & fieldMask);
+	}
+
+	private void set(long[] key, int offset, int pos, int tile){
+		int w = offset + pos / fields;
+		int shift = (pos % fields) * bits;
+		key[w] = (key[w] & ~(fieldMask << shift)) | ((long) tile << shift);
+	}
+
+	private int blank(long[] key, int offset){
+		for(int pos=0; pos<length; pos++){
+			if(get(key, offset, pos) == 0){
+				return pos;
+			}
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,279 @@
+package heuristic;
+
+import java.util.Arrays;
+
+/**
+ * Walking Distance
+ *
+ * Für die vertikale Richtung wird nur gezählt, wie viele Zahlen jeder Zielzeile in welcher Zeile stehen
+ * (die Spalten werden ignoriert). Die minimale Anzahl vertikaler Bewegungen, um diese Zählmatrix in die
+ * Zielmatrix zu überführen, ist vorberechnet. Gleiches gilt für die horizontale Richtung mit den Spalten.
+ * Die Summe beider Richtungen ist zulässig und meist deutlich grösser als die Manhattan Distanz.
+ *
+ * Die Zählmatrix wird in einem long codiert (die letzte Zeile ergibt sich aus den anderen).
+ * Eine Bewegung verändert nur die Matrix ihrer Richtung, die andere Richtung bleibt unverändert.
+ *
+ * Die Tabellen werden beim Start mit einer Breitensuche erzeugt. Beim 4x4 Puzzle sind es 24964 Zählmatrizen,
+ * beim 5x5 Puzzle bereits über 65 Millionen. Grössere Tabellen als MAX_STATES werden deshalb abgelehnt.
+ *
+ * @author michael koch
+ */
+
+public class WalkingDistance implements Heuristic {
+
+	// maximale Anzahl Zählmatrizen pro Tabelle
+	static final int MAX_STATES = 1 << 22;
+
+	private final int col;
+	private final int length;
+
+	//Zeilen: row Linien mit je col Feldern, Spalten: col Linien mit je row Feldern
+	private final Table vertical;
+	private final Table horizontal;
+
+	/**
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 */
+	public WalkingDistance(int row, int col){
+		this.col = col;
+		this.length = row*col;
+		this.vertical = new Table(row, col);
+		//bei quadratischen Puzzles sind beide Tabellen gleich
+		this.horizontal = row == col ? vertical : new Table(col, row);
+	}
+
+	@Override
+	public int evaluate(int[] puzzle) {
+		Board board = new ArrayBoard(puzzle);
+		return vertical.lookup(verticalKey(board)) + horizontal.lookup(horizontalKey(board));
+	}
+
+	@Override
+	public int update(int heuristic, Board board, int tile, int src, int dst) {
+		if(src / col != dst / col){
+			long after = verticalKey(board);
+			int goal = (tile-1) / col;
+			long before = after - vertical.unit(dst / col, goal) + vertical.unit(src / col, goal);
+			return heuristic - vertical.lookup(before) + vertical.lookup(after);
+		}else{
+			long after = horizontalKey(board);
+			int goal = (tile-1) % col;
+			long before = after - horizontal.unit(dst % col, goal) + horizontal.unit(src % col, goal);
+			return heuristic - horizontal.lookup(before) + horizontal.lookup(after);
+		}
+	}
+
+	private long verticalKey(Board board){
+		long key = 0;
+		for(int pos=0; pos<length; pos++){
+			int tile = board.getTile(pos);
+			if(tile != 0){
+				key += vertical.unit(pos / col, (tile-1) / col);
+			}
+		}
+		return key;
+	}
+
+	private long horizontalKey(Board board){
+		long key = 0;
+		for(int pos=0; pos<length; pos++){
+			int tile = board.getTile(pos);
+			if(tile != 0){
+				key += horizontal.unit(pos % col, (tile-1) % col);
+			}
+		}
+		return key;
+	}
+
+
+	/**
+	 * Walking Distance Tabelle einer Richtung
+	 */
+	private static class Table {
+
+		//Anzahl Linien und Felder pro Linie
+		final int lines;
+		final int capacity;
+
+		//Bits pro Zähler
+		final int bits;
+
+		//Zählmatrix-Code -> Walking Distance
+		final LongByteMap distance;
+
+		Table(int lines, int capacity){
+			this.lines = lines;
+			this.capacity = capacity;
+			this.bits = 32 - Integer.numberOfLeadingZeros(capacity);
+
+			if(capacity < 2 || (lines-1) * lines * bits > 63){
+				throw new IllegalArgumentException("walking distance not supported for " + lines + " lines of " + capacity);
+			}
+
+			this.distance = new LongByteMap();
+			generate();
+		}
+
+		/**
+		 * Code-Anteil einer Zahl mit Ziellinie goal auf der Linie line
+		 */
+		long unit(int line, int goal){
+			return line < lines-1 ? 1L << (bits * (line*lines + goal)) : 0L;
+		}
+
+		int lookup(long key){
+			return distance.get(key);
+		}
+
+		/**
+		 * Breitensuche ab der Zielmatrix. Eine Bewegung tauscht das Blank mit einer Zahl
+		 * der Nachbarlinie, welche damit in die Linie des Blanks wechselt.
+		 */
+		private void generate(){
+			int[][] count = new int[lines][lines];
+			for(int l=0; l<lines; l++){
+				count[l][l] = l < lines-1 ? capacity : capacity-1;
+			}
+
+			long[] queue = new long[1024];
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = encode(count);
+			distance.put(queue[0], 0);
+
+			while(head < tail){
+				long key = queue[head++];
+				int value = distance.get(key);
+				int blank = decode(key, count);
+
+				for(int neighbor=blank-1; neighbor<=blank+1; neighbor+=2){
+					if(neighbor < 0 || neighbor >= lines){
+						continue;
+					}
+					for(int goal=0; goal<lines; goal++){
+						if(count[neighbor][goal] == 0){
+							continue;
+						}
+						count[neighbor][goal]--;
+						count[blank][goal]++;
+
+						long next = encode(count);
+						if(!distance.contains(next)){
+							if(tail == MAX_STATES){
+								throw new IllegalArgumentException("walking distance table too large for " + lines + " lines of " + capacity);
+							}
+							distance.put(next, value + 1);
+							if(tail == queue.length){
+								queue = Arrays.copyOf(queue, queue.length * 2);
+							}
+							queue[tail++] = next;
+						}
+
+						count[blank][goal]--;
+						count[neighbor][goal]++;
+					}
+				}
+			}
+		}
+
+		private long encode(int[][] count){
+			long key = 0;
+			for(int l=0; l<lines-1; l++){
+				for(int g=0; g<lines; g++){
+					key |= ((long) count[l][g]) << (bits * (l*lines + g));
+				}
+			}
+			return key;
+		}
+
+		/**
+		 * Decodiert die Zählmatrix
+		 * @return Linie des Blanks
+		 */
+		private int decode(long key, int[][] count){
+			int mask = (1 << bits) - 1;
+			int blank = lines-1;
+
+			for(int g=0; g<lines; g++){
+				count[lines-1][g] = g < lines-1 ? capacity : capacity-1;
+			}
+			for(int l=0; l<lines-1; l++){
+				int sum = 0;
+				for(int g=0; g<lines; g++){
+					count[l][g] = (int) (key >>> (bits * (l*lines + g))) & mask;
+					count[lines-1][g] -= count[l][g];
+					sum += count[l][g];
+				}
+				if(sum < capacity){
+					blank = l;
+				}
+			}
+			return blank;
+		}
+	}
+
+
+	/**
+	 * Hashtabelle long -> byte mit offener Adressierung (0 ist als Schlüssel nicht erlaubt)
+	 */
+	private static class LongByteMap {
+
+		private long[] keys = new long[1 << 10];
+		private byte[] values = new byte[1 << 10];
+		private int size;
+
+		int get(long key){
+			int mask = keys.length - 1;
+			int i = hash(key) & mask;
+			while(keys[i] != key){
+				if(keys[i] == 0){
+					return -1;
+				}
+				i = (i + 1) & mask;
+			}
+			return values[i] & 0xFF;
+		}
+
+		boolean contains(long key){
+			return get(key) != -1;
+		}
+
+		void put(long key, int value){
+			if(2 * (size + 1) > keys.length){
+				grow();
+			}
+			int mask = keys.length - 1;
+			int i = hash(key) & mask;
+			while(keys[i] != 0 && keys[i] != key){
+				i = (i + 1) & mask;
+			}
+			if(keys[i] == 0){
+				size++;
+			}
+			keys[i] = key;
+			values[i] = (byte) value;
+		}
+
+		private void grow(){
+			long[] oldKeys = keys;
+			byte[] oldValues = values;
+			keys = new long[oldKeys.length * 2];
+			values = new byte[oldValues.length * 2];
+			size = 0;
+			for(int i=0; i<oldKeys.length; i++){
+				if(oldKeys[i] != 0){
+					put(oldKeys[i], oldValues[i]);
+				}
+			}
+		}
+
+		private static int hash(long key){
+			key ^= key >>> 33;
+			key *= 0xff51afd7ed558ccdL;
+			key ^= key >>> 33;
+			return (int) key;
+		}
+	}
+
+}
@@ -0,0 +1,55 @@
+package main;
+import mpi.MPI;
+import solver.Config;
+import solver.EngineType;
+import solver.ParallelSolver;
+
+/**
+ * Vergleicht die SearchEngines anhand des 43-Step Puzzles aus Start.
+ * Jede Engine löst das Puzzle mehrmals, ausgegeben werden die Nodes pro Sekunde des schnellsten Durchlaufs.
+ * Die Durchläufe sind unabhängig: solve() verwirft am Ende alle noch unterwegs befindlichen Nachrichten
+ * (ProgressEngine.drain), der nächste Durchlauf erhält keine TOKEN oder SOLUTION des vorherigen.
+ * 
+ * @author michael koch
+ */
+
+public class EngineBenchmark {
+
+	private static final int RUNS = 3;
+
+	public static void main(String[] args) throws Exception{
+
+		MPI.Init(args);
+		int rank = MPI.COMM_WORLD.Rank();
+
+		int[] puzzle = {
+				//4x4 Puzzle mit 43 Steps
+				2 , 12, 14, 7,
+				5 , 1 , 6 , 3,
+				10, 13, 4 , 9,
+				15, 8 , 0 , 11
+		};
+
+		int[] engines = {EngineType.STACK, EngineType.INPLACE};
+		long[] best = new long[engines.length];
+
+		for(int e=0; e<engines.length; e++){
+			for(int run=0; run<RUNS; run++){
+				ParallelSolver parallelSolver = new ParallelSolver(4,4,new Config().setEngine(engines[e]));
+				parallelSolver.solve(puzzle);
+				best[e] = Math.max(best[e], parallelSolver.getNodesPerSecond());
+			}
+		}
+
+		if(rank == 0){
+			System.out.println("-------------Benchmark----------------");
+			System.out.println("processors: " + MPI.COMM_WORLD.Size());
+			for(int e=0; e<engines.length; e++){
+				System.out.println(EngineType.getName(engines[e]) + ": " + best[e] + " nodes/s");
+			}
+			System.out.println("--------------------------------------");
+		}
+
+		MPI.Finalize();
+	}
+}
@@ -1,51 +1,145 @@
-package main;
-import mpi.MPI;
-import solver.ParallelSolver;
-
-/**
- * Main Klasse fr den parallelen NxM Puzzle Solver. Implementiert mit MPJ.
- * 
- * SamplePuzzles: http://mypuzzle.org/sliding
- * 
- * @author michael koch
- */
-
-public class Start {
-
-	public static void main(String[] args) throws Exception{
-
-		MPI.Init(args);
-
-		int[] puzzle = {
-				 
-				
-				/*
-				//4x4 Puzzle mit 38 Steps
-				10, 4, 3 , 7,
-				1 , 5, 9 , 2,
-				13, 6, 14, 12,
-				11, 0, 8 , 15
-				//*/
-				
-				
-				//*
-				//4x4 Puzzle mit 43 Steps
-				2 , 12, 14, 7,
-				5 , 1 , 6 , 3,
-				10, 13, 4 , 9,
-				15, 8 , 0 , 11
-				//*/
-				
-		};
-		
-
-		//Angabe der Anzahl Zeilen und Reihen des zu lsenden Puzzels im Konstruktor der Klasse ParallelSolver
-		ParallelSolver parallelSolver = new ParallelSolver(4,4);
-		
-		//Lse und gebe die Lsung aus
-		parallelSolver.solve(puzzle).printSolution();
-
-		MPI.Finalize();
-
-	}
+package main;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import messagePassing.LocalTransport;
+import messagePassing.MpjTransport;
+import messagePassing.Transport;
+import mpi.MPI;
+import solver.AsyncSolver;
+import solver.BatchSolver;
+import solver.Config;
+import solver.HdaSolver;
+import solver.HybridSolver;
+import solver.ParallelSolver;
+import solver.ThreadSolver;
+
+/**
+ * Main Klasse für den parallelen NxM Puzzle Solver. Implementiert mit MPJ.
+ * 
+ * SamplePuzzles: http://mypuzzle.org/sliding
+ * 
+ * @author michael koch
+ */
+
+public class Start {
+
+	public static void main(String[] args) throws Exception{
+
+		int[] puzzle = {
+				 
+				
+				/*
+				//4x4 Puzzle mit 38 Steps
+				10, 4, 3 , 7,
+				1 , 5, 9 , 2,
+				13, 6, 14, 12,
+				11, 0, 8 , 15
+				//*/
+				
+				
+				//*
+				//4x4 Puzzle mit 43 Steps
+				2 , 12, 14, 7,
+				5 , 1 , 6 , 3,
+				10, 13, 4 , 9,
+				15, 8 , 0 , 11
+				//*/
+				
+		};
+		
+
+		//Einstellungen aus der Kommandozeile, z.B. -engine inplace
+		Config config = Config.parse(args);
+
+		//viele Puzzles aus einer Datei oder von stdin ohne MPJ, z.B. -batch puzzles.txt -instances 4 -threads 1
+		if(config.getBatch() != null && config.getLocalRanks() == 0 && config.getThreads() > 0){
+			batch(config, 0, 1);
+			return;
+		}
+
+		//Shared-Memory ohne MPJ, z.B. -threads 64
+		if(config.getThreads() > 0 && !config.isHybrid() && config.getLocalRanks() == 0){
+			new ThreadSolver(4,4,config).solve(puzzle).printSolution();
+			return;
+		}
+
+		//Ranks als Threads in einer JVM ohne MPJ, z.B. -local 8
+		if(config.getLocalRanks() > 0){
+			final Config localConfig = config;
+			LocalTransport.run(config.getLocalRanks(), transport -> run(puzzle, localConfig, transport));
+			return;
+		}
+
+		config = Config.parse(MPI.Init(args));
+		run(puzzle, config, new MpjTransport());
+		MPI.Finalize();
+
+	}
+
+
+	/**
+	 * Führt den Batch oder die Suche nach dem Puzzle auf einem Rank aus
+	 * @param puzzle
+	 * @param config
+	 * @param transport Nachrichtenaustausch des Ranks
+	 */
+	private static void run(int[] puzzle, Config config, Transport transport){
+		if(config.getBatch() != null){
+			batch(config, transport.rank(), transport.size());
+		}else{
+			solve(puzzle, config, transport);
+		}
+	}
+
+
+	/**
+	 * Löst alle Puzzles aus config.getBatch(), jeder Rank jedes size-te Puzzle
+	 * @param config
+	 * @param rank
+	 * @param size Anzahl Ranks
+	 */
+	private static void batch(Config config, int rank, int size){
+		if(config.getBatch().equals("-") && size > 1){
+			System.out.println("batch from stdin needs a single process");
+			return;
+		}
+
+		try(BufferedReader in = config.getBatch().equals("-") ? new BufferedReader(new InputStreamReader(System.in))
+				: new BufferedReader(new FileReader(config.getBatch()))){
+			new BatchSolver(config, System.out, rank, size).solve(in);
+		}catch(IOException | InterruptedException e){
+			System.out.println("batch could not be read: " + e.getMessage());
+		}
+	}
+
+
+	/**
+	 * Löst das Puzzle auf einem Rank mit dem gewählten Solver
+	 * @param puzzle
+	 * @param config
+	 * @param transport Nachrichtenaustausch des Ranks
+	 */
+	private static void solve(int[] puzzle, Config config, Transport transport){
+
+		//ein MPJ-Prozess pro Rechner mit mehreren Threads, z.B. -hybrid 64
+		if(config.isHybrid()){
+			new HybridSolver(4,4,config,transport).solve(puzzle).printSolution();
+
+		//asynchrones IDA* ohne Barriere zwischen den Suchtiefen, z.B. -async 16
+		}else if(config.getAsyncUnits() > 0){
+			new AsyncSolver(4,4,config,transport).solve(puzzle).printSolution();
+
+		//hash-verteiltes A* mit Duplikaterkennung, z.B. -hda 4096
+		}else if(config.getHdaBatch() > 0){
+			new HdaSolver(4,4,config,transport).solve(puzzle).printSolution();
+		}else{
+			//Angabe der Anzahl Zeilen und Reihen des zu lösenden Puzzels im Konstruktor der Klasse ParallelSolver
+			ParallelSolver parallelSolver = new ParallelSolver(4,4,config,transport);
+
+			//Löse und gebe die Lösung aus
+			parallelSolver.solve(puzzle).printSolution();
+		}
+	}
 }
\ No newline at end of file
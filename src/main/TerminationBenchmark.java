@@ -0,0 +1,100 @@
+package main;
+import messagePassing.LocalTransport;
+import messagePassing.MpjTransport;
+import messagePassing.ProgressEngine;
+import messagePassing.TerminationCOM;
+import messagePassing.TerminationDetector;
+import messagePassing.TerminationType;
+import messagePassing.Transport;
+import messagePassing.Worker;
+import mpi.MPI;
+import search.StateCodec;
+
+/**
+ * Misst die Latenz der Termination-Erkennung am Ende einer Suchtiefe.
+ *
+ * Alle Prozessoren sind IDLE, der Root-Prozessor startet die Erkennung und misst die Zeit,
+ * bis sie das Ende der Suchtiefe meldet. Für den Vergleich über die Anzahl Prozessoren
+ * wird der Benchmark mit verschiedenen -np gestartet, z.B. 2, 4, ..., 128.
+ * Mit <pre>-local 64</pre> laufen die Ranks als Threads in einer JVM (LocalTransport).
+ *
+ * @author michael koch
+ */
+
+public class TerminationBenchmark {
+
+	private static final int RUNS = 200;
+
+	public static void main(String[] args) throws Exception{
+
+		for(int i=0; i<args.length-1; i++){
+			if(args[i].equals("-local")){
+				LocalTransport.run(Integer.parseInt(args[i+1]), transport -> run(transport));
+				return;
+			}
+		}
+
+		MPI.Init(args);
+		run(new MpjTransport());
+		MPI.Finalize();
+	}
+
+
+	/**
+	 * Führt den Benchmark auf einem Rank aus
+	 * @param transport Nachrichtenaustausch des Ranks
+	 */
+	private static void run(Transport transport){
+		int rank = transport.rank();
+
+		int[] types = {TerminationType.RING, TerminationType.TREE};
+		double[] average = new double[types.length];
+		double[] max = new double[types.length];
+
+		for(int t=0; t<types.length; t++){
+			StateCodec codec = new StateCodec(4, 4);
+			ProgressEngine progress = new ProgressEngine(codec, transport, 1, 0);
+			Worker worker = new Worker(rank, codec, progress);
+			TerminationDetector termination = TerminationType.create(types[t], rank, worker, progress);
+
+			//erste Hälfte zum Aufwärmen der JIT
+			for(int run=0; run<2*RUNS; run++){
+				transport.barrier();
+				worker.reset();
+				long start = System.nanoTime();
+
+				if(rank == 0){
+					termination.start();
+				}
+
+				while(true){
+					progress.poll(0);
+					if(termination.check(0)){
+						TerminationCOM.sendTermination(progress);
+						break;
+					}
+					if(TerminationCOM.recvTermination(progress)){
+						break;
+					}
+				}
+
+				double time = (System.nanoTime() - start) / 1000.0;
+				if(run >= RUNS){
+					average[t] += time / RUNS;
+					max[t] = Math.max(max[t], time);
+				}
+			}
+		}
+
+		transport.barrier();
+		if(rank == 0){
+			System.out.println("-------------Benchmark----------------");
+			System.out.println("processors: " + transport.size());
+			for(int t=0; t<types.length; t++){
+				System.out.println(TerminationType.getName(types[t]) + ": " + Math.round(average[t]) + "us average, "
+						+ Math.round(max[t]) + "us max");
+			}
+			System.out.println("--------------------------------------");
+		}
+	}
+}
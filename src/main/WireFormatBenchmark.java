@@ -0,0 +1,250 @@
+package main;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import messagePassing.LocalTransport;
+import messagePassing.Tag;
+import messagePassing.Transport;
+import search.Move;
+import search.SearchContext;
+import search.State;
+import search.StateCodec;
+
+/**
+ * Vergleicht das Format der verteilten Arbeit: das ursprüngliche Format (Java-Serialisierung von State[] mit
+ * Parent-Kette, MPI.OBJECT) gegen den StateCodec (MPI.BYTE).
+ *
+ * Pro Suchtiefe wird eine Nachricht wie bei einem Split gebildet: die offenen Geschwister-States der
+ * letzten Ebenen eines zufälligen Pfads. Das ursprüngliche Format ist als LegacyState eingefroren (Felder des
+ * früheren State, jeder State verweist auf seinen Parent bis zum Root-State, Geschwister teilen die Parents).
+ *
+ * Gemessen werden Bytes pro State, die Zeit für Kodieren und Dekodieren einer Nachricht und die Steal-Latenz:
+ * ein IDLE-Prozessor sendet einen WORK-Request, der andere kodiert die Arbeit und sendet sie, der IDLE-Prozessor
+ * dekodiert sie (Round-Trip über Transport). Die Ranks laufen mit LocalTransport in einer JVM, die Latenz enthält
+ * Kodieren, Kopieren und die Übergabe zwischen den Threads, aber kein Netzwerk. Läuft ohne MPJ.
+ *
+ * @author michael koch
+ */
+
+public class WireFormatBenchmark {
+
+	private static final int STATES = 8;
+	private static final int RUNS = 20000;
+	private static final int STEALS = 2000;
+
+	/**
+	 * Eingefrorene Kopie des früheren State (vor dem gepackten Pfad): das Format der Arbeit mit MPI.OBJECT.
+	 * Nur der Klassenname im Stream ist länger.
+	 */
+	private static class LegacyState implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		int[] puzzle;
+		int row;
+		int col;
+		int deep;
+		LegacyState parent;
+		int heuristic;
+		String blankMoveDirection;
+
+		LegacyState(State state, LegacyState parent, int row, int col){
+			this.puzzle = state.getPuzzle();
+			this.row = row;
+			this.col = col;
+			this.deep = state.getDeep();
+			this.parent = parent;
+			this.heuristic = state.getHeuristic();
+			this.blankMoveDirection = parent == null ? null : Move.getName(state.getBlankMove());
+		}
+	}
+
+	public static void main(String[] args) throws Exception{
+
+		int[] puzzle = {
+				//4x4 Puzzle mit 43 Steps
+				2 , 12, 14, 7,
+				5 , 1 , 6 , 3,
+				10, 13, 4 , 9,
+				15, 8 , 0 , 11
+		};
+
+		SearchContext context = new SearchContext(4, 4);
+		StateCodec codec = new StateCodec(4, 4);
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+		Random random = new Random(1);
+
+		//erste Runde zum Aufwärmen der JIT
+		for(int round=0; round<2; round++){
+			if(round == 1){
+				System.out.println("-------------Benchmark----------------");
+				System.out.println("deep | legacy object: bytes/state, us/message, us/steal | codec: bytes/state, us/message, us/steal");
+			}
+
+			for(int deep=10; deep<=80; deep*=2){
+				LegacyState[] legacy = new LegacyState[STATES];
+				State[] states = splitStates(new State(puzzle, context), deep, context, random, legacy);
+
+				//Java-Serialisierung des ursprünglichen Formats
+				int objectBytes = serialize(legacy).length;
+				long start = System.nanoTime();
+				for(int i=0; i<RUNS; i++){
+					deserialize(serialize(legacy));
+				}
+				long objectTime = System.nanoTime() - start;
+
+				//StateCodec
+				int codecBytes = codec.size(states);
+				start = System.nanoTime();
+				for(int i=0; i<RUNS; i++){
+					buffer.clear();
+					codec.encode(states, buffer);
+					buffer.flip();
+					codec.decode(buffer);
+				}
+				long codecTime = System.nanoTime() - start;
+
+				long objectSteal = steal(states, legacy, codec, true);
+				long codecSteal = steal(states, legacy, codec, false);
+
+				if(round == 1){
+					System.out.println(deep + " | " + objectBytes / states.length + ", " + objectTime / RUNS / 1000.0
+							+ ", " + objectSteal / STEALS / 1000.0
+							+ " | " + codecBytes / states.length + ", " + codecTime / RUNS / 1000.0
+							+ ", " + codecSteal / STEALS / 1000.0);
+				}
+			}
+		}
+		System.out.println("--------------------------------------");
+	}
+
+
+	/**
+	 * Misst STEALS WORK-Requests mit Antwort zwischen zwei Ranks (LocalTransport). Rank 0 hält die Arbeit,
+	 * Rank 1 fragt an und dekodiert die Antwort. Das ursprüngliche Format wird wie von MPJ bei MPI.OBJECT
+	 * serialisiert und als Bytes versendet.
+	 *
+	 * @param object true = ursprüngliches Format, false = StateCodec
+	 * @return Zeit aller Round-Trips in ns
+	 */
+	private static long steal(final State[] states, final LegacyState[] legacy, final StateCodec codec, final boolean object)
+			throws InterruptedException{
+		final long[] time = new long[1];
+
+		LocalTransport.run(2, transport -> {
+			try{
+				if(transport.rank() == 0){
+					serveWork(transport, states, legacy, codec, object);
+				}else{
+					time[0] = requestWork(transport, codec, object);
+				}
+			}catch(Exception e){
+				throw new IllegalStateException(e);
+			}
+		});
+		return time[0];
+	}
+
+	private static void serveWork(Transport transport, State[] states, LegacyState[] legacy, StateCodec codec,
+			boolean object) throws Exception{
+		int[] request = new int[1];
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+		for(int i=0; i<STEALS; i++){
+			transport.recv(request, 0, request.length, 1, Tag.IDLE);
+			if(object){
+				byte[] bytes = serialize(legacy);
+				transport.isend(bytes, bytes.length, 1, Tag.WORK);
+			}else{
+				transport.waitSend();
+				buffer.clear();
+				codec.encode(states, buffer);
+				transport.isend(buffer.array(), buffer.position(), 1, Tag.WORK);
+			}
+		}
+		transport.waitSend();
+	}
+
+	private static long requestWork(Transport transport, StateCodec codec, boolean object) throws Exception{
+		int[] request = new int[1];
+		byte[] bytes = new byte[1 << 16];
+
+		long start = System.nanoTime();
+		for(int i=0; i<STEALS; i++){
+			transport.isend(request, 0, Tag.IDLE);
+
+			int[] status = transport.iprobe();
+			while(status == null){
+				status = transport.iprobe();
+			}
+			int count = status[2];
+			if(bytes.length < count){
+				bytes = new byte[count];
+			}
+			transport.recv(bytes, count, 0, Tag.WORK);
+
+			if(object){
+				deserialize(Arrays.copyOf(bytes, count));
+			}else{
+				codec.decode(ByteBuffer.wrap(bytes, 0, count));
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+
+	/**
+	 * Zufälliger Pfad der Länge deep, die Geschwister der letzten Ebenen bilden die Nachricht.
+	 * legacy erhält dieselben States im ursprünglichen Format mit gemeinsamer Parent-Kette.
+	 */
+	private static State[] splitStates(State root, int deep, SearchContext context, Random random, LegacyState[] legacy){
+		List<State> siblings = new ArrayList<State>();
+		List<LegacyState> legacySiblings = new ArrayList<LegacyState>();
+		State state = root;
+		LegacyState legacyState = new LegacyState(root, null, context.getRow(), context.getCol());
+
+		for(int d=0; d<deep; d++){
+			List<State> children = new ArrayList<State>();
+			List<LegacyState> legacyChildren = new ArrayList<LegacyState>();
+			for(int move=0; move<4; move++){
+				State child = state.move(move, context);
+				if(child != null && move != Move.opposite(state.getBlankMove())){
+					children.add(child);
+					legacyChildren.add(new LegacyState(child, legacyState, context.getRow(), context.getCol()));
+				}
+			}
+			int next = random.nextInt(children.size());
+			state = children.remove(next);
+			legacyState = legacyChildren.remove(next);
+			siblings.addAll(children);
+			legacySiblings.addAll(legacyChildren);
+		}
+
+		State[] states = new State[STATES];
+		for(int i=0; i<STATES; i++){
+			states[i] = siblings.get(siblings.size() - STATES + i);
+			legacy[i] = legacySiblings.get(legacySiblings.size() - STATES + i);
+		}
+		return states;
+	}
+
+	private static byte[] serialize(Object[] states) throws Exception{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(states);
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	private static Object deserialize(byte[] bytes) throws Exception{
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+		return in.readObject();
+	}
+}
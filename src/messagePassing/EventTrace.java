@@ -0,0 +1,261 @@
+package messagePassing;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Die Klasse EventTrace zeichnet die Ereignisse eines Prozessors mit Zeitstempel auf (siehe TraceEvent).
+ *
+ * Die Ereignisse liegen in einem Ringbuffer fester Grösse aus primitiven Arrays, beim Aufzeichnen wird nichts
+ * alloziert. Ist der Buffer voll, werden die ältesten Ereignisse überschrieben, das Ende der Suche bleibt erhalten.
+ *
+ * Die Uhren der Prozessoren (System.nanoTime) haben keinen gemeinsamen Nullpunkt. synchronize() tauscht mit
+ * dem Root-Prozessor mehrmals die Zeit aus und übernimmt den Austausch mit der kürzesten Laufzeit:
+ * Versatz = Zeit des Root-Prozessors - Mitte zwischen Senden und Empfangen.
+ *
+ * write() sendet alle Ereignisse an den Root-Prozessor, welcher sie im Chrome-Trace-Format (JSON) schreibt.
+ * Die Datei kann mit chrome://tracing oder https://ui.perfetto.dev geöffnet werden, ein Prozess pro Rank
+ * mit den Spuren search (Suchtiefen), idle (Wartezeit auf Arbeit) und messages (Nachrichten).
+ *
+ * @author michael koch
+ */
+public class EventTrace {
+
+	//Anzahl Austausche für den Abgleich der Uhren
+	private static final int ROUNDS = 8;
+
+	private static final String[] TRACKS = {"search", "idle", "messages"};
+
+	private final int rank;
+
+	//Ringbuffer: Zeitpunkt in ns, Ereignis, beteiligter Prozessor und Wert
+	private final long[] times;
+	private final int[] events;
+	private final int[] peers;
+	private final int[] values;
+
+	//Anzahl aufgezeichneter Ereignisse seit dem Erzeugen
+	private long count;
+
+	//Versatz der eigenen Uhr zum Root-Prozessor in ns
+	private long offset;
+
+	//beim Schreiben: noch kein Eintrag geschrieben (Komma zwischen den Einträgen)
+	private boolean first;
+
+	/**
+	 * @param rank des Prozessors
+	 * @param capacity Anzahl Ereignisse im Ringbuffer
+	 */
+	public EventTrace(int rank, int capacity){
+		if(capacity < 1){
+			throw new IllegalArgumentException("trace size must be positive: " + capacity);
+		}
+		this.rank = rank;
+		this.times = new long[capacity];
+		this.events = new int[capacity];
+		this.peers = new int[capacity];
+		this.values = new int[capacity];
+	}
+
+
+	/**
+	 * Zeichnet ein Ereignis auf
+	 * @param event siehe TraceEvent
+	 * @param peer beteiligter Prozessor, -1 = keiner bzw. alle
+	 * @param value z.B. Anzahl States
+	 */
+	public void add(int event, int peer, int value){
+		int i = (int) (count++ % times.length);
+		times[i] = System.nanoTime();
+		events[i] = event;
+		peers[i] = peer;
+		values[i] = value;
+	}
+
+
+	/**
+	 * Gleicht die Uhr mit dem Root-Prozessor ab. Muss von allen Prozessoren aufgerufen werden,
+	 * bevor Nachrichten über die ProgressEngine empfangen werden.
+	 *
+	 * @param transport Nachrichtenaustausch des Prozessors
+	 */
+	public void synchronize(Transport transport){
+		Object[] buffer = new Object[1];
+
+		if(rank == 0){
+			for(int source=1; source<transport.size(); source++){
+				for(int round=0; round<ROUNDS; round++){
+					transport.recv(buffer, source, Tag.CLOCK);
+					transport.isend(new Object[]{System.nanoTime()}, source, Tag.CLOCK);
+				}
+			}
+		}else{
+			long shortest = Long.MAX_VALUE;
+			for(int round=0; round<ROUNDS; round++){
+				long send = System.nanoTime();
+				transport.isend(new Object[]{send}, 0, Tag.CLOCK);
+				transport.recv(buffer, 0, Tag.CLOCK);
+				long receive = System.nanoTime();
+
+				if(receive - send < shortest){
+					shortest = receive - send;
+					offset = (Long) buffer[0] - (send + (receive - send) / 2);
+				}
+			}
+		}
+		transport.barrier();
+	}
+
+
+	/**
+	 * Sendet die Ereignisse an den Root-Prozessor, dieser schreibt sie im Chrome-Trace-Format.
+	 * Muss von allen Prozessoren aufgerufen werden, wenn keine anderen Nachrichten mehr unterwegs sind.
+	 *
+	 * @param transport Nachrichtenaustausch des Prozessors
+	 * @param file Ausgabedatei (nur Root-Prozessor)
+	 * @throws IOException
+	 */
+	public void write(Transport transport, String file) throws IOException {
+		if(rank != 0){
+			transport.isend(new Object[]{pack()}, 0, Tag.TRACE);
+			return;
+		}
+
+		long[][] ranks = new long[transport.size()][];
+		ranks[0] = pack();
+		Object[] buffer = new Object[1];
+		for(int source=1; source<ranks.length; source++){
+			transport.recv(buffer, source, Tag.TRACE);
+			ranks[source] = (long[]) buffer[0];
+		}
+
+		//Nullpunkt ist das erste Ereignis aller Prozessoren
+		long origin = Long.MAX_VALUE;
+		for(long[] packed : ranks){
+			if(packed[1] > 0){
+				origin = Math.min(origin, packed[2]);
+			}
+		}
+
+		try(PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file)))){
+			out.print("{\"displayTimeUnit\": \"ms\", \"traceEvents\": [");
+			first = true;
+			for(int pid=0; pid<ranks.length; pid++){
+				writeRank(out, pid, ranks[pid], origin);
+			}
+			out.println();
+			out.println("]}");
+		}
+	}
+
+
+	/**
+	 * Ereignisse in der Reihenfolge der Aufzeichnung: {überschriebene Ereignisse, n, n Zeitpunkte
+	 * (auf die Uhr des Root-Prozessors umgerechnet), n Ereignisse, n Prozessoren, n Werte}
+	 *
+	 * @return gepackte Ereignisse
+	 */
+	private long[] pack(){
+		int n = (int) Math.min(count, times.length);
+		long first = count - n;
+		long[] packed = new long[2 + 4*n];
+		packed[0] = first;
+		packed[1] = n;
+
+		for(int j=0; j<n; j++){
+			int i = (int) ((first + j) % times.length);
+			packed[2 + j] = times[i] + offset;
+			packed[2 + n + j] = events[i];
+			packed[2 + 2*n + j] = peers[i];
+			packed[2 + 3*n + j] = values[i];
+		}
+		return packed;
+	}
+
+
+	/**
+	 * Schreibt einen Eintrag der traceEvents
+	 */
+	private void entry(PrintWriter out, CharSequence entry){
+		out.print(first ? "\n" : ",\n");
+		out.print(entry);
+		first = false;
+	}
+
+
+	/**
+	 * Schreibt die Ereignisse eines Prozessors
+	 */
+	private void writeRank(PrintWriter out, int pid, long[] packed, long origin){
+		int n = (int) packed[1];
+
+		entry(out, "{\"name\": \"process_name\", \"ph\": \"M\", \"pid\": " + pid + ", \"args\": {\"name\": \"rank " + pid + "\"}}");
+		entry(out, "{\"name\": \"process_sort_index\", \"ph\": \"M\", \"pid\": " + pid + ", \"args\": {\"sort_index\": " + pid + "}}");
+		for(int tid=0; tid<TRACKS.length; tid++){
+			entry(out, "{\"name\": \"thread_name\", \"ph\": \"M\", \"pid\": " + pid + ", \"tid\": " + tid
+					+ ", \"args\": {\"name\": \"" + TRACKS[tid] + "\"}}");
+		}
+		if(packed[0] > 0){
+			entry(out, "{\"name\": \"process_labels\", \"ph\": \"M\", \"pid\": " + pid
+					+ ", \"args\": {\"labels\": \"" + packed[0] + " events overwritten\"}}");
+		}
+
+		//offene Spannen pro Spur, ein Ende ohne Beginn (überschrieben) wird weggelassen
+		boolean[] open = new boolean[TRACKS.length];
+
+		for(int j=0; j<n; j++){
+			long time = packed[2 + j] - origin;
+			int event = (int) packed[2 + n + j];
+			int peer = (int) packed[2 + 2*n + j];
+			int value = (int) packed[2 + 3*n + j];
+
+			int tid = 2;
+			String phase = "i";
+			if(event == TraceEvent.DEEP_BEGIN || event == TraceEvent.IDLE_BEGIN){
+				tid = event == TraceEvent.DEEP_BEGIN ? 0 : 1;
+				phase = "B";
+				open[tid] = true;
+			}else if(event == TraceEvent.DEEP_END || event == TraceEvent.IDLE_END){
+				tid = event == TraceEvent.DEEP_END ? 0 : 1;
+				if(!open[tid]){
+					continue;
+				}
+				phase = "E";
+				open[tid] = false;
+			}
+
+			StringBuilder line = new StringBuilder();
+			line.append("{\"name\": \"").append(TraceEvent.getName(event));
+			if(tid == 0){
+				line.append(' ').append(value);
+			}
+			line.append("\", \"ph\": \"").append(phase).append("\", \"pid\": ").append(pid).append(", \"tid\": ").append(tid)
+				.append(", \"ts\": ").append(time / 1000).append('.').append(String.format("%03d", time % 1000));
+			if(phase.equals("i")){
+				line.append(", \"s\": \"t\"");
+			}
+
+			line.append(", \"args\": {");
+			String separator = "";
+			if(peer >= 0){
+				line.append("\"peer\": ").append(peer);
+				separator = ", ";
+			}
+			String valueName = TraceEvent.getValueName(event);
+			if(valueName != null && tid == 2){
+				line.append(separator).append('"').append(valueName).append("\": ");
+				if(event == TraceEvent.TOKEN_SENT || event == TraceEvent.TOKEN_RECEIVED){
+					line.append(value == TokenColor.WHITE ? "\"white\"" : "\"black\"");
+				}else{
+					line.append(value);
+				}
+			}
+			line.append("}}");
+			entry(out, line);
+		}
+	}
+
+}
@@ -0,0 +1,76 @@
+package messagePassing;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Fragt zuerst Prozessoren auf demselben Rechner an (getProcessorName() des Transports).
+ * 
+ * Erst nachdem jeder lokale Prozessor im Durchschnitt einmal mit NOWORK geantwortet hat,
+ * wird ein Prozessor auf einem anderen Rechner angefragt. Empfangene Arbeit setzt den Zähler zurück.
+ * 
+ * Der Konstruktor tauscht die Rechnernamen aus und muss auf allen Prozessoren aufgerufen werden.
+ * 
+ * @author michael koch
+ */
+
+public class HostVictim implements VictimSelector {
+
+	private int[] local;
+	private int[] remote;
+	private int failures;
+	private Random random = new Random();
+
+	/**
+	 * @param transport Nachrichtenaustausch des Prozessors
+	 */
+	public HostVictim(Transport transport){
+		int rank = transport.rank();
+		int size = transport.size();
+		String name = transport.getProcessorName();
+		Object[] names = transport.allgather(name);
+
+		ArrayList<Integer> local = new ArrayList<Integer>();
+		ArrayList<Integer> remote = new ArrayList<Integer>();
+		for(int i=0; i<size; i++){
+			if(i == rank){
+				continue;
+			}
+			if(names[i].equals(name)){
+				local.add(i);
+			}else{
+				remote.add(i);
+			}
+		}
+		this.local = toArray(local);
+		this.remote = toArray(remote);
+	}
+
+	@Override
+	public int next() {
+		if(remote.length == 0 || (local.length > 0 && failures < local.length)){
+			return local[random.nextInt(local.length)];
+		}
+		failures = 0;
+		return remote[random.nextInt(remote.length)];
+	}
+
+	@Override
+	public void noWork(int rank, int load) {
+		failures++;
+	}
+
+	@Override
+	public void work(int rank, int states) {
+		failures = 0;
+	}
+
+	private static int[] toArray(ArrayList<Integer> list){
+		int[] array = new int[list.size()];
+		for(int i=0; i<array.length; i++){
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+}
@@ -0,0 +1,95 @@
+package messagePassing;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Fragt den Prozessor mit der grössten bekannten Arbeit an.
+ * 
+ * Die Last eines Prozessors ist aus seinen Antworten bekannt: nach einem Split behält der Prozessor etwa
+ * gleich viele States wie er gesendet hat, NOWORK bedeutet keine teilbare Arbeit (Last 0).
+ * Eine Last gilt nur MAX_AGE ms, danach ist sie wieder unbekannt. Ist keine Last grösser 0 bekannt, wird zufällig
+ * unter den übrigen Prozessoren gewählt, zuerst unter denen ohne bekannte Last 0.
+ * 
+ * @author michael koch
+ */
+
+public class LoadVictim implements VictimSelector {
+
+	private int me;
+	private int size;
+	// Gültigkeit einer bekannten Last in ms
+	private static final long MAX_AGE = 100;
+
+	private int[] load;
+	private long[] loadTime;
+	private Random random = new Random();
+
+	/**
+	 * @param rank des Prozessors
+	 * @param size Anzahl Prozessoren
+	 */
+	public LoadVictim(int rank, int size){
+		this.me = rank;
+		this.size = size;
+		this.load = new int[size];
+		this.loadTime = new long[size];
+		Arrays.fill(load, -1);
+	}
+
+	@Override
+	public int next() {
+		long now = System.currentTimeMillis();
+		for(int rank=0; rank<size; rank++){
+			if(load[rank] != -1 && now - loadTime[rank] > MAX_AGE){
+				load[rank] = -1;
+			}
+		}
+
+		//zufälliger Startpunkt, damit nicht alle IDLE-Prozessoren denselben anfragen
+		int start = random.nextInt(size);
+		int victim = -1;
+		int unknown = -1;
+
+		for(int i=0; i<size; i++){
+			int rank = (start + i) % size;
+			if(rank == me){
+				continue;
+			}
+			if(load[rank] > 0 && (victim == -1 || load[rank] > load[victim])){
+				victim = rank;
+			}
+			if(load[rank] == -1 && unknown == -1){
+				unknown = rank;
+			}
+		}
+
+		if(victim == -1){
+			victim = unknown;
+		}
+		if(victim == -1){
+			victim = random.nextInt(size - 1);
+			if(victim >= me){
+				victim++;
+			}
+		}
+		return victim;
+	}
+
+	@Override
+	public void noWork(int rank, int load) {
+		//konnte nicht teilen, auch wenn noch States offen sind
+		set(rank, 0);
+	}
+
+	@Override
+	public void work(int rank, int states) {
+		set(rank, states);
+	}
+
+	private void set(int rank, int load){
+		this.load[rank] = load;
+		this.loadTime[rank] = System.currentTimeMillis();
+	}
+
+}
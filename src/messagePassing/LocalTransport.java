@@ -0,0 +1,280 @@
+package messagePassing;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.function.Consumer;
+
+/**
+ * Transport für N simulierte Ranks als Threads in einer JVM, ohne MPJ Express.
+ *
+ * Jeder Rank hat eine lock-freie Mailbox (ConcurrentLinkedQueue). isend kopiert int[], byte[] und long[] Buffer
+ * und legt die Nachricht in die Mailbox des Empfängers, Objekte werden nicht kopiert. Pro Absender und Tag
+ * bleibt die Reihenfolge wie bei MPI erhalten. Die kollektiven Operationen verwenden eine CyclicBarrier.
+ *
+ * Für reproduzierbare Skalierungsmessungen auf einem Rechner und als Single-Node Betrieb ohne MPJ-Daemons:
+ * <pre>LocalTransport.run(8, transport -> new ParallelSolver(4, 4, config, transport).solve(puzzle));</pre>
+ *
+ * @author michael koch
+ */
+
+public class LocalTransport implements Transport {
+
+	/**
+	 * Nachricht in einer Mailbox
+	 */
+	private static class Message {
+		final int source;
+		final int tag;
+		final int count;
+		final Object data;
+
+		Message(int source, int tag, int count, Object data){
+			this.source = source;
+			this.tag = tag;
+			this.count = count;
+			this.data = data;
+		}
+	}
+
+	/**
+	 * Gemeinsame Daten aller Ranks
+	 */
+	private static class Group {
+		final ConcurrentLinkedQueue<Message>[] mailbox;
+		final CyclicBarrier barrier;
+		final Object[] slots;
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Group(int size){
+			this.mailbox = new ConcurrentLinkedQueue[size];
+			for(int i=0; i<size; i++){
+				mailbox[i] = new ConcurrentLinkedQueue<Message>();
+			}
+			this.barrier = new CyclicBarrier(size);
+			this.slots = new Object[size];
+		}
+	}
+
+	private final Group group;
+	private final int rank;
+
+	private LocalTransport(Group group, int rank){
+		this.group = group;
+		this.rank = rank;
+	}
+
+
+	/**
+	 * Startet size Ranks als Threads und wartet, bis alle fertig sind.
+	 * Die Solver mit Nachrichtenaustausch (Token an Rank 1) brauchen mindestens 2 Ranks.
+	 * @param size Anzahl Ranks
+	 * @param body wird pro Rank mit seinem Transport ausgeführt
+	 * @throws InterruptedException
+	 */
+	public static void run(int size, final Consumer<Transport> body) throws InterruptedException {
+		if(size < 2){
+			System.out.println("local mode needs at least 2 ranks: " + size);
+			return;
+		}
+
+		Group group = new Group(size);
+		Thread[] threads = new Thread[size];
+
+		for(int i=0; i<size; i++){
+			final Transport transport = new LocalTransport(group, i);
+			threads[i] = new Thread(new Runnable(){
+				@Override
+				public void run(){
+					try{
+						body.accept(transport);
+					}catch(RuntimeException e){
+						//die anderen Ranks würden in einer kollektiven Operation warten
+						e.printStackTrace();
+						System.exit(1);
+					}
+				}
+			}, "rank-" + i);
+			threads[i].start();
+		}
+
+		for(Thread thread : threads){
+			thread.join();
+		}
+	}
+
+
+	@Override
+	public int rank() {
+		return rank;
+	}
+
+	@Override
+	public int size() {
+		return group.mailbox.length;
+	}
+
+	@Override
+	public void isend(int[] buffer, int dest, int tag) {
+		group.mailbox[dest].add(new Message(rank, tag, buffer.length, buffer.clone()));
+	}
+
+	@Override
+	public void isend(byte[] buffer, int count, int dest, int tag) {
+		group.mailbox[dest].add(new Message(rank, tag, count, Arrays.copyOf(buffer, count)));
+	}
+
+	@Override
+	public void isend(long[] buffer, int count, int dest, int tag) {
+		group.mailbox[dest].add(new Message(rank, tag, count, Arrays.copyOf(buffer, count)));
+	}
+
+	@Override
+	public void isend(Object[] buffer, int dest, int tag) {
+		group.mailbox[dest].add(new Message(rank, tag, buffer.length, buffer.clone()));
+	}
+
+	@Override
+	public void waitSend() {
+		//isend hat den Buffer bereits kopiert
+	}
+
+	@Override
+	public int[] iprobe() {
+		Message message = group.mailbox[rank].peek();
+		if(message == null){
+			//mehr Ranks als Kerne: ein wartender Rank gibt den Kern ab
+			Thread.yield();
+			return null;
+		}
+		return new int[]{message.source, message.tag, message.count};
+	}
+
+	/**
+	 * Entfernt die erste Nachricht von source mit tag aus der eigenen Mailbox
+	 */
+	private Message take(int source, int tag){
+		while(true){
+			Iterator<Message> iterator = group.mailbox[rank].iterator();
+			while(iterator.hasNext()){
+				Message message = iterator.next();
+				if(message.source == source && message.tag == tag){
+					iterator.remove();
+					return message;
+				}
+			}
+			//blockierendes Recv: die Nachricht ist noch nicht angekommen
+			Thread.yield();
+		}
+	}
+
+	@Override
+	public void recv(int[] buffer, int offset, int count, int source, int tag) {
+		Message message = take(source, tag);
+		System.arraycopy((int[]) message.data, 0, buffer, offset, Math.min(count, message.count));
+	}
+
+	@Override
+	public void recv(byte[] buffer, int count, int source, int tag) {
+		Message message = take(source, tag);
+		System.arraycopy((byte[]) message.data, 0, buffer, 0, Math.min(count, message.count));
+	}
+
+	@Override
+	public int recv(long[] buffer, int count, int source, int tag) {
+		Message message = take(source, tag);
+		int n = Math.min(count, message.count);
+		System.arraycopy((long[]) message.data, 0, buffer, 0, n);
+		return n;
+	}
+
+	@Override
+	public void recv(Object[] buffer, int source, int tag) {
+		Message message = take(source, tag);
+		System.arraycopy((Object[]) message.data, 0, buffer, 0, Math.min(buffer.length, message.count));
+	}
+
+	@Override
+	public void barrier() {
+		try{
+			group.barrier.await();
+		}catch(InterruptedException | BrokenBarrierException e){
+			throw new IllegalStateException("barrier broken on rank " + rank, e);
+		}
+	}
+
+	@Override
+	public Object[] allgather(Object value) {
+		group.slots[rank] = value;
+		barrier();
+		Object[] values = group.slots.clone();
+		//erst danach darf ein Rank die Slots für die nächste Operation überschreiben
+		barrier();
+		return values;
+	}
+
+	@Override
+	public void reduceSum(long[] local, long[] total) {
+		Object[] values = allgather(local.clone());
+		if(rank == 0){
+			Arrays.fill(total, 0, local.length, 0);
+			for(Object value : values){
+				long[] summand = (long[]) value;
+				for(int i=0; i<local.length; i++){
+					total[i] += summand[i];
+				}
+			}
+		}
+	}
+
+	@Override
+	public void reduceMax(long[] local, long[] max) {
+		Object[] values = allgather(local.clone());
+		if(rank == 0){
+			Arrays.fill(max, 0, local.length, Long.MIN_VALUE);
+			for(Object value : values){
+				long[] other = (long[]) value;
+				for(int i=0; i<local.length; i++){
+					max[i] = Math.max(max[i], other[i]);
+				}
+			}
+		}
+	}
+
+	@Override
+	public int allreduceMin(int value) {
+		int min = Integer.MAX_VALUE;
+		for(Object other : allgather(value)){
+			min = Math.min(min, (Integer) other);
+		}
+		return min;
+	}
+
+	@Override
+	public int allreduceMax(int value) {
+		int max = Integer.MIN_VALUE;
+		for(Object other : allgather(value)){
+			max = Math.max(max, (Integer) other);
+		}
+		return max;
+	}
+
+	@Override
+	public String getProcessorName() {
+		try{
+			return InetAddress.getLocalHost().getHostName();
+		}catch(UnknownHostException e){
+			return "localhost";
+		}
+	}
+
+	@Override
+	public void close() {
+		//keine Verbindungen
+	}
+
+}
@@ -0,0 +1,145 @@
+package messagePassing;
+
+import java.util.ArrayList;
+import java.util.List;
+import mpi.MPI;
+import mpi.Request;
+import mpi.Status;
+
+/**
+ * Transport über MPJ Express (MPI.COMM_WORLD), MPI.Init muss bereits ausgeführt sein.
+ *
+ * @author michael koch
+ */
+
+public class MpjTransport implements Transport {
+
+	//letztes Isend eines byte[] Buffers
+	private Request pendingSend;
+
+	//Isends von long[] Buffern seit dem letzten waitSend()
+	private final List<Request> pendingLongSends = new ArrayList<Request>();
+
+	@Override
+	public int rank() {
+		return MPI.COMM_WORLD.Rank();
+	}
+
+	@Override
+	public int size() {
+		return MPI.COMM_WORLD.Size();
+	}
+
+	@Override
+	public void isend(int[] buffer, int dest, int tag) {
+		MPI.COMM_WORLD.Isend(buffer, 0, buffer.length, MPI.INT, dest, tag);
+	}
+
+	@Override
+	public void isend(byte[] buffer, int count, int dest, int tag) {
+		pendingSend = MPI.COMM_WORLD.Isend(buffer, 0, count, MPI.BYTE, dest, tag);
+	}
+
+	@Override
+	public void isend(long[] buffer, int count, int dest, int tag) {
+		pendingLongSends.add(MPI.COMM_WORLD.Isend(buffer, 0, count, MPI.LONG, dest, tag));
+	}
+
+	@Override
+	public void isend(Object[] buffer, int dest, int tag) {
+		MPI.COMM_WORLD.Isend(buffer, 0, buffer.length, MPI.OBJECT, dest, tag);
+	}
+
+	@Override
+	public void waitSend() {
+		if(pendingSend != null){
+			pendingSend.Wait();
+			pendingSend = null;
+		}
+		for(Request request : pendingLongSends){
+			request.Wait();
+		}
+		pendingLongSends.clear();
+	}
+
+	@Override
+	public int[] iprobe() {
+		Status status = MPI.COMM_WORLD.Iprobe(MPI.ANY_SOURCE, MPI.ANY_TAG);
+		if(status == null){
+			return null;
+		}
+		//nur WORK wird als MPI.BYTE versendet
+		int count = status.tag == Tag.WORK ? status.Get_count(MPI.BYTE) : 0;
+		return new int[]{status.source, status.tag, count};
+	}
+
+	@Override
+	public void recv(int[] buffer, int offset, int count, int source, int tag) {
+		MPI.COMM_WORLD.Recv(buffer, offset, count, MPI.INT, source, tag);
+	}
+
+	@Override
+	public void recv(byte[] buffer, int count, int source, int tag) {
+		MPI.COMM_WORLD.Recv(buffer, 0, count, MPI.BYTE, source, tag);
+	}
+
+	@Override
+	public int recv(long[] buffer, int count, int source, int tag) {
+		return MPI.COMM_WORLD.Recv(buffer, 0, count, MPI.LONG, source, tag).Get_count(MPI.LONG);
+	}
+
+	@Override
+	public void recv(Object[] buffer, int source, int tag) {
+		MPI.COMM_WORLD.Recv(buffer, 0, buffer.length, MPI.OBJECT, source, tag);
+	}
+
+	@Override
+	public void barrier() {
+		MPI.COMM_WORLD.Barrier();
+	}
+
+	@Override
+	public void reduceSum(long[] local, long[] total) {
+		MPI.COMM_WORLD.Reduce(local, 0, total, 0, local.length, MPI.LONG, MPI.SUM, 0);
+	}
+
+	@Override
+	public void reduceMax(long[] local, long[] max) {
+		MPI.COMM_WORLD.Reduce(local, 0, max, 0, local.length, MPI.LONG, MPI.MAX, 0);
+	}
+
+	@Override
+	public int allreduceMin(int value) {
+		int[] local = {value};
+		int[] result = new int[1];
+		MPI.COMM_WORLD.Allreduce(local, 0, result, 0, 1, MPI.INT, MPI.MIN);
+		return result[0];
+	}
+
+	@Override
+	public int allreduceMax(int value) {
+		int[] local = {value};
+		int[] result = new int[1];
+		MPI.COMM_WORLD.Allreduce(local, 0, result, 0, 1, MPI.INT, MPI.MAX);
+		return result[0];
+	}
+
+	@Override
+	public Object[] allgather(Object value) {
+		Object[] local = {value};
+		Object[] values = new Object[size()];
+		MPI.COMM_WORLD.Allgather(local, 0, 1, MPI.OBJECT, values, 0, 1, MPI.OBJECT);
+		return values;
+	}
+
+	@Override
+	public String getProcessorName() {
+		return MPI.Get_processor_name();
+	}
+
+	@Override
+	public void close() {
+		MPI.Finalize();
+	}
+
+}
@@ -0,0 +1,360 @@
+package messagePassing;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import search.State;
+import search.StateCodec;
+
+/**
+ * Die Klasse ProgressEngine empfängt alle Nachrichten eines Prozessors.
+ *
+ * Statt pro Nachrichtentyp ein eigenes Iprobe auszuführen, holt poll() mit einem einzigen
+ * Iprobe(ANY_SOURCE, ANY_TAG) alle wartenden Nachrichten ab und legt sie nach Tag als Ereignis ab.
+ * Worker, SolutionCOM und TerminationCOM lesen danach nur noch diese Ereignisse.
+ * Gesendet und empfangen wird über den Transport (MPJ Express oder Threads in einer JVM).
+ * Mit einer EventTrace wird jede empfangene Nachricht als Ereignis aufgezeichnet.
+ *
+ * Die Suchschleife ruft poll() nicht nach jedem Node auf, sondern erst wenn das Budget (Anzahl Nodes
+ * oder Zeit) aufgebraucht ist. Ein IDLE-Prozessor pollt bei jedem Durchlauf.
+ *
+ * @author michael koch
+ */
+public class ProgressEngine {
+
+	//Nachrichtenaustausch mit den anderen Prozessoren
+	private Transport transport;
+
+	//Format der empfangenen Arbeit
+	private StateCodec codec;
+
+	//Aufzeichnung der Ereignisse, null = ohne
+	private EventTrace trace;
+
+	//Budget zwischen zwei poll()
+	private long nodeBudget;
+	private long timeBudget;
+
+	//Stand beim letzten poll()
+	private long lastNodes;
+	private long lastTime;
+
+	//wiederverwendbarer Empfangsbuffer
+	private ByteBuffer recvBuffer = ByteBuffer.allocate(1024);
+	private int[] intBuffer = new int[1];
+	private Token[] tokenBuffer = new Token[1];
+
+	//empfangene, noch nicht gelesene Ereignisse
+	private ArrayDeque<Integer> workRequests = new ArrayDeque<Integer>();
+	private ArrayDeque<Integer> workRequestWaits = new ArrayDeque<Integer>();
+	private int workRequestWait;
+	private ArrayDeque<State[]> work = new ArrayDeque<State[]>();
+	private ArrayDeque<Integer> workSources = new ArrayDeque<Integer>();
+	private ArrayDeque<int[]> noWork = new ArrayDeque<int[]>();
+	private int workSource = -1;
+	private ArrayDeque<int[]> waves = new ArrayDeque<int[]>();
+	private Token token;
+	private int incumbent = Integer.MAX_VALUE;
+	private int done;
+	private boolean solution;
+	private boolean termination;
+	private int flushed;
+
+	/**
+	 * Empfängt über MPI.COMM_WORLD
+	 * @param codec Format der empfangenen Arbeit
+	 * @param nodeBudget Anzahl Nodes zwischen zwei poll()
+	 * @param timeBudget Zeit in ms zwischen zwei poll(), 0 = nur nach Nodes
+	 */
+	public ProgressEngine(StateCodec codec, long nodeBudget, long timeBudget){
+		this(codec, new MpjTransport(), nodeBudget, timeBudget);
+	}
+
+
+	/**
+	 * @param codec Format der empfangenen Arbeit
+	 * @param transport Nachrichtenaustausch
+	 * @param nodeBudget Anzahl Nodes zwischen zwei poll()
+	 * @param timeBudget Zeit in ms zwischen zwei poll(), 0 = nur nach Nodes
+	 */
+	public ProgressEngine(StateCodec codec, Transport transport, long nodeBudget, long timeBudget){
+		this.codec = codec;
+		this.transport = transport;
+		this.nodeBudget = Math.max(1, nodeBudget);
+		this.timeBudget = timeBudget * 1000000;
+		this.lastTime = System.nanoTime();
+	}
+
+
+	/**
+	 * @return Nachrichtenaustausch dieses Prozessors
+	 */
+	public Transport getTransport(){
+		return transport;
+	}
+
+
+	/**
+	 * @param trace Aufzeichnung der gesendeten und empfangenen Nachrichten, null = ohne
+	 */
+	public void setTrace(EventTrace trace){
+		this.trace = trace;
+	}
+
+
+	/**
+	 * @return Aufzeichnung der Ereignisse, null wenn ohne
+	 */
+	public EventTrace getTrace(){
+		return trace;
+	}
+
+
+	/**
+	 * Zeichnet ein Ereignis auf, falls eine EventTrace gesetzt ist
+	 * @param event siehe TraceEvent
+	 * @param peer beteiligter Prozessor, -1 = keiner bzw. alle
+	 * @param value z.B. Anzahl States
+	 */
+	public void trace(int event, int peer, int value){
+		if(trace != null){
+			trace.add(event, peer, value);
+		}
+	}
+
+
+	/**
+	 * Prüft, ob das Budget seit dem letzten poll() aufgebraucht ist
+	 * @param nodes Anzahl besuchter Nodes der Engine
+	 * @return true, wenn poll() ausgeführt werden soll
+	 */
+	public boolean isDue(long nodes){
+		if(nodes - lastNodes >= nodeBudget){
+			return true;
+		}
+		return timeBudget > 0 && System.nanoTime() - lastTime >= timeBudget;
+	}
+
+
+	/**
+	 * Empfängt alle wartenden Nachrichten und setzt das Budget zurück
+	 * @param nodes Anzahl besuchter Nodes der Engine
+	 */
+	public void poll(long nodes){
+		lastNodes = nodes;
+		if(timeBudget > 0){
+			lastTime = System.nanoTime();
+		}
+
+		int[] status = transport.iprobe();
+		while(status != null){
+			receive(status[0], status[1], status[2]);
+			status = transport.iprobe();
+		}
+	}
+
+
+	/**
+	 * Beendet den Nachrichtenaustausch am Ende von solve(), muss von allen Prozessoren aufgerufen werden.
+	 *
+	 * Nach der Lösung sind noch TOKEN, IDLE, WORK, NOWORK und weitere SOLUTION unterwegs. Jeder Prozessor sendet
+	 * jedem anderen FLUSH und empfängt (und verwirft) alle Nachrichten, bis von jedem FLUSH angekommen ist.
+	 * Die Nachrichten eines Absenders kommen in der gesendeten Reihenfolge an, danach ist keine Nachricht dieser
+	 * Suche mehr unterwegs. Ein weiterer Solver im selben MPI-Prozess erhält so keine alten Nachrichten.
+	 */
+	public void drain(){
+		int rank = transport.rank();
+		for(int dest=0; dest<transport.size(); dest++){
+			if(dest != rank){
+				transport.isend(new int[1], dest, Tag.FLUSH);
+			}
+		}
+
+		while(flushed < transport.size() - 1){
+			int[] status = transport.iprobe();
+			if(status != null){
+				receive(status[0], status[1], status[2]);
+			}
+		}
+		flushed = 0;
+		transport.waitSend();
+		transport.barrier();
+	}
+
+
+	/**
+	 * Empfängt eine Nachricht gemäss Tag
+	 * @param source Absender
+	 * @param tag siehe Tag
+	 * @param size Anzahl Bytes
+	 */
+	private void receive(int source, int tag, int size){
+
+		switch(tag){
+		case Tag.WORK:
+			if(recvBuffer.capacity() < size){
+				recvBuffer = ByteBuffer.allocate(Math.max(size, 2*recvBuffer.capacity()));
+			}
+			transport.recv(recvBuffer.array(), size, source, Tag.WORK);
+			recvBuffer.clear();
+			State[] states = codec.decode(recvBuffer);
+			work.add(states);
+			workSources.add(source);
+			trace(TraceEvent.WORK_RECEIVED, source, states.length);
+			break;
+
+		case Tag.NOWORK:
+			transport.recv(intBuffer, 0, intBuffer.length, source, Tag.NOWORK);
+			noWork.add(new int[]{source, intBuffer[0]});
+			trace(TraceEvent.NOWORK_RECEIVED, source, intBuffer[0]);
+			break;
+
+		case Tag.TOKEN:
+			transport.recv(tokenBuffer, source, Tag.TOKEN);
+			token = tokenBuffer[0];
+			trace(TraceEvent.TOKEN_RECEIVED, source, token.isWhite() ? TokenColor.WHITE : TokenColor.BLACK);
+			break;
+
+		case Tag.IDLE:
+			transport.recv(intBuffer, 0, intBuffer.length, source, Tag.IDLE);
+			workRequests.add(source);
+			workRequestWaits.add(intBuffer[0]);
+			trace(TraceEvent.REQUEST_RECEIVED, source, intBuffer[0]);
+			break;
+
+		case Tag.WAVE:
+		case Tag.REPORT:
+			int[] wave = new int[4];
+			transport.recv(wave, 1, 3, source, tag);
+			wave[0] = tag;
+			waves.add(wave);
+			trace(tag == Tag.WAVE ? TraceEvent.WAVE_RECEIVED : TraceEvent.REPORT_RECEIVED, source, wave[1]);
+			break;
+
+		case Tag.INCUMBENT:
+			transport.recv(intBuffer, 0, intBuffer.length, source, Tag.INCUMBENT);
+			incumbent = Math.min(incumbent, intBuffer[0]);
+			trace(TraceEvent.INCUMBENT_RECEIVED, source, intBuffer[0]);
+			break;
+
+		case Tag.DONE:
+			transport.recv(intBuffer, 0, intBuffer.length, source, Tag.DONE);
+			done++;
+			break;
+
+		case Tag.SOLUTION:
+			transport.recv(intBuffer, 0, intBuffer.length, source, Tag.SOLUTION);
+			solution = true;
+			trace(TraceEvent.SOLUTION_RECEIVED, source, 0);
+			break;
+
+		case Tag.TERMINATE:
+			transport.recv(intBuffer, 0, intBuffer.length, source, Tag.TERMINATE);
+			termination = true;
+			trace(TraceEvent.TERMINATION_RECEIVED, source, 0);
+			break;
+
+		case Tag.FLUSH:
+			transport.recv(intBuffer, 0, intBuffer.length, source, Tag.FLUSH);
+			flushed++;
+			break;
+
+		default:
+			//CLOCK, TRACE und BATCH werden ausserhalb der Suche direkt empfangen. Ein leeres Recv würde die Nachricht
+			//nicht verwerfen (MPI: Truncation), ein anderer Tag hier ist ein Fehler im Protokoll.
+			throw new IllegalStateException("unexpected message with tag " + tag + " from rank " + source);
+		}
+	}
+
+
+	/**
+	 * @return IDLE-Prozessor, welcher Arbeit angefordert hat, -1 wenn keiner
+	 */
+	int takeWorkRequest(){
+		Integer source = workRequests.poll();
+		Integer wait = workRequestWaits.poll();
+		workRequestWait = wait == null ? 0 : wait;
+		return source == null ? -1 : source;
+	}
+
+	/**
+	 * @return Wartezeit in ms des zuletzt mit takeWorkRequest() gelesenen IDLE-Prozessors
+	 */
+	int getWorkRequestWait(){
+		return workRequestWait;
+	}
+
+	/**
+	 * @return empfangene Arbeit oder null
+	 */
+	State[] takeWork(){
+		Integer source = workSources.poll();
+		workSource = source == null ? -1 : source;
+		return work.poll();
+	}
+
+	/**
+	 * @return Absender der zuletzt mit takeWork() gelesenen Arbeit
+	 */
+	int getWorkSource(){
+		return workSource;
+	}
+
+	/**
+	 * @return empfangenes NOWORK {Absender, offene Arbeit} oder null
+	 */
+	int[] takeNoWork(){
+		return noWork.poll();
+	}
+
+	/**
+	 * @return empfangene Nachricht der WaveTermination {Tag, Welle, gesendet, empfangen} oder null
+	 */
+	int[] takeWave(){
+		return waves.poll();
+	}
+
+	/**
+	 * @return empfangenes Token oder null
+	 */
+	Token takeToken(){
+		Token received = token;
+		token = null;
+		return received;
+	}
+
+	/**
+	 * @return kürzeste empfangene Lösungslänge seit dem letzten Aufruf, Integer.MAX_VALUE wenn keine
+	 */
+	public int takeIncumbent(){
+		int received = incumbent;
+		incumbent = Integer.MAX_VALUE;
+		return received;
+	}
+
+	/**
+	 * @return Anzahl empfangener DONE seit dem letzten Aufruf
+	 */
+	public int takeDone(){
+		int received = done;
+		done = 0;
+		return received;
+	}
+
+	/**
+	 * @return true, wenn ein anderer Prozessor die Lösung gefunden hat
+	 */
+	boolean takeSolution(){
+		boolean received = solution;
+		solution = false;
+		return received;
+	}
+
+	/**
+	 * @return true, wenn ein TERMINATE empfangen wurde
+	 */
+	boolean takeTermination(){
+		boolean received = termination;
+		termination = false;
+		return received;
+	}
+
+}
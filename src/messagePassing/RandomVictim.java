@@ -0,0 +1,40 @@
+package messagePassing;
+
+import java.util.Random;
+
+/**
+ * Zufälliger anderer Prozessor (ursprüngliche Implementation)
+ * 
+ * @author michael koch
+ */
+
+public class RandomVictim implements VictimSelector {
+
+	private int me;
+	private int size;
+	private Random random = new Random();
+
+	/**
+	 * @param rank des Prozessors
+	 * @param size Anzahl Prozessoren
+	 */
+	public RandomVictim(int rank, int size){
+		this.me = rank;
+		this.size = size;
+	}
+
+	@Override
+	public int next() {
+		int victim = random.nextInt(size - 1);
+		return victim >= me ? victim + 1 : victim;
+	}
+
+	@Override
+	public void noWork(int rank, int load) {
+	}
+
+	@Override
+	public void work(int rank, int states) {
+	}
+
+}
@@ -0,0 +1,45 @@
+package messagePassing;
+
+/**
+ * Fragt die anderen Prozessoren der Reihe nach an, beginnend beim nächsthöheren Rank.
+ * 
+ * Durch den unterschiedlichen Startpunkt fragen die IDLE-Prozessoren wie beim globalen Round-Robin
+ * verschiedene Prozessoren an, ohne einen zentralen Zähler auf einem Prozessor.
+ * 
+ * @author michael koch
+ */
+
+public class RoundRobinVictim implements VictimSelector {
+
+	private int me;
+	private int size;
+	private int victim;
+
+	/**
+	 * @param rank des Prozessors
+	 * @param size Anzahl Prozessoren
+	 */
+	public RoundRobinVictim(int rank, int size){
+		this.me = rank;
+		this.size = size;
+		this.victim = rank;
+	}
+
+	@Override
+	public int next() {
+		victim = (victim + 1) % size;
+		if(victim == me){
+			victim = (victim + 1) % size;
+		}
+		return victim;
+	}
+
+	@Override
+	public void noWork(int rank, int load) {
+	}
+
+	@Override
+	public void work(int rank, int states) {
+	}
+
+}
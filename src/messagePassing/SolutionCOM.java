@@ -1,43 +1,66 @@
-package messagePassing;
-
-import mpi.MPI;
-import mpi.Status;
-
-/**
- * Klasse SolutionCOM stellt die Kommunikatinoswerkzeuge zur Verfgung fr das Solution-Handling.
- *  
- * @author michael koch
- */
-public class SolutionCOM{
-	
-	/**
-	 * Der Prozessor hat eine Lsung gefunden.
-	 */
-	public static void foundSolution(int me){
-		int size = MPI.COMM_WORLD.Size();
-		int[] buffer = new int[1];
-
-		for(int rank=0; rank<size; rank++){
-			if(rank != me){
-				MPI.COMM_WORLD.Isend(buffer, 0, buffer.length, MPI.INT, rank, Tag.SOLUTION);
-			}
-		}
-	}
-
-	/**
-	 * Prfung, ob ein anderer Prozessor die Lsung gefunden hat.
-	 * @return true, wenn ein anderer Prozessor die Lsung gefunden hat.
-	 */
-	public static boolean checkSolution(int me){
-		int[] buffer = new int[1];
-
-		Status status = MPI.COMM_WORLD.Iprobe(MPI.ANY_SOURCE, Tag.SOLUTION);
-		if (status != null){
-			MPI.COMM_WORLD.Recv(buffer, 0, buffer.length, MPI.INT, status.source, Tag.SOLUTION);
-			return true;
-		}else{
-			return false;
-		}
-	}
-
-}
+package messagePassing;
+
+/**
+ * Klasse SolutionCOM stellt die Kommunikatinoswerkzeuge zur Verfügung für das Solution-Handling.
+ *  
+ * @author michael koch
+ */
+public class SolutionCOM{
+	
+	/**
+	 * Der Prozessor hat eine Lösung gefunden.
+	 * @param progress Nachrichtenaustausch und Aufzeichnung des Prozessors
+	 */
+	public static void foundSolution(ProgressEngine progress){
+		Transport transport = progress.getTransport();
+		int me = transport.rank();
+		int size = transport.size();
+		int[] buffer = new int[1];
+
+		for(int rank=0; rank<size; rank++){
+			if(rank != me){
+				transport.isend(buffer, rank, Tag.SOLUTION);
+			}
+		}
+		progress.trace(TraceEvent.SOLUTION_SENT, -1, 0);
+	}
+
+	/**
+	 * Asynchrones IDA*: der Prozessor hat eine kürzere Lösung gefunden und teilt die Länge allen anderen mit.
+	 * @param progress Nachrichtenaustausch und Aufzeichnung des Prozessors
+	 * @param length Anzahl Bewegungen der Lösung
+	 */
+	public static void sendIncumbent(ProgressEngine progress, int length){
+		Transport transport = progress.getTransport();
+		int me = transport.rank();
+		int size = transport.size();
+
+		for(int rank=0; rank<size; rank++){
+			if(rank != me){
+				int[] buffer = {length};
+				transport.isend(buffer, rank, Tag.INCUMBENT);
+			}
+		}
+		progress.trace(TraceEvent.INCUMBENT_SENT, -1, length);
+	}
+
+	/**
+	 * Asynchrones IDA*: der Prozessor meldet dem Root-Prozessor, dass er keine kürzere Lösung mehr finden kann.
+	 * @param progress Nachrichtenaustausch des Prozessors
+	 * @param length beste bekannte Lösungslänge
+	 */
+	public static void sendDone(ProgressEngine progress, int length){
+		int[] buffer = {length};
+		progress.getTransport().isend(buffer, 0, Tag.DONE);
+	}
+
+	/**
+	 * Prüfung, ob ein anderer Prozessor die Lösung gefunden hat.
+	 * @param progress empfängt die Nachrichten
+	 * @return true, wenn ein anderer Prozessor die Lösung gefunden hat.
+	 */
+	public static boolean checkSolution(ProgressEngine progress){
+		return progress.takeSolution();
+	}
+
+}
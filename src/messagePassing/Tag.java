@@ -1,27 +1,52 @@
-package messagePassing;
-
-/**
- * Verfgbare Tags des Netzwerks
- * 
- * @author michael koch
- *
- */
-
-public class Tag {
-	
-	// Sende und Empfange Arbeit
-	public final static int WORK = 0;
-	
-	// Lsung wurde gefunden
-	public final static int SOLUTION = 1;
-	
-	// TokenRing
-	public final static int TOKEN = 2;
-	
-	// Beende die aktuelle Verarbeitung
-	public final static int TERMINATE = 3;
-	
-	// Prozessor hat einen Leeren Stack
-	public final static int IDLE = 4;
-	
+package messagePassing;
+
+/**
+ * Verfügbare Tags des Netzwerks
+ * 
+ * @author michael koch
+ *
+ */
+
+public class Tag {
+	
+	// Sende und Empfange Arbeit
+	public final static int WORK = 0;
+	
+	// Lösung wurde gefunden
+	public final static int SOLUTION = 1;
+	
+	// TokenRing
+	public final static int TOKEN = 2;
+	
+	// Beende die aktuelle Verarbeitung
+	public final static int TERMINATE = 3;
+	
+	// Prozessor hat einen Leeren Stack
+	public final static int IDLE = 4;
+
+	// Welle der Termination-Erkennung (siehe WaveTermination), vom Parent an die Kinder
+	public final static int WAVE = 5;
+
+	// Antwort auf die Welle mit den Zählern des Teilbaums, von den Kindern an den Parent
+	public final static int REPORT = 6;
+
+	// Antwort auf einen WORK-Request ohne teilbare Arbeit, enthält die teilbare Arbeit des Prozessors (0)
+	public final static int NOWORK = 7;
+
+	// Länge der besten bekannten Lösung (asynchrones IDA*, siehe AsyncSolver)
+	public final static int INCUMBENT = 8;
+
+	// Prozessor kann keine bessere Lösung mehr finden (asynchrones IDA*)
+	public final static int DONE = 9;
+
+	// Abgleich der Uhren und Übertragung der Ereignisse an den Root-Prozessor (siehe EventTrace)
+	public final static int CLOCK = 10;
+	public final static int TRACE = 11;
+
+	// generierte States für den Besitzer-Prozessor (HDA*, siehe HdaSolver)
+	public final static int BATCH = 12;
+
+	// letzte Nachricht eines Prozessors am Ende von solve() (siehe ProgressEngine.drain)
+	public final static int FLUSH = 13;
+	
 }
\ No newline at end of file
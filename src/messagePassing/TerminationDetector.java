@@ -0,0 +1,30 @@
+package messagePassing;
+
+/**
+ * Erkennt, dass eine Suchtiefe erledigt ist: alle Prozessoren sind IDLE und keine Arbeit ist mehr unterwegs.
+ * Verfügbare Verfahren siehe TerminationType.
+ * 
+ * @author michael koch
+ */
+
+public interface TerminationDetector {
+
+	/**
+	 * Der Root-Prozessor startet die Erkennung für eine neue Suchtiefe
+	 */
+	void start();
+
+	/**
+	 * Wird von jedem Prozessor in jedem Durchlauf der Kommunikation aufgerufen, nach ProgressEngine.poll()
+	 * 
+	 * @param queueLength offene Arbeit des Prozessors, 0 = IDLE
+	 * @return true auf dem Root-Prozessor, wenn die Suchtiefe erledigt ist
+	 */
+	boolean check(int queueLength);
+
+	/**
+	 * @return Anzahl gestarteter Umläufe des Tokens bzw. Wellen seit dem Erzeugen (nur auf dem Root-Prozessor > 0)
+	 */
+	long getLaps();
+
+}
@@ -0,0 +1,55 @@
+package messagePassing;
+
+/**
+ * Verfügbare Verfahren der Termination-Erkennung
+ * 
+ * @author michael koch
+ *
+ */
+
+public class TerminationType {
+
+	// Dijkstras TokenRing
+	public static final int RING = 0;
+
+	// Wellen über einen binären Baum mit Zählern der WORK-Nachrichten
+	public static final int TREE = 1;
+
+	/**
+	 * Bestimmt den TerminationType aus dem Namen
+	 * @param name "ring" oder "tree"
+	 * @return TerminationType
+	 */
+	public static int parse(String name){
+		if(name.equals("ring")){
+			return RING;
+		}else if(name.equals("tree")){
+			return TREE;
+		}
+		throw new IllegalArgumentException("unknown termination: " + name);
+	}
+
+	/**
+	 * Bezeichnung des TerminationType
+	 * @param termination
+	 * @return Name
+	 */
+	public static String getName(int termination){
+		return termination == TREE ? "tree" : "ring";
+	}
+
+	/**
+	 * Erzeugt einen TerminationDetector
+	 * @param termination TerminationType
+	 * @param rank des Prozessors
+	 * @param worker
+	 * @param progress
+	 * @return TerminationDetector
+	 */
+	public static TerminationDetector create(int termination, int rank, Worker worker, ProgressEngine progress){
+		if(termination == TREE){
+			return new WaveTermination(rank, worker, progress);
+		}
+		return new TokenRing(rank, worker);
+	}
+}
@@ -1,15 +1,15 @@
-package messagePassing;
-
-/**
- * Farbe des Tokens
- * 
- * @author michael koch
- *
- */
-
-public class TokenColor {
-
-	public static final int WHITE = 0;
-	public static final int BLACK = 1;
-	
-}
+package messagePassing;
+
+/**
+ * Farbe des Tokens
+ * 
+ * @author michael koch
+ *
+ */
+
+public class TokenColor {
+
+	public static final int WHITE = 0;
+	public static final int BLACK = 1;
+	
+}
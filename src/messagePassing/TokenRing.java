@@ -0,0 +1,46 @@
+package messagePassing;
+
+/**
+ * Dijkstras TokenRing (siehe Worker): das Token wandert nacheinander über alle Prozessoren.
+ * Die Latenz am Ende einer Suchtiefe wächst linear mit der Anzahl Prozessoren.
+ * 
+ * @author michael koch
+ */
+
+public class TokenRing implements TerminationDetector {
+
+	private int me;
+	private Worker worker;
+
+	/**
+	 * @param rank des Prozessors
+	 * @param worker betreibt den TokenRing
+	 */
+	public TokenRing(int rank, Worker worker){
+		this.me = rank;
+		this.worker = worker;
+	}
+
+	@Override
+	public void start() {
+		worker.startToken(TokenColor.BLACK);
+	}
+
+	@Override
+	public boolean check(int queueLength) {
+		if(me == 0){
+			//Welche Farbe hat das Token?
+			return worker.recvWhiteToken(queueLength);
+		}
+
+		//alle Nicht-Root-Prozessoren geben das Token im TokenRing weiter
+		worker.passToken(queueLength);
+		return false;
+	}
+
+	@Override
+	public long getLaps() {
+		return worker.getTokenLaps();
+	}
+
+}
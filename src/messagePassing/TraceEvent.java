@@ -0,0 +1,85 @@
+package messagePassing;
+
+/**
+ * Ereignisse der EventTrace.
+ *
+ * Jedes Ereignis hat neben dem Zeitpunkt einen beteiligten Prozessor (-1 = keiner bzw. alle)
+ * und einen Wert, z.B. die Anzahl versendeter States oder die Farbe des Tokens.
+ *
+ * @author michael koch
+ */
+
+public class TraceEvent {
+
+	// WORK-Request versendet bzw. empfangen
+	public static final int REQUEST_SENT = 0;
+	public static final int REQUEST_RECEIVED = 1;
+
+	// Arbeit versendet bzw. empfangen, Wert = Anzahl States
+	public static final int WORK_SENT = 2;
+	public static final int WORK_RECEIVED = 3;
+
+	// NOWORK versendet bzw. empfangen, Wert = offene Arbeit des Absenders
+	public static final int NOWORK_SENT = 4;
+	public static final int NOWORK_RECEIVED = 5;
+
+	// Token weitergegeben bzw. empfangen, Wert = Farbe (siehe TokenColor)
+	public static final int TOKEN_SENT = 6;
+	public static final int TOKEN_RECEIVED = 7;
+
+	// Welle bzw. Antwort der WaveTermination, Wert = Nummer der Welle
+	public static final int WAVE_SENT = 8;
+	public static final int WAVE_RECEIVED = 9;
+	public static final int REPORT_SENT = 10;
+	public static final int REPORT_RECEIVED = 11;
+
+	// TERMINATE an alle versendet bzw. empfangen
+	public static final int TERMINATION_SENT = 12;
+	public static final int TERMINATION_RECEIVED = 13;
+
+	// SOLUTION an alle versendet bzw. empfangen
+	public static final int SOLUTION_SENT = 14;
+	public static final int SOLUTION_RECEIVED = 15;
+
+	// INCUMBENT versendet bzw. empfangen (asynchrones IDA*), Wert = Lösungslänge
+	public static final int INCUMBENT_SENT = 16;
+	public static final int INCUMBENT_RECEIVED = 17;
+
+	// Beginn und Ende der Wartezeit auf Arbeit
+	public static final int IDLE_BEGIN = 18;
+	public static final int IDLE_END = 19;
+
+	// Beginn und Ende einer Suchtiefe, Wert = Suchtiefe
+	public static final int DEEP_BEGIN = 20;
+	public static final int DEEP_END = 21;
+
+	// Anzahl Ereignisse
+	public static final int COUNT = 22;
+
+	private static final String[] NAMES = {"request sent", "request received", "work sent", "work received",
+		"nowork sent", "nowork received", "token sent", "token received", "wave sent", "wave received",
+		"report sent", "report received", "termination sent", "termination received", "solution sent",
+		"solution received", "incumbent sent", "incumbent received", "idle", "idle", "deep", "deep"};
+
+	private static final String[] VALUES = {"wait", "wait", "states", "states", "load", "load", "color", "color",
+		"wave", "wave", "wave", "wave", null, null, null, null, "length", "length", null, null, "deep", "deep"};
+
+	/**
+	 * Bezeichnung des Ereignisses
+	 * @param event
+	 * @return Name, z.B. "work sent"
+	 */
+	public static String getName(int event){
+		return NAMES[event];
+	}
+
+	/**
+	 * Bezeichnung des Werts
+	 * @param event
+	 * @return Name, z.B. "states", null wenn das Ereignis keinen Wert hat
+	 */
+	public static String getValueName(int event){
+		return VALUES[event];
+	}
+
+}
@@ -0,0 +1,157 @@
+package messagePassing;
+
+/**
+ * Nachrichtenaustausch zwischen den Prozessoren (Ranks).
+ *
+ * Worker, ProgressEngine, SolutionCOM, TerminationCOM und die Solver kommunizieren nur über dieses Interface.
+ * Es gibt zwei Implementierungen:
+ * MpjTransport verwendet MPI.COMM_WORLD (MPJ Express), LocalTransport simuliert N Ranks als Threads in einer JVM.
+ *
+ * Sendeoperationen sind asynchron. Ein mit isend versendeter Buffer darf erst nach waitSend() wieder verändert werden,
+ * versendete Objekte überhaupt nicht mehr.
+ *
+ * @author michael koch
+ */
+
+public interface Transport {
+
+	/**
+	 * @return Rank dieses Prozessors
+	 */
+	int rank();
+
+	/**
+	 * @return Anzahl Prozessoren
+	 */
+	int size();
+
+	/**
+	 * Sendet das ganze Array
+	 * @param buffer
+	 * @param dest Empfänger
+	 * @param tag siehe Tag
+	 */
+	void isend(int[] buffer, int dest, int tag);
+
+	/**
+	 * Sendet die ersten count Bytes
+	 * @param buffer
+	 * @param count
+	 * @param dest Empfänger
+	 * @param tag siehe Tag
+	 */
+	void isend(byte[] buffer, int count, int dest, int tag);
+
+	/**
+	 * Sendet die ersten count longs
+	 * @param buffer
+	 * @param count
+	 * @param dest Empfänger
+	 * @param tag siehe Tag
+	 */
+	void isend(long[] buffer, int count, int dest, int tag);
+
+	/**
+	 * Sendet das ganze Array (serialisierbare Objekte)
+	 * @param buffer
+	 * @param dest Empfänger
+	 * @param tag siehe Tag
+	 */
+	void isend(Object[] buffer, int dest, int tag);
+
+	/**
+	 * Wartet, bis die mit isend(byte[]) bzw. isend(long[]) versendeten Buffer wieder verändert werden dürfen
+	 */
+	void waitSend();
+
+	/**
+	 * Prüft, ob eine Nachricht wartet (beliebiger Absender und Tag)
+	 * @return {Absender, Tag, Anzahl Bytes bei WORK} oder null
+	 */
+	int[] iprobe();
+
+	/**
+	 * Empfängt eine Nachricht in buffer[offset] bis buffer[offset+count-1]
+	 * @param buffer
+	 * @param offset
+	 * @param count
+	 * @param source Absender
+	 * @param tag siehe Tag
+	 */
+	void recv(int[] buffer, int offset, int count, int source, int tag);
+
+	/**
+	 * Empfängt eine Nachricht mit höchstens count Bytes
+	 * @param buffer
+	 * @param count
+	 * @param source Absender
+	 * @param tag siehe Tag
+	 */
+	void recv(byte[] buffer, int count, int source, int tag);
+
+	/**
+	 * Empfängt eine Nachricht mit höchstens count longs
+	 * @param buffer
+	 * @param count
+	 * @param source Absender
+	 * @param tag siehe Tag
+	 * @return Anzahl empfangener longs
+	 */
+	int recv(long[] buffer, int count, int source, int tag);
+
+	/**
+	 * Empfängt eine Nachricht mit buffer.length Objekten
+	 * @param buffer
+	 * @param source Absender
+	 * @param tag siehe Tag
+	 */
+	void recv(Object[] buffer, int source, int tag);
+
+	/**
+	 * Wartet, bis alle Prozessoren die Barriere erreicht haben
+	 */
+	void barrier();
+
+	/**
+	 * Summe pro Index über alle Prozessoren, nur der Root-Prozessor erhält das Resultat
+	 * @param local Werte dieses Prozessors
+	 * @param total Summe (nur auf Rank 0 gültig)
+	 */
+	void reduceSum(long[] local, long[] total);
+
+	/**
+	 * Maximum pro Index über alle Prozessoren, nur der Root-Prozessor erhält das Resultat
+	 * @param local Werte dieses Prozessors
+	 * @param max Maximum (nur auf Rank 0 gültig)
+	 */
+	void reduceMax(long[] local, long[] max);
+
+	/**
+	 * @param value Wert dieses Prozessors
+	 * @return Minimum über alle Prozessoren
+	 */
+	int allreduceMin(int value);
+
+	/**
+	 * @param value Wert dieses Prozessors
+	 * @return Maximum über alle Prozessoren
+	 */
+	int allreduceMax(int value);
+
+	/**
+	 * @param value Wert dieses Prozessors (serialisierbar)
+	 * @return Werte aller Prozessoren nach Rank
+	 */
+	Object[] allgather(Object value);
+
+	/**
+	 * @return Name des Rechners
+	 */
+	String getProcessorName();
+
+	/**
+	 * Beendet die Kommunikation (MPI.Finalize)
+	 */
+	void close();
+
+}
@@ -0,0 +1,31 @@
+package messagePassing;
+
+/**
+ * Wählt den Prozessor, an welchen ein IDLE-Prozessor seinen WORK-Request sendet (siehe VictimType).
+ * Antworten auf den WORK-Request (Arbeit oder NOWORK) werden zurückgemeldet.
+ * 
+ * @author michael koch
+ */
+
+public interface VictimSelector {
+
+	/**
+	 * @return Rank des nächsten Prozessors, welcher nach Arbeit gefragt wird
+	 */
+	int next();
+
+	/**
+	 * Der Prozessor hatte keine Arbeit
+	 * @param rank des Prozessors
+	 * @param load offene Arbeit des Prozessors beim Antworten
+	 */
+	void noWork(int rank, int load);
+
+	/**
+	 * Der Prozessor hat Arbeit gesendet
+	 * @param rank des Prozessors
+	 * @param states Anzahl empfangener States
+	 */
+	void work(int rank, int states);
+
+}
@@ -0,0 +1,69 @@
+package messagePassing;
+
+/**
+ * Verfügbare Strategien für die Wahl des Prozessors, welcher nach Arbeit gefragt wird
+ * 
+ * @author michael koch
+ *
+ */
+
+public class VictimType {
+
+	// zufälliger Prozessor
+	public static final int RANDOM = 0;
+
+	// der Reihe nach, ab dem nächsthöheren Rank
+	public static final int ROUNDROBIN = 1;
+
+	// grösste bekannte Last aus den Antworten
+	public static final int LOAD = 2;
+
+	// zuerst Prozessoren auf demselben Rechner
+	public static final int HOST = 3;
+
+	private static final String[] NAMES = {"random", "roundrobin", "load", "host"};
+
+	/**
+	 * Bestimmt den VictimType aus dem Namen
+	 * @param name z.B. "host"
+	 * @return VictimType
+	 */
+	public static int parse(String name){
+		for(int i=0; i<NAMES.length; i++){
+			if(NAMES[i].equals(name)){
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("unknown victim selection: " + name);
+	}
+
+	/**
+	 * Bezeichnung des VictimType
+	 * @param victim
+	 * @return Name
+	 */
+	public static String getName(int victim){
+		return NAMES[victim];
+	}
+
+	/**
+	 * Erzeugt einen VictimSelector. HOST tauscht die Rechnernamen aus und muss auf allen Prozessoren erzeugt werden.
+	 * @param victim VictimType
+	 * @param transport Nachrichtenaustausch des Prozessors
+	 * @return VictimSelector
+	 */
+	public static VictimSelector create(int victim, Transport transport){
+		int rank = transport.rank();
+		int size = transport.size();
+		switch(victim){
+		case ROUNDROBIN:
+			return new RoundRobinVictim(rank, size);
+		case LOAD:
+			return new LoadVictim(rank, size);
+		case HOST:
+			return new HostVictim(transport);
+		default:
+			return new RandomVictim(rank, size);
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package messagePassing;
+
+/**
+ * Termination-Erkennung mit Wellen über einen binären Baum (Vier-Zähler-Verfahren nach Mattern).
+ * 
+ * Der Root-Prozessor sendet eine WAVE an seine Kinder (Rank 2r+1 und 2r+2), diese an ihre Kinder usw.
+ * Ein Prozessor antwortet seinem Parent mit einem REPORT, sobald er IDLE ist und die REPORTs seiner Kinder
+ * erhalten hat. Der REPORT enthält die Summe der gesendeten und empfangenen WORK-Nachrichten des Teilbaums.
+ * 
+ * Die Suchtiefe ist erledigt, wenn zwei aufeinanderfolgende Wellen gleich viele gesendete wie empfangene
+ * Nachrichten zählen und sich die Zähler zwischen den Wellen nicht verändert haben. Ansonsten startet
+ * der Root-Prozessor die nächste Welle. Eine Welle benötigt 2*log2(P) Nachrichten-Latenzen statt P beim TokenRing.
+ * 
+ * @author michael koch
+ */
+
+public class WaveTermination implements TerminationDetector {
+
+	private int me;
+	private int parent;
+	private int children;
+	private Worker worker;
+	private ProgressEngine progress;
+
+	//aktuelle Welle, die Nummer steigt über alle Suchtiefen
+	private int wave;
+
+	//die aktuelle Welle ist noch nicht beantwortet
+	private boolean pending;
+
+	//REPORTs der Kinder zur aktuellen Welle
+	private int reports;
+	private long sent;
+	private long received;
+
+	//Zähler der letzten Welle (nur Root-Prozessor)
+	private long lastSent;
+	private long lastReceived;
+
+	//gestartete Wellen (nur Root-Prozessor)
+	private long laps;
+
+	/**
+	 * @param rank des Prozessors
+	 * @param worker zählt die gesendeten und empfangenen WORK-Nachrichten
+	 * @param progress empfängt WAVE und REPORT
+	 */
+	public WaveTermination(int rank, Worker worker, ProgressEngine progress){
+		int size = progress.getTransport().size();
+		this.me = rank;
+		this.parent = (rank - 1) / 2;
+		this.children = Math.max(0, Math.min(2, size - (2*rank + 1)));
+		this.worker = worker;
+		this.progress = progress;
+	}
+
+
+	@Override
+	public void start() {
+		lastSent = -1;
+		lastReceived = -1;
+		nextWave(wave + 1);
+	}
+
+
+	@Override
+	public boolean check(int queueLength) {
+
+		int[] message = progress.takeWave();
+		while(message != null){
+			if(message[0] == Tag.WAVE){
+				nextWave(message[1]);
+			}else if(message[1] == wave){
+				reports++;
+				sent += message[2];
+				received += message[3];
+			}
+			message = progress.takeWave();
+		}
+
+		if(!pending || reports < children || queueLength != 0){
+			return false;
+		}
+
+		pending = false;
+		long totalSent = sent + worker.getSentWork();
+		long totalReceived = received + worker.getReceivedWork();
+
+		if(me != 0){
+			int[] buffer = {wave, (int) totalSent, (int) totalReceived};
+			progress.getTransport().isend(buffer, parent, Tag.REPORT);
+			progress.trace(TraceEvent.REPORT_SENT, parent, wave);
+			return false;
+		}
+
+		//Vier-Zähler-Bedingung
+		if(totalSent == totalReceived && totalSent == lastSent && totalReceived == lastReceived){
+			return true;
+		}
+		lastSent = totalSent;
+		lastReceived = totalReceived;
+		nextWave(wave + 1);
+		return false;
+	}
+
+
+	@Override
+	public long getLaps() {
+		return laps;
+	}
+
+
+	/**
+	 * Beginnt eine Welle und gibt sie an die Kinder weiter
+	 * @param number der Welle
+	 */
+	private void nextWave(int number){
+		wave = number;
+		pending = true;
+		reports = 0;
+		sent = 0;
+		received = 0;
+		if(me == 0){
+			laps++;
+		}
+
+		for(int i=1; i<=children; i++){
+			int[] buffer = {wave, 0, 0};
+			progress.getTransport().isend(buffer, 2*me + i, Tag.WAVE);
+			progress.trace(TraceEvent.WAVE_SENT, 2*me + i, wave);
+		}
+	}
+
+}
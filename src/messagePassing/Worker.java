@@ -1,214 +1,374 @@
-package messagePassing;
-import mpi.MPI;
-import mpi.Status;
-import search.State;
-
-/**
- * Die Klasse Worker Empfngt oder Verteilt Arbeit und betreibt den TokenRing.
- * 
- * Die Kommunikation ist stets asynchron um Dead-Locks zu verhindern. 
- * Zudem wird immer mit iProbe geprft, ob berhaupt eine Nachrichtempfangen werden kann.
- * 
- * @author michael koch
- */
-public class Worker {
-
-	//aktueller Rank
-	private int me;
-	
-	//Jeder Prozessor besitzt eine Farbe
-	private int processorColor;
-	
-	//Der Prozessor hat einen WorkRequest versendet
-	private boolean sendWorkRequest;
-
-	/**
-	 * @param rank des Prozessors
-	 */
-	public Worker(int rank){
-		this.me = rank;
-		this.sendWorkRequest = true;
-		this.processorColor = TokenColor.WHITE;
-	}
-
-
-	///////////////////////////////////////////////////////////////////////////////////////////////////
-	// WORK SHARING
-	///////////////////////////////////////////////////////////////////////////////////////////////////
-
-	/**
-	 * Der Prozessor ist IDLE und versendet einen WORK-Request an einen zuflligen anderen Prozessor.
-	 */
-	public void sendWorkRequest(){
-
-		if(sendWorkRequest){
-			int[] buffer = new int[1];
-			int size = MPI.COMM_WORLD.Size();
-			int receiver = (int)(Math.random()*size); 
-
-			while(receiver == me){
-				receiver = (int)(Math.random()*size); 
-			}
-
-			MPI.COMM_WORLD.Isend(buffer, 0, buffer.length, MPI.INT, receiver, Tag.IDLE);
-
-			sendWorkRequest = false;
-		}
-	}
-
-
-	/**
-	 * Falls ein Prozessor gengend Arbeit besitzt, prft er periodisch, ob er einen WORK-Request beantworten kann.
-	 * Der Empfangene WORK-Request dient zur Ermittlung des IDLE-Prozessors.
-	 * 
-	 * @return gibt den IDLE-Prozessor zurck
-	 */
-	public int recvWorkRequest(){
-
-		int[] buffer = new int[1];
-		int receiver = -1;
-
-		Status status = MPI.COMM_WORLD.Iprobe(MPI.ANY_SOURCE, Tag.IDLE);
-
-		if (status != null){
-			MPI.COMM_WORLD.Recv(buffer, 0, buffer.length, MPI.INT, status.source, Tag.IDLE);
-			receiver = status.source;
-		}
-
-		return receiver;
-	}
-
-
-	/**
-	 * Der Prozessor splittet seinen Stack und versendet ihn an den receiver (IDLE-Prozessor). 
-	 * Er frbt sich schwarz, wenn der Empfangende Prozessor einen kleineren Rank hat. Weiss bei einem grsseren Rank.
-	 * @param aufgeteilter Stack wird an den receiver gesendet
-	 */
-	public void sendWork(State[] state, int receiver){
-
-		MPI.COMM_WORLD.Isend(state, 0, state.length, MPI.OBJECT, receiver, Tag.WORK);
-		if(me > receiver){
-			processorColor = TokenColor.BLACK;
-		}else{
-			processorColor = TokenColor.WHITE;
-		}
-	}
-
-
-	/**
-	 * Ein IDLE-Prozessor prft periodisch, ob er vom Prozessor (ermittelt aus der Methode sendWorkRequest()) arbeit empfangen kann.
-	 * @return Array mit den abzuarbeitenden States
-	 */
-	public State[] recvWork(){
-
-		Status status = MPI.COMM_WORLD.Iprobe(MPI.ANY_SOURCE, Tag.WORK);
-		
-		if (status != null){
-			State[] buffer = new State[status.count];
-			MPI.COMM_WORLD.Recv(buffer, 0, status.count, MPI.OBJECT, status.source, Tag.WORK);
-			
-			State[] states = buffer.clone();
-			sendWorkRequest = true;
-			return states;
-		}else{
-			return null;
-		}
-	}
-
-
-
-
-	///////////////////////////////////////////////////////////////////////////////////////////////////
-	// TOKEN RING
-	///////////////////////////////////////////////////////////////////////////////////////////////////
-
-	/*
-	Weisses Token -> nchster Deep
-	Schwarzes Token -> ein anderer Prozessor hat noch Arbeit
-	
-	Weisser Prozessor -> Prozessor und alle hinter ihm sind sauber. Sie knnen bei einem leeren Stack ein Weisses Token weitergeben.
-	Schwarzer Prozessor -> Prozessor hat Arbeit an einen Prozessor versendet, welcher einen kleineren Rank hat.
-	                       Gibt immer ein schwarzes Token weiter.
-	*/
-
-	/**
-	 * Der Root-Prozessor prft, die Farbe des empfangenden Tokens. 
-	 * Ist es weiss sind alle Prozessoren fertig bzw. IDLE und die Tiefe des IDA* kann erhht werden.
-	 * Ist es schwarz hat ein anderer Prozessor noch Arbeit und der TokenRing wird neu gestartet.
-	 * @param queueLength
-	 * @return
-	 */
-	public boolean recvWhiteToken(int queueLength){
-
-		Token[] buffer = new Token[1];
-		int lastProcessor = MPI.COMM_WORLD.Size()-1;
-
-		Status status = MPI.COMM_WORLD.Iprobe(lastProcessor, Tag.TOKEN);
-
-		if (status != null){
-			MPI.COMM_WORLD.Recv(buffer, 0, buffer.length, MPI.OBJECT, status.source, Tag.TOKEN);
-
-			Token token = buffer[0];
-
-			if(token.isWhite()){
-				return true;
-			}else{
-
-				if(queueLength == 0){
-					Worker.startToken(TokenColor.WHITE);
-				}else{
-					Worker.startToken(TokenColor.BLACK);
-				}
-			}
-		}
-
-		return false;
-	}
-
-	/**
-	 * Das Token wird eingefrbt und an den nchsten Prozessor weitergegeben.
-	 * Wenn der Prozessor Schwarz ist, wird das Token ebenfalls schwarz
-	 * @param queueLength
-	 */
-	public void passToken(int queueLength){
-
-		int size =  MPI.COMM_WORLD.Size();
-		Token[] buffer = new Token[1];
-
-		int previous = me-1;
-		int next = me+1;
-
-		if(next == size){
-			next = 0;
-		}
-
-		Status status = MPI.COMM_WORLD.Iprobe(previous, Tag.TOKEN);
-		if (status != null){
-			MPI.COMM_WORLD.Recv(buffer, 0, buffer.length, MPI.OBJECT, status.source, Tag.TOKEN);
-			Token token = buffer[0];
-
-			if(queueLength != 0){
-				token.setToBlack();
-			}
-
-			if(processorColor == TokenColor.BLACK){
-				token.setToBlack();
-				processorColor = TokenColor.WHITE;
-			}
-
-			MPI.COMM_WORLD.Isend(buffer, 0, buffer.length, MPI.OBJECT, next, Tag.TOKEN);
-		}
-	}
-
-	/**
-	 * Startet den TokenRing
-	 * @param color
-	 */
-	public static void startToken(int color){
-		Token[] buffer = new Token[1];
-		buffer[0] = new Token();
-		buffer[0].setToColor(color);
-		MPI.COMM_WORLD.Isend(buffer, 0, buffer.length, MPI.OBJECT, 1, Tag.TOKEN);
-	}
-
-}
+package messagePassing;
+import java.nio.ByteBuffer;
+import search.State;
+import search.StateCodec;
+
+/**
+ * Die Klasse Worker Empfängt oder Verteilt Arbeit und betreibt den TokenRing.
+ * 
+ * Die Kommunikation ist stets asynchron um Dead-Locks zu verhindern. 
+ * Empfangen wird über die ProgressEngine, der Worker liest nur die bereits empfangenen Nachrichten.
+ * 
+ * Gesendet wird über den Transport der ProgressEngine, mit einer EventTrace wird jede gesendete Nachricht aufgezeichnet.
+ * 
+ * Arbeit wird im binären Format des StateCodec als byte[] versendet. Der Sendebuffer
+ * wird über alle Suchtiefen wiederverwendet.
+ * 
+ * @author michael koch
+ */
+public class Worker {
+
+	//aktueller Rank
+	private int me;
+	
+	//Jeder Prozessor besitzt eine Farbe
+	private int processorColor;
+	
+	//Der Prozessor darf einen WorkRequest versenden (kein Request ist offen)
+	private boolean sendWorkRequest;
+
+	//Wahl des angefragten Prozessors
+	private VictimSelector selector;
+
+	//offener WorkRequest: angefragter Prozessor und Zeitpunkt
+	private int victim = -1;
+	private long requestTime;
+
+	//nach dieser Zeit in ms ohne Antwort wird ein neuer WorkRequest versendet, 0 = nie
+	private long timeout;
+
+	//Format der versendeten Arbeit
+	private StateCodec codec;
+
+	//empfangene Nachrichten
+	private ProgressEngine progress;
+
+	//Nachrichtenaustausch
+	private Transport transport;
+
+	//wiederverwendbarer Buffer
+	private ByteBuffer sendBuffer = ByteBuffer.allocate(1024);
+
+	//Anzahl gesendeter und empfangener WORK-Nachrichten der aktuellen Suchtiefe (siehe WaveTermination)
+	private int sentWork;
+	private int receivedWork;
+
+	//Zähler der aktuellen Suchtiefe: WORK-Requests, mit NOWORK beantwortete eigene Requests, versendete States und Bytes
+	private int workRequests;
+	private int noWork;
+	private long sentStates;
+	private long sentBytes;
+
+	//gestartete Umläufe des TokenRings seit dem Erzeugen
+	private long tokenLaps;
+
+	/**
+	 * @param rank des Prozessors
+	 * @param codec Format der versendeten Arbeit
+	 * @param progress empfängt die Nachrichten
+	 */
+	public Worker(int rank, StateCodec codec, ProgressEngine progress){
+		this(rank, codec, progress, new RandomVictim(rank, progress.getTransport().size()), 0);
+	}
+
+
+	/**
+	 * @param rank des Prozessors
+	 * @param codec Format der versendeten Arbeit
+	 * @param progress empfängt die Nachrichten
+	 * @param selector wählt den Prozessor, welcher nach Arbeit gefragt wird
+	 * @param timeout Zeit in ms bis zu einem neuen WorkRequest ohne Antwort, 0 = nie
+	 */
+	public Worker(int rank, StateCodec codec, ProgressEngine progress, VictimSelector selector, long timeout){
+		this.me = rank;
+		this.codec = codec;
+		this.progress = progress;
+		this.transport = progress.getTransport();
+		this.selector = selector;
+		this.timeout = timeout;
+		reset();
+	}
+
+
+	/**
+	 * Setzt Farbe und WorkRequest für eine neue Suchtiefe zurück
+	 */
+	public void reset(){
+		this.sendWorkRequest = true;
+		this.processorColor = TokenColor.WHITE;
+		this.sentWork = 0;
+		this.receivedWork = 0;
+		this.workRequests = 0;
+		this.noWork = 0;
+		this.sentStates = 0;
+		this.sentBytes = 0;
+	}
+
+
+	/**
+	 * @return Anzahl gesendeter WORK-Nachrichten seit reset()
+	 */
+	public int getSentWork(){
+		return sentWork;
+	}
+
+
+	/**
+	 * @return Anzahl empfangener WORK-Nachrichten seit reset()
+	 */
+	public int getReceivedWork(){
+		return receivedWork;
+	}
+
+
+	/**
+	 * @return Anzahl versendeter WORK-Requests seit reset()
+	 */
+	public int getWorkRequests(){
+		return workRequests;
+	}
+
+
+	/**
+	 * @return Anzahl eigener WORK-Requests mit NOWORK als Antwort seit reset()
+	 */
+	public int getNoWork(){
+		return noWork;
+	}
+
+
+	/**
+	 * @return Anzahl versendeter States seit reset()
+	 */
+	public long getSentStates(){
+		return sentStates;
+	}
+
+
+	/**
+	 * @return Anzahl versendeter Bytes der Arbeit seit reset()
+	 */
+	public long getSentBytes(){
+		return sentBytes;
+	}
+
+
+	/**
+	 * @return Anzahl gestarteter Umläufe des TokenRings seit dem Erzeugen (nur Root-Prozessor)
+	 */
+	public long getTokenLaps(){
+		return tokenLaps;
+	}
+
+
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+	// WORK SHARING
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Der Prozessor ist IDLE und versendet einen WORK-Request an den vom VictimSelector gewählten Prozessor.
+	 * Ein neuer Request wird erst nach einer Antwort (Arbeit oder NOWORK) oder nach dem Timeout versendet.
+	 * Der Request enthält die bisherige Wartezeit, der angefragte Prozessor passt damit seine SplitPolicy an.
+	 * @param wait Wartezeit in ms seit der Prozessor IDLE ist
+	 */
+	public void sendWorkRequest(long wait){
+
+		if(!sendWorkRequest && timeout > 0 && System.currentTimeMillis() - requestTime > timeout){
+			sendWorkRequest = true;
+		}
+
+		if(sendWorkRequest){
+			int[] buffer = {(int) Math.min(wait, Integer.MAX_VALUE)};
+			victim = selector.next();
+
+			transport.isend(buffer, victim, Tag.IDLE);
+			workRequests++;
+			progress.trace(TraceEvent.REQUEST_SENT, victim, buffer[0]);
+
+			requestTime = System.currentTimeMillis();
+			sendWorkRequest = false;
+		}
+	}
+
+
+	/**
+	 * Der Prozessor kann einen WORK-Request nicht beantworten. Der IDLE-Prozessor fragt sofort einen anderen an.
+	 * @param receiver IDLE-Prozessor
+	 * @param load teilbare Arbeit dieses Prozessors (0, sonst würde er teilen)
+	 */
+	public void sendNoWork(int receiver, int load){
+		int[] buffer = {load};
+		transport.isend(buffer, receiver, Tag.NOWORK);
+		progress.trace(TraceEvent.NOWORK_SENT, receiver, load);
+	}
+
+
+	/**
+	 * Falls ein Prozessor genügend Arbeit besitzt, prüft er periodisch, ob er einen WORK-Request beantworten kann.
+	 * Der Empfangene WORK-Request dient zur Ermittlung des IDLE-Prozessors.
+	 * 
+	 * @return gibt den IDLE-Prozessor zurück
+	 */
+	public int recvWorkRequest(){
+		return progress.takeWorkRequest();
+	}
+
+
+	/**
+	 * @return Wartezeit in ms des zuletzt mit recvWorkRequest() gelesenen IDLE-Prozessors
+	 */
+	public int getRequestWait(){
+		return progress.getWorkRequestWait();
+	}
+
+
+	/**
+	 * Der Prozessor splittet seinen Stack und versendet ihn an den receiver (IDLE-Prozessor). 
+	 * Er färbt sich schwarz, wenn der Empfangende Prozessor einen kleineren Rank hat. Weiss bei einem grösseren Rank.
+	 * @param aufgeteilter Stack wird an den receiver gesendet
+	 */
+	public void sendWork(State[] state, int receiver){
+
+		//letztes Isend der Arbeit, der sendBuffer ist erst danach wieder frei
+		transport.waitSend();
+
+		int size = codec.size(state);
+		if(sendBuffer.capacity() < size){
+			sendBuffer = ByteBuffer.allocate(Math.max(size, 2*sendBuffer.capacity()));
+		}
+		sendBuffer.clear();
+		codec.encode(state, sendBuffer);
+
+		transport.isend(sendBuffer.array(), sendBuffer.position(), receiver, Tag.WORK);
+		sentWork++;
+		sentStates += state.length;
+		sentBytes += sendBuffer.position();
+		progress.trace(TraceEvent.WORK_SENT, receiver, state.length);
+		if(me > receiver){
+			processorColor = TokenColor.BLACK;
+		}else{
+			processorColor = TokenColor.WHITE;
+		}
+	}
+
+
+	/**
+	 * Ein IDLE-Prozessor prüft periodisch, ob er vom Prozessor (ermittelt aus der Methode sendWorkRequest()) arbeit empfangen kann.
+	 * @return Array mit den abzuarbeitenden States
+	 */
+	public State[] recvWork(){
+
+		//NOWORK des angefragten Prozessors -> der nächste Request darf versendet werden
+		int[] reply = progress.takeNoWork();
+		while(reply != null){
+			selector.noWork(reply[0], reply[1]);
+			noWork++;
+			if(reply[0] == victim){
+				sendWorkRequest = true;
+			}
+			reply = progress.takeNoWork();
+		}
+
+		State[] states = progress.takeWork();
+		if (states != null){
+			selector.work(progress.getWorkSource(), states.length);
+			sendWorkRequest = true;
+			receivedWork++;
+		}
+		return states;
+	}
+
+
+
+
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+	// TOKEN RING
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/*
+	Weisses Token -> nächster Deep
+	Schwarzes Token -> ein anderer Prozessor hat noch Arbeit
+	
+	Weisser Prozessor -> Prozessor und alle hinter ihm sind sauber. Sie können bei einem leeren Stack ein Weisses Token weitergeben.
+	Schwarzer Prozessor -> Prozessor hat Arbeit an einen Prozessor versendet, welcher einen kleineren Rank hat.
+	                       Gibt immer ein schwarzes Token weiter.
+	*/
+
+	/**
+	 * Der Root-Prozessor prüft, die Farbe des empfangenden Tokens. 
+	 * Ist es weiss sind alle Prozessoren fertig bzw. IDLE und die Tiefe des IDA* kann erhöht werden.
+	 * Ist es schwarz hat ein anderer Prozessor noch Arbeit und der TokenRing wird neu gestartet.
+	 * @param queueLength
+	 * @return
+	 */
+	public boolean recvWhiteToken(int queueLength){
+
+		//das Token kommt vom letzten Prozessor
+		Token token = progress.takeToken();
+
+		if (token != null){
+
+			if(token.isWhite()){
+				return true;
+			}else{
+
+				if(queueLength == 0){
+					startToken(TokenColor.WHITE);
+				}else{
+					startToken(TokenColor.BLACK);
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Das Token wird eingefärbt und an den nächsten Prozessor weitergegeben.
+	 * Wenn der Prozessor Schwarz ist, wird das Token ebenfalls schwarz
+	 * @param queueLength
+	 */
+	public void passToken(int queueLength){
+
+		int size = transport.size();
+		Token[] buffer = new Token[1];
+
+		int next = me+1;
+
+		if(next == size){
+			next = 0;
+		}
+
+		//das Token kommt vom vorherigen Prozessor
+		Token token = progress.takeToken();
+		if (token != null){
+			buffer[0] = token;
+
+			if(queueLength != 0){
+				token.setToBlack();
+			}
+
+			if(processorColor == TokenColor.BLACK){
+				token.setToBlack();
+				processorColor = TokenColor.WHITE;
+			}
+
+			transport.isend(buffer, next, Tag.TOKEN);
+			progress.trace(TraceEvent.TOKEN_SENT, next, token.isWhite() ? TokenColor.WHITE : TokenColor.BLACK);
+		}
+	}
+
+	/**
+	 * Startet den TokenRing
+	 * @param color
+	 */
+	public void startToken(int color){
+		Token[] buffer = new Token[1];
+		buffer[0] = new Token();
+		buffer[0].setToColor(color);
+		tokenLaps++;
+		transport.isend(buffer, 1, Tag.TOKEN);
+		progress.trace(TraceEvent.TOKEN_SENT, 1, color);
+	}
+
+}
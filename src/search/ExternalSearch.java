@@ -0,0 +1,541 @@
+package search;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vollständige Breitensuche vom Ziel über alle Puzzles einer Grösse mit den Schichten auf der Festplatte,
+ * für Statistiken über die Schwierigkeit von Instanzen (Anzahl Puzzles pro Distanz, God's Number).
+ *
+ * Jede Schicht (alle Puzzles mit derselben Distanz zum Ziel) ist nach dem Hash des gepackten Puzzles auf
+ * mehrere Buckets verteilt, jeder Bucket ist eine sortierte, komprimierte Datei (LayerWriter/LayerReader, NIO).
+ * Pro Schicht:
+ * 1. Expandieren: die Threads lesen die Buckets der Schicht und erzeugen die Childs mit der MoveTable wie State.
+ *    Jeder Thread sammelt die Childs pro Ziel-Bucket in einem Buffer, ein voller Buffer wird sortiert
+ *    und als Run geschrieben.
+ * 2. Mischen: pro Bucket werden alle Runs gemischt (externer Merge-Sort), Duplikate entfernt und die Puzzles
+ *    der vorherigen Schicht abgezogen. Der Graph ist bipartit (das Blank wechselt bei jeder Bewegung die Farbe
+ *    eines Schachbretts), ein Child liegt deshalb nie in der eigenen Schicht, es genügt die vorherige.
+ * Im Speicher sind nur die Buffer, auf der Festplatte höchstens drei Schichten und die Runs.
+ *
+ * Mit -pattern werden die Zahlen ausserhalb des Patterns nicht unterschieden (alle gleich), so können auch
+ * Teile grosser Puzzles (z.B. 4x4 mit 7 Zahlen) vollständig durchsucht werden. Das Puzzle muss gepackt in einen
+ * long passen (bis 16 Felder).
+ *
+ * Aufruf: ExternalSearch row col verzeichnis [-threads n] [-memory mb] [-buckets n] [-pattern 1,2,3,...]
+ *
+ * @author michael koch
+ */
+
+public class ExternalSearch {
+
+	//Buffer pro geöffneter Datei in Bytes
+	private static final int BUFFER = 1 << 16;
+
+	private static final Comparator<LayerReader> BY_VALUE = new Comparator<LayerReader>(){
+		public int compare(LayerReader a, LayerReader b){
+			return Long.compare(a.value(), b.value());
+		}
+	};
+
+	private final int length;
+	private final int threads;
+	private final int buckets;
+	private final long memory;
+	private final File directory;
+	private final MoveTable moveTable;
+	private final ExecutorService executor;
+
+	//Zahl pro Zahl des Puzzles: die eigene im Pattern, sonst die gemeinsame für alle anderen Zahlen
+	private final int[] label;
+
+	//Childs pro Thread und Ziel-Bucket
+	private final long[][][] runBuffers;
+	private final int[][] runFill;
+
+	//Runs pro Bucket der nächsten Schicht
+	private final List<List<Path>> runs;
+
+	private final AtomicLong bytesRead = new AtomicLong();
+	private final AtomicLong bytesWritten = new AtomicLong();
+	private final AtomicLong peakDirect = new AtomicLong();
+
+	public static void main(String[] args) throws Exception {
+
+		if(args.length < 3){
+			System.out.println("usage: ExternalSearch row col directory [-threads n] [-memory mb] [-buckets n] [-pattern 1,2,3,...]");
+			return;
+		}
+
+		int row = Integer.parseInt(args[0]);
+		int col = Integer.parseInt(args[1]);
+		File directory = new File(args[2]);
+		int threads = Runtime.getRuntime().availableProcessors();
+		long memory = Runtime.getRuntime().maxMemory() / 4;
+		int buckets = 64;
+		int[] pattern = null;
+
+		for(int i=3; i<args.length-1; i+=2){
+			switch(args[i]){
+				case "-threads":
+					threads = Integer.parseInt(args[i+1]);
+					break;
+				case "-memory":
+					memory = Long.parseLong(args[i+1]) << 20;
+					break;
+				case "-buckets":
+					buckets = Integer.parseInt(args[i+1]);
+					break;
+				case "-pattern":
+					String[] tiles = args[i+1].split(",");
+					pattern = new int[tiles.length];
+					for(int t=0; t<tiles.length; t++){
+						pattern[t] = Integer.parseInt(tiles[t].trim());
+					}
+					break;
+				default:
+					System.out.println("unknown option: " + args[i]);
+					return;
+			}
+		}
+
+		directory.mkdirs();
+		ExternalSearch search = new ExternalSearch(row, col, pattern, directory, threads, buckets, memory);
+		try{
+			search.run();
+		}finally{
+			search.shutdown();
+		}
+	}
+
+	/**
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 * @param pattern unterschiedene Zahlen, null = alle
+	 * @param directory Verzeichnis für die Schichten und Runs
+	 * @param threads Anzahl Threads
+	 * @param buckets Anzahl Buckets pro Schicht
+	 * @param memory Speicher für die Run-Buffer in Bytes
+	 */
+	public ExternalSearch(int row, int col, int[] pattern, File directory, int threads, int buckets, long memory){
+		this.length = row*col;
+		if(!PackedBoard.fits(length)){
+			throw new IllegalArgumentException("puzzle has more than " + PackedBoard.MAX_PACKED_LENGTH + " fields");
+		}
+		if(threads < 1 || buckets < 1){
+			throw new IllegalArgumentException("threads and buckets must be positive");
+		}
+
+		this.threads = threads;
+		this.buckets = buckets;
+		this.memory = memory;
+		this.directory = directory;
+		this.moveTable = new MoveTable(row, col);
+		this.executor = Executors.newFixedThreadPool(threads);
+		this.label = labels(pattern, length);
+
+		long size = memory / 8 / threads / buckets;
+		if(size < 1024){
+			throw new IllegalArgumentException("not enough memory for " + threads + " threads and " + buckets + " buckets");
+		}
+		this.runBuffers = new long[threads][buckets][(int) Math.min(size, Integer.MAX_VALUE - 8)];
+		this.runFill = new int[threads][buckets];
+
+		this.runs = new ArrayList<List<Path>>();
+		for(int b=0; b<buckets; b++){
+			runs.add(new ArrayList<Path>());
+		}
+	}
+
+	/**
+	 * @param pattern unterschiedene Zahlen, null = alle
+	 * @param length Anzahl Felder
+	 * @return Zahl pro Zahl des Puzzles, die Zahlen ausserhalb des Patterns erhalten die kleinste davon
+	 */
+	private static int[] labels(int[] pattern, int length){
+		int[] label = new int[length];
+		for(int n=0; n<length; n++){
+			label[n] = n;
+		}
+		if(pattern == null){
+			return label;
+		}
+
+		boolean[] inPattern = new boolean[length];
+		for(int n : pattern){
+			if(n < 1 || n >= length){
+				throw new IllegalArgumentException("pattern tile out of range: " + n);
+			}
+			inPattern[n] = true;
+		}
+
+		int other = 0;
+		for(int n=1; n<length; n++){
+			if(!inPattern[n]){
+				if(other == 0){
+					other = n;
+				}
+				label[n] = other;
+			}
+		}
+		return label;
+	}
+
+	public void shutdown(){
+		executor.shutdown();
+	}
+
+
+	/**
+	 * Führt die Breitensuche aus und gibt die Statistik aus
+	 * @throws Exception
+	 */
+	public void run() throws Exception {
+		long startTime = System.currentTimeMillis();
+
+		//Ziel: Zahlen der Reihe nach, Blank unten rechts
+		int[] target = new int[length];
+		for(int i=0; i<length-1; i++){
+			target[i] = label[i+1];
+		}
+		long goal = PackedBoard.pack(target);
+
+		for(int b=0; b<buckets; b++){
+			try(LayerWriter writer = new LayerWriter(layer(0, b), BUFFER)){
+				if(b == bucket(goal)){
+					writer.write(goal);
+				}
+			}
+		}
+
+		List<Long> counts = new ArrayList<Long>();
+		counts.add(1L);
+		long total = 1;
+		int depth = 0;
+
+		while(true){
+			long levelTime = System.currentTimeMillis();
+			long io = bytesRead.get() + bytesWritten.get();
+
+			long generated = expand(depth);
+			long states = merge(depth);
+
+			if(depth > 0){
+				deleteLayer(depth - 1);
+			}
+
+			levelTime = System.currentTimeMillis() - levelTime;
+			io = bytesRead.get() + bytesWritten.get() - io;
+			if(states == 0){
+				break;
+			}
+
+			depth++;
+			counts.add(states);
+			total += states;
+			System.out.println("depth " + depth + ": " + states + " states (" + generated + " generated, "
+					+ megabytes(layerBytes(depth)) + " MB, " + levelTime + "ms, " + throughput(io, levelTime) + " MB/s)");
+		}
+
+		long[] antipode = first(depth);
+		deleteLayer(depth);
+		deleteLayer(depth + 1);
+
+		long elapsedTime = System.currentTimeMillis() - startTime;
+		long io = bytesRead.get() + bytesWritten.get();
+
+		System.out.println();
+		System.out.println("distance;states");
+		for(int d=0; d<counts.size(); d++){
+			System.out.println(d + ";" + counts.get(d));
+		}
+		System.out.println();
+		System.out.println("states: " + total);
+		System.out.println("god's number: " + depth + " (e.g. " + Arrays.toString(PackedBoard.unpack(antipode[0], length))
+				+ ", " + antipode[1] + " states at this distance)");
+		System.out.println("elapsed time: " + elapsedTime + "ms");
+		System.out.println("io: " + megabytes(bytesRead.get()) + " MB read, " + megabytes(bytesWritten.get()) + " MB written, "
+				+ throughput(io, elapsedTime) + " MB/s");
+		System.out.println("peak memory: " + megabytes(peakHeap()) + " MB heap, " + megabytes(peakDirect.get()) + " MB direct buffers");
+	}
+
+
+	/**
+	 * Expandiert alle Puzzles der Schicht in Runs pro Bucket der nächsten Schicht
+	 * @param depth aktuelle Schicht
+	 * @return Anzahl erzeugter Childs
+	 */
+	private long expand(final int depth) throws Exception {
+		final AtomicLong generated = new AtomicLong();
+
+		parallel(new Block(){
+			public void run(int thread, int bucket) throws IOException {
+				long n = 0;
+				try(LayerReader reader = new LayerReader(layer(depth, bucket), BUFFER)){
+					while(reader.next()){
+						long board = reader.value();
+						int blank = blank(board);
+
+						for(int i=moveTable.first(blank); i<moveTable.end(blank); i++){
+							long child = PackedBoard.move(board, blank, moveTable.target(i));
+							int b = bucket(child);
+							long[] buffer = runBuffers[thread][b];
+							buffer[runFill[thread][b]++] = child;
+							if(runFill[thread][b] == buffer.length){
+								flush(thread, b);
+							}
+							n++;
+						}
+					}
+					bytesRead.addAndGet(reader.getBytes());
+				}
+				generated.addAndGet(n);
+			}
+		});
+
+		//die restlichen Childs jedes Threads
+		parallel(new Block(){
+			public void run(int thread, int bucket) throws IOException {
+				for(int t=0; t<threads; t++){
+					if(runFill[t][bucket] > 0){
+						flush(t, bucket);
+					}
+				}
+			}
+		});
+		return generated.get();
+	}
+
+
+	/**
+	 * Sortiert den Buffer eines Threads und schreibt ihn als Run
+	 */
+	private void flush(int thread, int bucket) throws IOException {
+		long[] buffer = runBuffers[thread][bucket];
+		int n = runFill[thread][bucket];
+		Arrays.sort(buffer, 0, n);
+
+		List<Path> bucketRuns = runs.get(bucket);
+		Path file;
+		synchronized(bucketRuns){
+			file = new File(directory, "run-" + bucket + "-" + bucketRuns.size() + ".bin").toPath();
+			bucketRuns.add(file);
+		}
+
+		LayerWriter writer = new LayerWriter(file, BUFFER);
+		try{
+			writer.write(buffer, n);
+		}finally{
+			writer.close();
+		}
+		bytesWritten.addAndGet(writer.getBytes());
+		runFill[thread][bucket] = 0;
+	}
+
+
+	/**
+	 * Mischt die Runs jedes Buckets zur nächsten Schicht
+	 * @param depth aktuelle Schicht
+	 * @return Anzahl Puzzles der nächsten Schicht
+	 */
+	private long merge(final int depth) throws Exception {
+		final AtomicLong states = new AtomicLong();
+
+		parallel(new Block(){
+			public void run(int thread, int bucket) throws IOException {
+				List<Path> bucketRuns = runs.get(bucket);
+				int bufferSize = (int) Math.max(4096, Math.min(BUFFER, memory / threads / (bucketRuns.size() + 2)));
+
+				PriorityQueue<LayerReader> queue = new PriorityQueue<LayerReader>(Math.max(1, bucketRuns.size()), BY_VALUE);
+				List<LayerReader> readers = new ArrayList<LayerReader>();
+				LayerReader previous = null;
+				try{
+					for(Path run : bucketRuns){
+						LayerReader reader = new LayerReader(run, bufferSize);
+						readers.add(reader);
+						if(reader.next()){
+							queue.add(reader);
+						}
+					}
+					if(depth > 0){
+						previous = new LayerReader(layer(depth - 1, bucket), bufferSize);
+						readers.add(previous);
+					}
+					sampleDirect();
+
+					//vorherige Schicht: nächstes Puzzle, welches nicht kleiner als das aktuelle Child ist
+					boolean hasPrevious = previous != null && previous.next();
+
+					LayerWriter writer = new LayerWriter(layer(depth + 1, bucket), BUFFER);
+					try{
+						while(!queue.isEmpty()){
+							LayerReader reader = queue.poll();
+							long board = reader.value();
+							if(reader.next()){
+								queue.add(reader);
+							}
+
+							while(hasPrevious && previous.value() < board){
+								hasPrevious = previous.next();
+							}
+							if(!hasPrevious || previous.value() != board){
+								writer.write(board);
+							}
+						}
+					}finally{
+						writer.close();
+					}
+					bytesWritten.addAndGet(writer.getBytes());
+					states.addAndGet(writer.getCount());
+				}finally{
+					for(LayerReader reader : readers){
+						bytesRead.addAndGet(reader.getBytes());
+						reader.close();
+					}
+				}
+
+				for(Path run : bucketRuns){
+					Files.delete(run);
+				}
+				bucketRuns.clear();
+			}
+		});
+		return states.get();
+	}
+
+
+	/**
+	 * @param depth Schicht
+	 * @return erstes Puzzle der Schicht und Anzahl Puzzles (für die Ausgabe)
+	 */
+	private long[] first(int depth) throws IOException {
+		long[] result = {0, 0};
+		for(int b=0; b<buckets; b++){
+			try(LayerReader reader = new LayerReader(layer(depth, b), BUFFER)){
+				while(reader.next()){
+					if(result[1] == 0){
+						result[0] = reader.value();
+					}
+					result[1]++;
+				}
+			}
+		}
+		return result;
+	}
+
+
+	/**
+	 * Führt block.run für jeden Bucket aus, ein Thread bearbeitet die Buckets bucket % threads == thread
+	 */
+	private void parallel(final Block block) throws Exception {
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+
+		for(int t=0; t<threads; t++){
+			final int thread = t;
+			tasks.add(new Callable<Object>(){
+				public Object call() throws IOException {
+					for(int b=thread; b<buckets; b+=threads){
+						block.run(thread, b);
+					}
+					return null;
+				}
+			});
+		}
+
+		for(Future<Object> future : executor.invokeAll(tasks)){
+			future.get();
+		}
+	}
+
+	private interface Block {
+		void run(int thread, int bucket) throws IOException;
+	}
+
+
+	private Path layer(int depth, int bucket){
+		return new File(directory, "layer-" + depth + "-" + bucket + ".bin").toPath();
+	}
+
+	private long layerBytes(int depth) throws IOException {
+		long bytes = 0;
+		for(int b=0; b<buckets; b++){
+			bytes += Files.size(layer(depth, b));
+		}
+		return bytes;
+	}
+
+	private void deleteLayer(int depth) throws IOException {
+		for(int b=0; b<buckets; b++){
+			Files.deleteIfExists(layer(depth, b));
+		}
+	}
+
+
+	/**
+	 * @param board gepacktes Puzzle
+	 * @return Bucket aus dem Hash des Puzzles
+	 */
+	private int bucket(long board){
+		long hash = board * 0x9E3779B97F4A7C15L;
+		return (int) ((hash >>> 32) % buckets);
+	}
+
+	private int blank(long board){
+		for(int pos=0; pos<length; pos++){
+			if(PackedBoard.get(board, pos) == 0){
+				return pos;
+			}
+		}
+		throw new IllegalStateException("board without blank");
+	}
+
+
+	private void sampleDirect(){
+		for(BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)){
+			if(pool.getName().equals("direct")){
+				long used = pool.getMemoryUsed();
+				long peak;
+				while(used > (peak = peakDirect.get()) && !peakDirect.compareAndSet(peak, used)){
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return Summe der Spitzen aller Heap-Bereiche (obere Schranke der Heap-Spitze)
+	 */
+	private static long peakHeap(){
+		long peak = 0;
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()){
+			if(pool.getType() == MemoryType.HEAP){
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+
+	private static String megabytes(long bytes){
+		return String.format("%.1f", bytes / 1048576.0);
+	}
+
+	private static String throughput(long bytes, long ms){
+		return String.format("%.1f", ms == 0 ? 0.0 : bytes / 1048576.0 / (ms / 1000.0));
+	}
+
+}
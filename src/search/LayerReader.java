@@ -0,0 +1,101 @@
+package search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Liest die von LayerWriter geschriebenen Puzzles in aufsteigender Reihenfolge.
+ *
+ * Verwendung: while(reader.next()){ long board = reader.value(); ... }
+ *
+ * @author michael koch
+ */
+
+public class LayerReader implements AutoCloseable {
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+
+	private boolean end;
+	private long value;
+	private long bytes;
+
+	/**
+	 * @param file Datei von LayerWriter
+	 * @param bufferSize Grösse des Buffers in Bytes
+	 * @throws IOException
+	 */
+	public LayerReader(Path file, int bufferSize) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		this.buffer = ByteBuffer.allocate(Math.max(bufferSize, 16));
+		this.buffer.flip();
+	}
+
+
+	/**
+	 * Liest das nächste Puzzle
+	 * @return false am Ende der Datei
+	 * @throws IOException
+	 */
+	public boolean next() throws IOException {
+		//ein Varint hat höchstens 10 Bytes, vorher nachladen, damit er nicht geteilt wird
+		if(buffer.remaining() < 10 && !end){
+			fill();
+		}
+		if(!buffer.hasRemaining()){
+			return false;
+		}
+
+		long delta = 0;
+		int shift = 0;
+		byte b;
+		do{
+			b = buffer.get();
+			delta |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		}while(b < 0);
+
+		value += delta;
+		return true;
+	}
+
+
+	private void fill() throws IOException {
+		buffer.compact();
+		while(buffer.hasRemaining()){
+			int n = channel.read(buffer);
+			if(n == -1){
+				end = true;
+				break;
+			}
+			bytes += n;
+		}
+		buffer.flip();
+	}
+
+
+	/**
+	 * @return zuletzt mit next() gelesenes Puzzle
+	 */
+	public long value(){
+		return value;
+	}
+
+
+	/**
+	 * @return Anzahl gelesener Bytes
+	 */
+	public long getBytes(){
+		return bytes;
+	}
+
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+}
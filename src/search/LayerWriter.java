@@ -0,0 +1,116 @@
+package search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Schreibt aufsteigend sortierte gepackte Puzzles komprimiert in eine Datei (siehe LayerReader).
+ *
+ * Gespeichert wird nur die Differenz zum vorherigen Puzzle als Varint (7 Bit pro Byte, das oberste Bit
+ * zeigt ein weiteres Byte an). Benachbarte Puzzles einer sortierten Schicht unterscheiden sich meist nur in
+ * den unteren Feldern, ein Puzzle braucht so wenige Bytes statt 8. Gleiche Puzzles hintereinander werden
+ * nur einmal geschrieben. Sortiert wird wie Arrays.sort (mit Vorzeichen), die Differenz wird ohne Vorzeichen
+ * geschrieben und ist deshalb immer gültig.
+ *
+ * @author michael koch
+ */
+
+public class LayerWriter implements AutoCloseable {
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+
+	private long previous;
+	private long count;
+	private long bytes;
+
+	/**
+	 * @param file Zieldatei, wird überschrieben
+	 * @param bufferSize Grösse des Buffers in Bytes
+	 * @throws IOException
+	 */
+	public LayerWriter(Path file, int bufferSize) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		this.buffer = ByteBuffer.allocate(Math.max(bufferSize, 16));
+	}
+
+
+	/**
+	 * Schreibt ein Puzzle, muss grösser oder gleich dem vorherigen sein
+	 * @param board gepacktes Puzzle
+	 * @return false, wenn es gleich dem vorherigen ist und nicht geschrieben wurde
+	 * @throws IOException
+	 */
+	public boolean write(long board) throws IOException {
+		if(count > 0 && board == previous){
+			return false;
+		}
+		if(buffer.remaining() < 10){
+			flush();
+		}
+
+		long delta = board - previous;
+		while((delta & ~0x7FL) != 0){
+			buffer.put((byte) ((delta & 0x7F) | 0x80));
+			delta >>>= 7;
+		}
+		buffer.put((byte) delta);
+
+		previous = board;
+		count++;
+		return true;
+	}
+
+
+	/**
+	 * Schreibt alle Puzzles aus einem sortierten Array
+	 * @param boards
+	 * @param n Anzahl Puzzles ab Index 0
+	 * @throws IOException
+	 */
+	public void write(long[] boards, int n) throws IOException {
+		for(int i=0; i<n; i++){
+			write(boards[i]);
+		}
+	}
+
+
+	private void flush() throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining()){
+			bytes += channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+
+	/**
+	 * @return Anzahl geschriebener (verschiedener) Puzzles
+	 */
+	public long getCount(){
+		return count;
+	}
+
+
+	/**
+	 * @return Anzahl geschriebener Bytes, vollständig erst nach close()
+	 */
+	public long getBytes(){
+		return bytes;
+	}
+
+
+	@Override
+	public void close() throws IOException {
+		try{
+			flush();
+		}finally{
+			channel.close();
+		}
+	}
+
+}
@@ -0,0 +1,43 @@
+package search;
+
+/**
+ * Bewegungen des Blanks
+ *
+ * Die Codes sind so gewählt, dass die Gegenrichtung mit (move ^ 1) bestimmt werden kann.
+ *
+ * @author michael koch
+ *
+ */
+
+public class Move {
+
+	// Keine Bewegung (Root-State)
+	public static final byte NONE = -1;
+
+	public static final byte UP = 0;
+	public static final byte DOWN = 1;
+	public static final byte LEFT = 2;
+	public static final byte RIGHT = 3;
+
+	// Bezeichnung der Bewegung für die Solution
+	private static final String[] NAMES = {"up", "down", "left", "right"};
+
+	/**
+	 * Gegenrichtung einer Bewegung
+	 * @param move
+	 * @return Bewegung, welche move rückgängig macht
+	 */
+	public static int opposite(int move){
+		return move ^ 1;
+	}
+
+	/**
+	 * Bezeichnung einer Bewegung
+	 * @param move
+	 * @return z.B. "up"
+	 */
+	public static String getName(int move){
+		return NAMES[move];
+	}
+
+}
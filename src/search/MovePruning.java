@@ -0,0 +1,343 @@
+package search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Endlicher Automat, welcher redundante Bewegungsfolgen bereits beim Expandieren verhindert.
+ *
+ * Beim Erzeugen werden alle Folgen bis maxLength Bewegungen mit einer Breitensuche aufgezählt (nach Länge,
+ * dann in der Reihenfolge der Move-Codes) und ihre Wirkung auf ein unbegrenztes Puzzle berechnet. Hat eine Folge
+ * dieselbe Wirkung wie eine frühere, kürzere oder gleich lange Folge, ist sie verboten. Dazu muss die Blank-Bahn der
+ * früheren Folge innerhalb der Blank-Bahn der verbotenen liegen, damit sie überall dort möglich ist, wo die verbotene
+ * möglich ist. Verboten werden so z.B. das Zurückschieben des Blanks (Länge 2) und Kreise um einen 2x2 Block (Länge 12).
+ *
+ * Der kürzeste, in dieser Ordnung kleinste Lösungspfad enthält keine verbotene Folge, die optimale Lösung bleibt erhalten.
+ *
+ * Die verbotenen Folgen bilden einen Aho-Corasick-Automaten: next(state, move) liefert den Folgezustand oder -1,
+ * wenn die Bewegung eine verbotene Folge abschliesst. Der Root-State beginnt im Zustand 0. Pro State wird nur
+ * der Zustand gespeichert (StateCodec: 2 Bytes, höchstens 65536 Zustände).
+ *
+ * Derselbe Puzzle-Zustand hat je nach Automatenzustand andere erlaubte Fortsetzungen. Eine Transpositionstabelle
+ * verwendet deshalb hash(zobrist, state) als Schlüssel.
+ *
+ * @author michael koch
+ */
+
+public class MovePruning {
+
+	// Standardlänge der untersuchten Folgen, findet die Kreise um einen 2x2 Block
+	public static final int DEFAULT_LENGTH = 12;
+
+	private static final int[] DX = {0, 0, -1, 1};
+	private static final int[] DY = {-1, 1, 0, 0};
+
+	// bereits erzeugte Automaten pro Puzzle-Grösse und Länge
+	private static final HashMap<String, MovePruning> AUTOMATA = new HashMap<String, MovePruning>();
+
+	//Folgezustand pro Zustand und Bewegung, -1 = verboten
+	private final int[] transitions;
+
+	/**
+	 * Automat für eine Puzzle-Grösse und Länge, wird beim ersten Aufruf erzeugt. Der Automat wird nicht verändert,
+	 * alle Solver und Ranks einer JVM verwenden denselben.
+	 *
+	 * @param row
+	 * @param col
+	 * @param maxLength Länge der längsten untersuchten Folge
+	 * @return Automat
+	 */
+	public static MovePruning get(int row, int col, int maxLength){
+		String key = row + "x" + col + ":" + maxLength;
+		synchronized(AUTOMATA){
+			MovePruning pruning = AUTOMATA.get(key);
+			if(pruning == null){
+				pruning = new MovePruning(row, col, maxLength);
+				AUTOMATA.put(key, pruning);
+			}
+			return pruning;
+		}
+	}
+
+	/**
+	 * Erzeugt den Automaten für ein Puzzle mit row Zeilen und col Spalten
+	 * @param row
+	 * @param col
+	 * @param maxLength Länge der längsten untersuchten Folge
+	 */
+	public MovePruning(int row, int col, int maxLength){
+		this.transitions = automaton(forbidden(row, col, maxLength));
+		if(size() > 65536){
+			throw new IllegalArgumentException("move pruning automaton too large: " + size() + " states");
+		}
+	}
+
+
+	/**
+	 * @param state aktueller Zustand
+	 * @param move Bewegung des Blanks (siehe Move)
+	 * @return Folgezustand oder -1, wenn die Bewegung verboten ist
+	 */
+	public int next(int state, int move){
+		return transitions[state*4 + move];
+	}
+
+
+	/**
+	 * Schlüssel für die Transpositionstabelle
+	 * @param hash Zobrist-Hash des Puzzles
+	 * @param state Zustand des Automaten
+	 * @return hash, wenn state 0 ist
+	 */
+	public static long hash(long hash, int state){
+		return hash ^ state * 0x9E3779B97F4A7C15L;
+	}
+
+
+	/**
+	 * @return Anzahl Zustände des Automaten
+	 */
+	public int size(){
+		return transitions.length / 4;
+	}
+
+
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+	// VERBOTENE FOLGEN
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Zählt die Folgen nach Länge auf und sammelt die verbotenen
+	 * @return verbotene Folgen, eine Bewegung pro Byte
+	 */
+	private static ArrayList<byte[]> forbidden(int row, int col, int maxLength){
+
+		ArrayList<byte[]> forbidden = new ArrayList<byte[]>();
+		HashSet<Long> forbiddenCodes = new HashSet<Long>();
+
+		//Wirkung -> erste Folge mit dieser Wirkung
+		HashMap<Long, byte[]> effects = new HashMap<Long, byte[]>();
+		effects.put(0L, new byte[0]);
+
+		//Folgen der aktuellen Länge, ohne verbotene Teilfolgen und passend ins Puzzle
+		ArrayList<byte[]> level = new ArrayList<byte[]>();
+		level.add(new byte[0]);
+
+		for(int length=1; length<=maxLength; length++){
+			ArrayList<byte[]> next = new ArrayList<byte[]>();
+
+			for(byte[] prefix : level){
+				for(byte move=0; move<4; move++){
+					byte[] sequence = Arrays.copyOf(prefix, length);
+					sequence[length-1] = move;
+
+					if(endsForbidden(sequence, forbiddenCodes)){
+						continue;
+					}
+
+					Grid grid = new Grid(sequence);
+					if(!grid.fits(row, col)){
+						continue;
+					}
+
+					byte[] first = effects.get(grid.hash);
+					if(first == null){
+						effects.put(grid.hash, sequence);
+						next.add(sequence);
+					}else if(new Grid(first).sameEffect(grid) && grid.contains(new Grid(first))){
+						forbidden.add(sequence);
+						forbiddenCodes.add(code(sequence, 0));
+					}else{
+						next.add(sequence);
+					}
+				}
+			}
+			level = next;
+		}
+		return forbidden;
+	}
+
+
+	/**
+	 * @return true, wenn die Folge mit einer verbotenen Folge endet
+	 */
+	private static boolean endsForbidden(byte[] sequence, HashSet<Long> forbiddenCodes){
+		for(int start=0; start<sequence.length-1; start++){
+			if(forbiddenCodes.contains(code(sequence, start))){
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Code der Teilfolge ab start bis zum Ende: Länge und 2 Bit pro Bewegung
+	 */
+	private static long code(byte[] sequence, int start){
+		long code = sequence.length - start;
+		for(int i=start; i<sequence.length; i++){
+			code = code << 2 | sequence[i];
+		}
+		return code;
+	}
+
+
+	/**
+	 * Wirkung einer Folge auf einem unbegrenzten Puzzle, das Blank beginnt im Ursprung
+	 */
+	private static class Grid {
+
+		//Position -> ursprüngliche Position der Zahl, nur veränderte Positionen
+		private HashMap<Long, Long> cells = new HashMap<Long, Long>();
+		private long hash;
+		private int minX, maxX, minY, maxY;
+
+		Grid(byte[] sequence){
+			int x = 0;
+			int y = 0;
+			for(byte move : sequence){
+				int toX = x + DX[move];
+				int toY = y + DY[move];
+				swap(key(x, y), key(toX, toY));
+				x = toX;
+				y = toY;
+				minX = Math.min(minX, x);
+				maxX = Math.max(maxX, x);
+				minY = Math.min(minY, y);
+				maxY = Math.max(maxY, y);
+			}
+		}
+
+		private static long key(int x, int y){
+			return ((long) x << 32) ^ (y & 0xFFFFFFFFL);
+		}
+
+		private long get(long pos){
+			Long origin = cells.get(pos);
+			return origin == null ? pos : origin;
+		}
+
+		private void swap(long a, long b){
+			long originA = get(a);
+			long originB = get(b);
+			set(a, originB);
+			set(b, originA);
+		}
+
+		private void set(long pos, long origin){
+			Long old = cells.get(pos);
+			if(old != null){
+				hash ^= mix(pos, old);
+			}
+			if(origin == pos){
+				cells.remove(pos);
+			}else{
+				cells.put(pos, origin);
+				hash ^= mix(pos, origin);
+			}
+		}
+
+		private static long mix(long pos, long origin){
+			long z = pos * 0x9E3779B97F4A7C15L + origin;
+			z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+			z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+			return z ^ (z >>> 31);
+		}
+
+		/**
+		 * @return true, wenn die Blank-Bahn in ein Puzzle mit row Zeilen und col Spalten passt
+		 */
+		boolean fits(int row, int col){
+			return maxX - minX < col && maxY - minY < row;
+		}
+
+		boolean sameEffect(Grid other){
+			return cells.equals(other.cells);
+		}
+
+		/**
+		 * @return true, wenn die Blank-Bahn von other innerhalb dieser Blank-Bahn liegt
+		 */
+		boolean contains(Grid other){
+			return minX <= other.minX && other.maxX <= maxX && minY <= other.minY && other.maxY <= maxY;
+		}
+	}
+
+
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+	// AUTOMAT
+	///////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Aho-Corasick-Automat der verbotenen Folgen
+	 * @return Übergänge pro Zustand und Bewegung
+	 */
+	private static int[] automaton(ArrayList<byte[]> forbidden){
+
+		//Trie der verbotenen Folgen
+		ArrayList<int[]> children = new ArrayList<int[]>();
+		ArrayList<Boolean> terminal = new ArrayList<Boolean>();
+		children.add(new int[]{-1, -1, -1, -1});
+		terminal.add(false);
+
+		for(byte[] sequence : forbidden){
+			int node = 0;
+			for(byte move : sequence){
+				if(children.get(node)[move] == -1){
+					children.get(node)[move] = children.size();
+					children.add(new int[]{-1, -1, -1, -1});
+					terminal.add(false);
+				}
+				node = children.get(node)[move];
+			}
+			terminal.set(node, true);
+		}
+
+		//Übergänge mit Fehlerlinks, in Breitensuche
+		int size = children.size();
+		int[] transitions = new int[size*4];
+		int[] fail = new int[size];
+		boolean[] dead = new boolean[size];
+		ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+
+		for(int move=0; move<4; move++){
+			int child = children.get(0)[move];
+			if(child == -1){
+				transitions[move] = 0;
+			}else{
+				transitions[move] = child;
+				fail[child] = 0;
+				queue.add(child);
+			}
+		}
+
+		while(!queue.isEmpty()){
+			int node = queue.poll();
+			dead[node] = terminal.get(node) || dead[fail[node]];
+
+			for(int move=0; move<4; move++){
+				int child = children.get(node)[move];
+				if(child == -1){
+					transitions[node*4 + move] = transitions[fail[node]*4 + move];
+				}else{
+					transitions[node*4 + move] = child;
+					fail[child] = transitions[fail[node]*4 + move];
+					queue.add(child);
+				}
+			}
+		}
+
+		//Bewegungen in einen verbotenen Zustand sind nicht erlaubt
+		for(int i=0; i<transitions.length; i++){
+			if(dead[transitions[i]]){
+				transitions[i] = -1;
+			}
+		}
+		return transitions;
+	}
+
+}
@@ -0,0 +1,121 @@
+package search;
+
+/**
+ * Vorberechnete Bewegungen des Blanks pro Position.
+ *
+ * Für jede Position des Blanks sind die möglichen Bewegungen mit ihrer Zielposition abgelegt,
+ * beim Expandieren wird nur noch die Liste der Position durchlaufen. Die Reihenfolge entspricht
+ * der bisherigen Fallunterscheidung: in der obersten und untersten Zeile links, rechts, unten, oben,
+ * sonst unten, oben, rechts, links.
+ *
+ * Die Tabelle wird einmal pro Puzzle-Grösse im SearchContext erzeugt.
+ *
+ * @author michael koch
+ */
+
+public class MoveTable {
+
+	private static final byte[] EDGE_ORDER = {Move.LEFT, Move.RIGHT, Move.DOWN, Move.UP};
+	private static final byte[] INNER_ORDER = {Move.DOWN, Move.UP, Move.RIGHT, Move.LEFT};
+
+	//Bewegungen der Position pos: Index first[pos] bis first[pos+1]-1
+	private final int[] first;
+	private final int[] targets;
+	private final byte[] moves;
+
+	//Zielposition pro Position und Bewegung, -1 = nicht möglich
+	private final int[] neighbor;
+
+	/**
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 */
+	public MoveTable(int row, int col){
+		int length = row*col;
+		this.first = new int[length + 1];
+		this.neighbor = new int[length*4];
+
+		int count = 0;
+		for(int pos=0; pos<length; pos++){
+			int x = pos % col;
+			int y = pos / col;
+
+			neighbor[pos*4 + Move.UP] = y > 0 ? pos - col : -1;
+			neighbor[pos*4 + Move.DOWN] = y < row-1 ? pos + col : -1;
+			neighbor[pos*4 + Move.LEFT] = x > 0 ? pos - 1 : -1;
+			neighbor[pos*4 + Move.RIGHT] = x < col-1 ? pos + 1 : -1;
+
+			for(int move=0; move<4; move++){
+				if(neighbor[pos*4 + move] != -1){
+					count++;
+				}
+			}
+		}
+
+		this.targets = new int[count];
+		this.moves = new byte[count];
+
+		int i = 0;
+		for(int pos=0; pos<length; pos++){
+			first[pos] = i;
+			int y = pos / col;
+			byte[] order = y == 0 || y == row-1 ? EDGE_ORDER : INNER_ORDER;
+
+			for(byte move : order){
+				if(neighbor[pos*4 + move] != -1){
+					targets[i] = neighbor[pos*4 + move];
+					moves[i] = move;
+					i++;
+				}
+			}
+		}
+		first[length] = i;
+	}
+
+
+	/**
+	 * @param pos Position des Blanks
+	 * @return Index der ersten Bewegung
+	 */
+	public int first(int pos){
+		return first[pos];
+	}
+
+
+	/**
+	 * @param pos Position des Blanks
+	 * @return Index nach der letzten Bewegung
+	 */
+	public int end(int pos){
+		return first[pos + 1];
+	}
+
+
+	/**
+	 * @param i Index zwischen first(pos) und end(pos)
+	 * @return Zielposition des Blanks
+	 */
+	public int target(int i){
+		return targets[i];
+	}
+
+
+	/**
+	 * @param i Index zwischen first(pos) und end(pos)
+	 * @return Bewegung (siehe Move)
+	 */
+	public byte move(int i){
+		return moves[i];
+	}
+
+
+	/**
+	 * @param pos Position des Blanks
+	 * @param move siehe Move
+	 * @return Zielposition des Blanks oder -1, wenn die Bewegung nicht möglich ist
+	 */
+	public int neighbor(int pos, int move){
+		return neighbor[pos*4 + move];
+	}
+
+}
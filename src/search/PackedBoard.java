@@ -0,0 +1,81 @@
+package search;
+
+/**
+ * Class PackedBoard
+ *
+ * Hilfsfunktionen für ein gepacktes Puzzle. Ein Puzzle mit bis zu 16 Feldern (z.B. 4x4)
+ * wird in einem einzelnen long gespeichert: pro Feld 4 Bit (Nibble), Feld 0 in den untersten Bits.
+ *
+ * Grössere Puzzles werden in einem byte Array gespeichert (ein Byte pro Feld).
+ *
+ * @author michael koch
+ */
+
+public final class PackedBoard {
+
+	//Maximale Anzahl Felder, welche in einem long Platz haben
+	public static final int MAX_PACKED_LENGTH = 16;
+
+	private PackedBoard(){
+	}
+
+	/**
+	 * Passt ein Puzzle mit der angegebenen Länge in einen long?
+	 * @param length Anzahl Felder
+	 * @return true, wenn das Puzzle gepackt werden kann
+	 */
+	public static boolean fits(int length){
+		return length <= MAX_PACKED_LENGTH;
+	}
+
+	/**
+	 * Packt ein Puzzle in einen long
+	 * @param puzzle
+	 * @return gepacktes Puzzle
+	 */
+	public static long pack(int[] puzzle){
+		long board = 0L;
+		for(int i=0; i<puzzle.length; i++){
+			board |= ((long) puzzle[i]) << (i << 2);
+		}
+		return board;
+	}
+
+	/**
+	 * Entpackt ein gepacktes Puzzle
+	 * @param board
+	 * @param length Anzahl Felder
+	 * @return Puzzle als int Array
+	 */
+	public static int[] unpack(long board, int length){
+		int[] puzzle = new int[length];
+		for(int i=0; i<length; i++){
+			puzzle[i] = get(board, i);
+		}
+		return puzzle;
+	}
+
+	/**
+	 * Liest die Zahl an einer BufferPosition
+	 * @param board
+	 * @param pos
+	 * @return Zahl an der Position pos
+	 */
+	public static int get(long board, int pos){
+		return (int) (board >>> (pos << 2)) & 0xF;
+	}
+
+	/**
+	 * Verschiebt die Zahl an der Position tilePos auf die Position des Blanks.
+	 * Das Blank hat den Wert 0, darum muss nur die Zahl verschoben werden.
+	 * @param board
+	 * @param blankPos aktuelle Position des Blanks
+	 * @param tilePos Position der Zahl, welche neu das Blank wird
+	 * @return neues gepacktes Puzzle
+	 */
+	public static long move(long board, int blankPos, int tilePos){
+		long tile = (board >>> (tilePos << 2)) & 0xFL;
+		return (board & ~(0xFL << (tilePos << 2))) | (tile << (blankPos << 2));
+	}
+
+}
@@ -0,0 +1,84 @@
+package search;
+
+import heuristic.Heuristic;
+import heuristic.ManhattanDistance;
+
+/**
+ * Gemeinsame Daten aller States einer Suche: Puzzle-Dimension und Heuristik.
+ * 
+ * Der Context enthält zudem die Bewegungen des Blanks pro Position (siehe MoveTable), die Zobrist-Zufallswerte für den Hash der States
+ * und den Automaten, welcher redundante Bewegungsfolgen verhindert (siehe MovePruning).
+ * 
+ * Der Context wird einmal pro ParallelSolver erzeugt und beim Expandieren übergeben,
+ * damit die States selbst klein bleiben und ohne Heuristik-Tabellen versendet werden können.
+ * 
+ * @author michael koch
+ */
+
+public class SearchContext {
+
+	private final int row;
+	private final int col;
+	private final Heuristic heuristic;
+	private final MoveTable moveTable;
+	private final Zobrist zobrist;
+	private final MovePruning pruning;
+
+	/**
+	 * Context mit der Manhattan Distanz als Heuristik
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 */
+	public SearchContext(int row, int col){
+		this(row, col, new ManhattanDistance(row, col));
+	}
+
+	/**
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 * @param heuristic
+	 */
+	public SearchContext(int row, int col, Heuristic heuristic){
+		this(row, col, heuristic, null);
+	}
+
+	/**
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 * @param heuristic
+	 * @param pruning Automat gegen redundante Bewegungsfolgen, null = nur das Zurückschieben des Blanks wird verhindert
+	 */
+	public SearchContext(int row, int col, Heuristic heuristic, MovePruning pruning){
+		this.row = row;
+		this.col = col;
+		this.heuristic = heuristic;
+		this.moveTable = new MoveTable(row, col);
+		this.zobrist = new Zobrist(row*col);
+		this.pruning = pruning;
+	}
+
+	public int getRow() {
+		return row;
+	}
+
+	public int getCol() {
+		return col;
+	}
+
+	public Heuristic getHeuristic() {
+		return heuristic;
+	}
+
+	public MoveTable getMoveTable() {
+		return moveTable;
+	}
+
+	public Zobrist getZobrist() {
+		return zobrist;
+	}
+
+	public MovePruning getPruning() {
+		return pruning;
+	}
+
+}
@@ -1,53 +1,88 @@
-package search;
-import java.util.Stack;
-
-/**
- * Klass Solution beinhaltet die Lsung
- * 
- * @author michael
- */
-
-public class Solution {
-
-	boolean realSolution;
-	State goalState;
-
-	/**
-	 * Der Zielstate wird hiermit bergeben
-	 * @param state
-	 */
-	public Solution(State state){
-		this.realSolution = true;
-		this.goalState = state;
-	}
-
-	/**
-	 * Ein Prozessor terminiert mit einer Dummy-Lsung
-	 */
-	public Solution(){
-		this.realSolution = false;
-	}
-
-	/**
-	 * Druckt die Lsung
-	 */
-	public void printSolution(){
-
-		if(realSolution){
-			Stack<String> stack = new Stack<String>();
-			int step = 0;
-			
-			while(goalState.parent != null){
-				stack.push(goalState.blankMoveDirection);
-				goalState = goalState.parent;
-			}
-			
-			System.out.println("-------------Solution-----------------");
-			while(!stack.isEmpty()){
-				step++;
-				System.out.println(step + ". " + stack.pop());
-			}
-			System.out.println("--------------------------------------");
-		}
-	}
-}
+package search;
+
+/**
+ * Klass Solution beinhaltet die Lösung
+ * 
+ * @author michael
+ */
+
+public class Solution {
+
+	boolean realSolution;
+	State goalState;
+
+	//Bewegungen ab dem goalState (InPlaceEngine)
+	byte[] moves = new byte[0];
+
+	/**
+	 * Der Zielstate wird hiermit übergeben
+	 * @param state
+	 */
+	public Solution(State state){
+		this.realSolution = true;
+		this.goalState = state;
+	}
+
+	/**
+	 * Die Lösung besteht aus einem State und den Bewegungen, welche ab diesem State zum Ziel führen
+	 * @param state
+	 * @param moves Bewegungen des Blanks (siehe Move)
+	 * @param length Anzahl gültiger Bewegungen in moves
+	 */
+	public Solution(State state, byte[] moves, int length){
+		this.realSolution = true;
+		this.goalState = state;
+		this.moves = new byte[length];
+		System.arraycopy(moves, 0, this.moves, 0, length);
+	}
+
+	/**
+	 * Ein Prozessor terminiert mit einer Dummy-Lösung
+	 */
+	public Solution(){
+		this.realSolution = false;
+	}
+
+	/**
+	 * @return Anzahl Bewegungen der Lösung
+	 */
+	public int getLength(){
+		return realSolution ? goalState.getDeep() + moves.length : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * @return alle Bewegungen des Blanks ab dem Root-State (siehe Move)
+	 */
+	public byte[] getMoves(){
+		if(!realSolution){
+			return new byte[0];
+		}
+		byte[] path = goalState.getPath();
+		byte[] all = new byte[path.length + moves.length];
+		System.arraycopy(path, 0, all, 0, path.length);
+		System.arraycopy(moves, 0, all, path.length, moves.length);
+		return all;
+	}
+
+	/**
+	 * Druckt die Lösung
+	 */
+	public void printSolution(){
+
+		if(realSolution){
+			byte[] path = goalState.getPath();
+			int step = 0;
+
+			System.out.println("-------------Solution-----------------");
+			for(int i=0; i<path.length; i++){
+				step++;
+				System.out.println(step + ". " + Move.getName(path[i]));
+			}
+			for(int i=0; i<moves.length; i++){
+				step++;
+				System.out.println(step + ". " + Move.getName(moves[i]));
+			}
+			System.out.println("--------------------------------------");
+		}
+	}
+}
@@ -1,351 +1,426 @@
-package search;
-import java.io.Serializable;
-import java.util.Stack;
-
-/**
- * Class State
- * 
- * Ein State ist eine Puzzle-Konstellation. Jeder State besitzt eine Heuristik und einen ParentState.
- * Weiter wird die Dimensionen (Anzahl Zeilen, Reihen und die Lnge) des Puzzels bentigt.
- * 
- * Manhattan Distanz bestimmt die Heuristik.
- * 
- * Das Puzzel ist wird in einem Buffer (int Array) gespeichert.
- * Die Leere Stelle (das Blank) des Puzzels besitzt die Ziffer 0.
- * 
- * @author michael koch
- */
-
-public class State implements Serializable{
-
-	private static final long serialVersionUID = 1L;
-
-	//Puzzle
-	public int[] puzzle;
-	
-	//Puzzle Dimension
-	private int row;
-	private int col;
-	private int deep;
-
-	//Parent
-	public State parent;
-	
-	//Manhattan Distanz
-	private int heuristic;
-
-    //Blank Bewegung fr Solution
-	String blankMoveDirection;
-
-	/**
-	 * Nur der Root-Node wird hiermit initialisiert
-	 * @param puzzle
-	 * @param row
-	 * @param col
-	 */
-	public State(int[] puzzle, int row, int col){
-		this.puzzle = new int[row*col];
-		this.col = col;
-		this.row = row;
-		this.puzzle = puzzle;
-		this.heuristic = calcTotalManhattanDistance(this);
-	}
-
-
-	/**
-	 * Der State wird mit seinem Parent initialisiert
-	 * @param parentState
-	 */
-	private State(State parentState){
-		this.puzzle = parentState.puzzle.clone();
-		this.col = parentState.col;
-		this.row = parentState.row;
-		this.deep = parentState.deep + 1;
-	}
-
-
-	/**
-	 * Vergleicht den State mit der Zielkonfiguration
-	 * @return true, wenn die Lsung gefunden wurde
-	 */
-	public boolean checkSolution(){
-
-		boolean success = true;
-
-		for(int i=0; i<puzzle.length-1; i++){
-			if(puzzle[i] != i+1){
-				success = false;
-				break;
-			}
-		}
-		return success;
-	}
-
-
-	/**
-	 * Expandiert den aktuellen State und fgt die Childs dem Stack hinzu
-	 * @param Stack
-	 * @return Stack mit den Childs
-	 */
-	public Stack<State> expandNode(Stack<State> stack){
-
-		int x = getX( getBlankPos() );
-		int y = getY( getBlankPos() );
-
-
-		//blank is left top
-		if((x == 0) && (y == 0)){
-			stack.add(moveRight(x, y));
-			stack.add(moveDown(x, y));
-
-
-			//blank is right top
-		} else if((x == row-1) && (y == 0)){
-			stack.add(moveLeft(x, y));
-			stack.add(moveDown(x, y));
-
-
-			//blank is top
-		} else if(y == 0){
-			stack.add(moveLeft(x, y));
-			stack.add(moveRight(x, y));
-			stack.add(moveDown(x, y));
-
-
-			//blank is left bottom
-		} else if((x == 0) && (y == col-1)){
-			stack.add(moveRight(x, y));
-			stack.add(moveUp(x, y));
-
-
-			//blank is right bottom
-		} else if((x == row-1) && (y == col-1)){
-			stack.add(moveLeft(x, y));
-			stack.add(moveUp(x, y));
-
-
-			//blank is bottom
-		} else if(y == col-1){
-			stack.add(moveLeft(x, y));
-			stack.add(moveRight(x, y));
-			stack.add(moveUp(x, y));
-
-
-			//blank is left
-		} else if(x == 0){
-			stack.add(moveDown(x, y));
-			stack.add(moveUp(x, y));
-			stack.add(moveRight(x, y));
-
-
-			//blank is right
-		} else if(x == row-1){
-			stack.add(moveDown(x, y));
-			stack.add(moveUp(x, y));
-			stack.add(moveLeft(x, y));
-
-
-			// blank is in the middle
-		} else{
-			stack.add(moveDown(x, y));
-			stack.add(moveUp(x, y));
-			stack.add(moveRight(x, y));
-			stack.add(moveLeft(x, y));
-		}
-		return stack;
-	}
-
-
-	/**
-	 * gibt die Manhattan-Distanz zurck
-	 * @return liefert die Heuristik
-	 */
-	public int getHeuristic() {
-		return heuristic;
-	}
-
-
-	/**
-	 * setzt die Manhattan-Distanz
-	 * @param setzt die Heuristik
-	 */
-	public void setHeuristic(int heuristic) {
-		this.heuristic = heuristic;
-	}
-
-
-	/**
-	 * Verhindert Loops beim Expandieren der Nodes
-	 * Das vorherige Verschieben des Blanks, darf nicht in die entgegengesetzte Richtung verschoben werden
-	 * @return true, falls ein loop gefunden wurde
-	 */
-	public boolean hasLoop(){
-		boolean loop = false;
-
-		if(this.deep > 2){
-			if(!Util.isEqual(this.parent.parent.puzzle,this.puzzle)){
-				loop = true;
-			}
-		}else{
-			loop = true;
-		}
-		return loop;
-	}
-
-
-	/**
-	 * Verschiebt das Blank nach rechts
-	 */
-	private State moveRight(int x, int y){
-		return swapAndCreateChildState(x, y, x+1, y, "right");
-	}
-
-	/**
-	 * Verschiebt das Blank nach links
-	 */
-	private State moveLeft(int x, int y){
-		return swapAndCreateChildState(x, y, x-1, y, "left");
-	}
-
-	/**
-	 * Verschiebt das Blank nach unten
-	 */
-	private State moveDown(int x, int y){
-		return swapAndCreateChildState(x, y, x, y+1, "down");
-	}
-
-	/**
-	 * Verschiebt das Blank nach oben
-	 */
-	private State moveUp(int x, int y){
-		return swapAndCreateChildState(x, y, x, y-1, "up");
-	}
-
-	/**
-	 * Konvertiert die BufferPosition in die X-Position
-	 * @param bufferPos
-	 * @return X-Position im Puzzle
-	 */
-	private int getX(int bufferPos){
-		return bufferPos % row;
-	}
-
-	/**
-	 * Konvertiert die BufferPosition in die Y-Position
-	 * @param bufferPos
-	 * @return X-Position im Puzzle
-	 */
-	private int getY(int bufferPos){
-		return bufferPos / col;
-	}
-
-	/**
-	 * Konvertiert die X und Y Koordinate in die BufferPosition
-	 * @param x
-	 * @param y
-	 * @return BufferPosition
-	 */
-	private int getPos(int x, int y){
-		return y*row + x;
-	}
-
-	/**
-	 * Position des Blanks
-	 * @return gibt die Position des Blanks zurck
-	 */
-	private int getBlankPos(){
-		int pos = 0;
-		for(int i=0; i<puzzle.length; i++){
-			if(puzzle[i] == 0){
-				pos = i;
-				break;
-			}
-		}
-		return pos;
-	}
-
-	/**
-	 * Vertauscht je nach Bewegung des Blanks die beiden Positionen im Buffer.
-	 * Generiert daraus einen ChildState.
-	 * @param fromX
-	 * @param fromY
-	 * @param toX
-	 * @param toY
-	 * @param blankMoveDirection
-	 * @return wendet die Verschiebung des Blanks an und erzeugt einen ChildState daraus
-	 */
-	private State swapAndCreateChildState(int fromX, int fromY, int toX, int toY, String blankMoveDirection){
-
-		State child = new State(this);
-
-		child.parent = this;
-		child.blankMoveDirection = blankMoveDirection;
-
-		int toN = child.puzzle[getPos(toX, toY)];
-		int fromN = child.puzzle[getPos(fromX, fromY)];
-
-		child.puzzle[getPos(toX, toY)] = fromN;
-		child.puzzle[getPos(fromX, fromY)] = toN;
-
-		child.setHeuristic( calcTotalManhattanDistance(child) );
-
-		return child;
-	}
-
-	/**
-	 * Bestimmt die Position einer Zahl mi Buffer
-	 * @param digit
-	 * @param buffer
-	 * @return gibt die BufferPosition einer Puzzle-Zahl zurck
-	 */
-	private int getNodePos(int digit, int[] buffer){
-		int pos = -1;
-		for(int i=0; i<buffer.length; i++){
-			if(digit == buffer[i]){
-				pos = i;
-				break;
-			}
-		}
-		return pos;
-	}
-
-	/**
-	 * Errechnet die Manhattan Distanz einer Bestimmten Zahl n des Puzzles
-	 * @param n
-	 * @param buffer
-	 * @return gibt die Manhattan Distance einer Zahl n zurck
-	 */
-	private int calcManhanttanDistance(int n, int[] buffer){
-
-		int heuristic = 0;
-
-		if(n != 0){
-			int bufferPos = getNodePos(n, buffer);
-
-			int xIst = getX(bufferPos);
-			int yIst = getY(bufferPos);
-
-			int xSoll = getX(n-1);
-			int ySoll = getY(n-1);
-
-			heuristic = Math.abs(xIst - xSoll) + Math.abs(yIst - ySoll);
-		}
-		return heuristic;
-	}
-
-	/**
-	 * Berechnet die totale Manhattan Distanz eines Puzzels
-	 * @param state
-	 * @return gibt die Manhattan Distanz des Puzzles zurck
-	 */
-	private int calcTotalManhattanDistance(State state){
-
-		int childHeuristic = 0;
-
-		for(int i=0; i<state.puzzle.length; i++){
-			childHeuristic = childHeuristic + calcManhanttanDistance(state.puzzle[i], state.puzzle);
-		}
-
-		return childHeuristic + state.deep;
-	}
-}
+package search;
+import heuristic.Board;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Stack;
+
+/**
+ * Class State
+ * 
+ * Ein State ist eine Puzzle-Konstellation. Jeder State besitzt eine Heuristik und den Pfad ab dem Root-State.
+ * Weiter wird die Dimensionen (Anzahl Zeilen, Reihen und die Länge) des Puzzels benötigt.
+ * 
+ * Der Pfad wird mit 2 Bit pro Bewegung in einem long Array gespeichert, ein State hält also keine Referenz
+ * auf seinen Parent. Der bereits abgesuchte Teil des Baums kann so vom Garbage Collector freigegeben werden.
+ * 
+ * Die Heuristik kommt aus dem SearchContext (Standard: Manhattan Distanz). Enthält der SearchContext
+ * einen MovePruning-Automaten, hält jeder State dessen Zustand und erzeugt keine Childs für verbotene Bewegungen.
+ * 
+ * Das Puzzel wird gepackt gespeichert (siehe PackedBoard): bis 16 Felder in einem long,
+ * grössere Puzzles in einem byte Array. Die Position des Blanks wird im State gehalten
+ * und die Heuristik wird beim Erzeugen eines Childs nur für die verschobene Zahl nachgeführt.
+ * Die möglichen Bewegungen pro Position des Blanks stehen in der MoveTable des SearchContext.
+ * Die Leere Stelle (das Blank) des Puzzels besitzt die Ziffer 0.
+ * 
+ * @author michael koch
+ */
+
+public class State implements Serializable, Board{
+
+	private static final long serialVersionUID = 1L;
+
+	//Puzzle bis 16 Felder: 4 Bit pro Feld
+	private long packed;
+
+	//Puzzle ab 17 Feldern: ein Byte pro Feld
+	private byte[] tiles;
+
+	//Puzzle Dimension
+	private int row;
+	private int col;
+	private int deep;
+
+	//Position des Blanks
+	private int blankPos;
+
+	//Heuristik ohne Tiefe
+	private int estimate;
+
+	//Heuristik + Tiefe
+	private int heuristic;
+
+    //Blank Bewegung für Solution (siehe Move)
+	byte blankMove = Move.NONE;
+
+	//Bewegungen vom Root-State bis zu diesem State, 2 Bit pro Bewegung (siehe Move)
+	private long[] path;
+
+	//Zobrist-Hash des Puzzles (siehe Zobrist)
+	private long hash;
+
+	//Zustand des MovePruning-Automaten, 0 im Root-State
+	private int pruningState;
+
+	/**
+	 * Nur der Root-Node wird hiermit initialisiert, Heuristik ist die Manhattan Distanz
+	 * @param puzzle
+	 * @param row
+	 * @param col
+	 */
+	public State(int[] puzzle, int row, int col){
+		this(puzzle, new SearchContext(row, col));
+	}
+
+
+	/**
+	 * Nur der Root-Node wird hiermit initialisiert
+	 * @param puzzle
+	 * @param context Dimension und Heuristik
+	 */
+	public State(int[] puzzle, SearchContext context){
+		this.col = context.getCol();
+		this.row = context.getRow();
+
+		if(PackedBoard.fits(puzzle.length)){
+			this.packed = PackedBoard.pack(puzzle);
+		}else{
+			this.tiles = new byte[puzzle.length];
+			for(int i=0; i<puzzle.length; i++){
+				this.tiles[i] = (byte) puzzle[i];
+			}
+		}
+
+		for(int i=0; i<puzzle.length; i++){
+			if(puzzle[i] == 0){
+				this.blankPos = i;
+			}
+		}
+
+		this.estimate = context.getHeuristic().evaluate(puzzle);
+		this.heuristic = estimate + deep;
+		this.path = new long[0];
+		this.hash = context.getZobrist().hash(puzzle);
+	}
+
+
+	/**
+	 * Ein empfangener State (siehe StateCodec)
+	 */
+	State(int row, int col, long packed, byte[] tiles, int deep, int blankPos, byte blankMove, int estimate, long[] path, long hash, int pruningState){
+		this.row = row;
+		this.col = col;
+		this.packed = packed;
+		this.tiles = tiles;
+		this.deep = deep;
+		this.blankPos = blankPos;
+		this.blankMove = blankMove;
+		this.estimate = estimate;
+		this.heuristic = estimate + deep;
+		this.path = path;
+		this.hash = hash;
+		this.pruningState = pruningState;
+	}
+
+
+	/**
+	 * Der State wird mit seinem Parent initialisiert
+	 * @param parentState
+	 */
+	private State(State parentState){
+		this.packed = parentState.packed;
+		if(parentState.tiles != null){
+			this.tiles = parentState.tiles.clone();
+		}
+		this.col = parentState.col;
+		this.row = parentState.row;
+		this.deep = parentState.deep + 1;
+		this.hash = parentState.hash;
+
+		//der Pfad wächst nur alle 32 Bewegungen um ein long
+		long[] parentPath = parentState.path;
+		this.path = parentState.deep % 32 == 0 ? Arrays.copyOf(parentPath, parentPath.length + 1) : parentPath.clone();
+	}
+
+
+	/**
+	 * Vergleicht den State mit der Zielkonfiguration
+	 * @return true, wenn die Lösung gefunden wurde
+	 */
+	public boolean checkSolution(){
+
+		//Die Heuristik ist im Ziel immer 0
+		if(estimate != 0){
+			return false;
+		}
+
+		for(int i=0; i<row*col-1; i++){
+			if(getTile(i) != i+1){
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Expandiert den aktuellen State und fügt die Childs dem Stack hinzu.
+	 * Bewegungen, welche der MovePruning-Automat verbietet, erzeugen keinen Child.
+	 * @param Stack
+	 * @param context Heuristik für die Childs
+	 * @return Stack mit den Childs
+	 */
+	public Stack<State> expandNode(Stack<State> stack, SearchContext context){
+
+		MoveTable moves = context.getMoveTable();
+		for(int i=moves.first(blankPos), end=moves.end(blankPos); i<end; i++){
+			add(stack, swapAndCreateChildState(blankPos, moves.target(i), moves.move(i), context));
+		}
+		return stack;
+	}
+
+
+	/**
+	 * Fügt einen Child dem Stack hinzu, sofern die Bewegung erlaubt ist
+	 */
+	private static void add(Stack<State> stack, State child){
+		if(child != null){
+			stack.add(child);
+		}
+	}
+
+
+	/**
+	 * gibt die Heuristik inklusive Tiefe zurück
+	 * @return liefert die Heuristik
+	 */
+	public int getHeuristic() {
+		return heuristic;
+	}
+
+
+	/**
+	 * setzt die Heuristik inklusive Tiefe
+	 * @param setzt die Heuristik
+	 */
+	public void setHeuristic(int heuristic) {
+		this.heuristic = heuristic;
+	}
+
+
+	/**
+	 * Erzeugt den ChildState für eine Bewegung des Blanks
+	 * @param move siehe Move
+	 * @param context Heuristik für den Child
+	 * @return ChildState oder null, falls das Blank nicht in diese Richtung verschoben werden kann
+	 * oder der MovePruning-Automat die Bewegung verbietet
+	 */
+	public State move(int move, SearchContext context){
+		if(move < 0 || move > 3){
+			return null;
+		}
+		int target = context.getMoveTable().neighbor(blankPos, move);
+		return target == -1 ? null : swapAndCreateChildState(blankPos, target, (byte) move, context);
+	}
+
+
+	/**
+	 * Tiefe (Anzahl Bewegungen ab dem Root-State)
+	 * @return Tiefe des States
+	 */
+	public int getDeep(){
+		return deep;
+	}
+
+
+	/**
+	 * @return Zobrist-Hash des Puzzles
+	 */
+	public long getHash(){
+		return hash;
+	}
+
+
+	/**
+	 * @return Zustand des MovePruning-Automaten
+	 */
+	public int getPruningState(){
+		return pruningState;
+	}
+
+
+	/**
+	 * Heuristik ohne Tiefe
+	 * @return geschätzte Anzahl Bewegungen bis zur Lösung
+	 */
+	public int getEstimate(){
+		return estimate;
+	}
+
+
+	/**
+	 * Position des Blanks
+	 * @return BufferPosition des Blanks
+	 */
+	public int getBlankPos(){
+		return blankPos;
+	}
+
+
+	/**
+	 * Letzte Bewegung des Blanks
+	 * @return siehe Move
+	 */
+	public int getBlankMove(){
+		return blankMove;
+	}
+
+
+	/**
+	 * Anzahl Zeilen
+	 * @return row
+	 */
+	public int getRow(){
+		return row;
+	}
+
+
+	/**
+	 * Anzahl Spalten
+	 * @return col
+	 */
+	public int getCol(){
+		return col;
+	}
+
+
+	/**
+	 * Entpackt das Puzzle
+	 * @return Puzzle als int Array
+	 */
+	public int[] getPuzzle(){
+		if(tiles == null){
+			return PackedBoard.unpack(packed, row*col);
+		}
+		int[] puzzle = new int[tiles.length];
+		for(int i=0; i<tiles.length; i++){
+			puzzle[i] = tiles[i];
+		}
+		return puzzle;
+	}
+
+
+	/**
+	 * Bewegungen des Blanks vom Root-State bis zu diesem State
+	 * @return deep Bewegungen (siehe Move)
+	 */
+	public byte[] getPath(){
+		byte[] moves = new byte[deep];
+		for(int i=0; i<deep; i++){
+			moves[i] = getMove(i);
+		}
+		return moves;
+	}
+
+
+	/**
+	 * Bewegung i des Pfads
+	 * @param i 0 bis deep-1
+	 * @return siehe Move
+	 */
+	private byte getMove(int i){
+		return (byte) ((path[i >>> 5] >>> (2*(i & 31))) & 3);
+	}
+
+
+	/**
+	 * Gepackter Pfad, 2 Bit pro Bewegung (siehe StateCodec)
+	 */
+	long[] getPackedPath(){
+		return path;
+	}
+
+
+	/**
+	 * Gepacktes Puzzle (bis 16 Felder)
+	 */
+	long getPacked(){
+		return packed;
+	}
+
+
+	/**
+	 * Puzzle ab 17 Feldern, sonst null
+	 */
+	byte[] getTiles(){
+		return tiles;
+	}
+
+
+	/**
+	 * Verhindert Loops beim Expandieren der Nodes
+	 * Das vorherige Verschieben des Blanks, darf nicht in die entgegengesetzte Richtung verschoben werden
+	 * @return true, falls kein Loop gefunden wurde
+	 */
+	public boolean hasLoop(){
+		if(this.deep < 2){
+			return true;
+		}
+		return blankMove != Move.opposite(getMove(deep-2));
+	}
+
+
+	/**
+	 * Zahl an einer BufferPosition
+	 * @param pos
+	 * @return gibt die Zahl an der Position pos zurück
+	 */
+	@Override
+	public int getTile(int pos){
+		if(tiles == null){
+			return PackedBoard.get(packed, pos);
+		}
+		return tiles[pos];
+	}
+
+	/**
+	 * Vertauscht je nach Bewegung des Blanks die beiden Positionen im Buffer.
+	 * Generiert daraus einen ChildState. Die Heuristik wird nur für die verschobene Zahl angepasst.
+	 * @param from Position des Blanks
+	 * @param to Zielposition des Blanks (siehe MoveTable)
+	 * @param blankMove
+	 * @param context
+	 * @return wendet die Verschiebung des Blanks an und erzeugt einen ChildState daraus, null wenn die Bewegung verboten ist
+	 */
+	private State swapAndCreateChildState(int from, int to, byte blankMove, SearchContext context){
+
+		//verbotene Bewegungen erzeugen keinen Child
+		MovePruning pruning = context.getPruning();
+		int nextPruningState = pruning == null ? 0 : pruning.next(pruningState, blankMove);
+		if(nextPruningState == -1){
+			return null;
+		}
+
+		State child = new State(this);
+		child.pruningState = nextPruningState;
+
+		child.blankMove = blankMove;
+		child.path[deep >>> 5] |= ((long) blankMove) << (2*(deep & 31));
+
+		int n = getTile(to);
+
+		if(tiles == null){
+			child.packed = PackedBoard.move(packed, from, to);
+		}else{
+			child.tiles[from] = (byte) n;
+			child.tiles[to] = 0;
+		}
+		child.blankPos = to;
+		child.hash = context.getZobrist().move(hash, n, to, from);
+
+		//Die Zahl n wandert von to nach from
+		child.estimate = context.getHeuristic().update(estimate, child, n, to, from);
+		child.setHeuristic( child.estimate + child.deep );
+
+		return child;
+	}
+}
@@ -0,0 +1,130 @@
+package search;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binäres Format für verteilte Arbeit (ersetzt die Java-Serialisierung von State[]).
+ *
+ * Pro State wird geschrieben:
+ * <pre>
+ * Puzzle     long (bis 16 Felder) bzw. ein Byte pro Feld
+ * deep       short
+ * blankPos   byte
+ * blankMove  byte
+ * estimate   short (Heuristik, muss beim Empfänger nicht neu berechnet werden)
+ * pruning    char (Zustand des MovePruning-Automaten)
+ * Pfad       (deep+3)/4 Bytes, 2 Bit pro Bewegung (siehe Move)
+ * </pre>
+ * Die Nachricht beginnt mit der Anzahl States (int). Der Zobrist-Hash wird beim Empfänger neu berechnet.
+ *
+ * @author michael koch
+ */
+
+public class StateCodec {
+
+	private final int row;
+	private final int col;
+	private final int length;
+	private final Zobrist zobrist;
+
+	/**
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 */
+	public StateCodec(int row, int col){
+		this.row = row;
+		this.col = col;
+		this.length = row*col;
+		this.zobrist = new Zobrist(length);
+	}
+
+
+	/**
+	 * Anzahl Bytes einer Nachricht
+	 * @param states
+	 * @return Grösse in Bytes
+	 */
+	public int size(State[] states){
+		int size = 4;
+		int board = PackedBoard.fits(length) ? 8 : length;
+		for(int i=0; i<states.length; i++){
+			size += board + 8 + (states[i].getDeep() + 3) / 4;
+		}
+		return size;
+	}
+
+
+	/**
+	 * Schreibt die States ab der aktuellen Position in den Buffer
+	 * @param states
+	 * @param buffer muss mindestens size(states) Bytes frei haben
+	 */
+	public void encode(State[] states, ByteBuffer buffer){
+		buffer.putInt(states.length);
+
+		for(int s=0; s<states.length; s++){
+			State state = states[s];
+
+			if(PackedBoard.fits(length)){
+				buffer.putLong(state.getPacked());
+			}else{
+				buffer.put(state.getTiles());
+			}
+			buffer.putShort((short) state.getDeep());
+			buffer.put((byte) state.getBlankPos());
+			buffer.put((byte) state.getBlankMove());
+			buffer.putShort((short) state.getEstimate());
+			buffer.putChar((char) state.getPruningState());
+
+			//4 Bewegungen pro Byte, in der Reihenfolge des gepackten Pfads
+			long[] path = state.getPackedPath();
+			int bytes = (state.getDeep() + 3) / 4;
+			for(int i=0; i<bytes; i++){
+				buffer.put((byte) (path[i >>> 3] >>> (8*(i & 7))));
+			}
+		}
+	}
+
+
+	/**
+	 * Liest die States ab der aktuellen Position des Buffers
+	 * @param buffer
+	 * @return States
+	 */
+	public State[] decode(ByteBuffer buffer){
+		State[] states = new State[buffer.getInt()];
+
+		for(int s=0; s<states.length; s++){
+			long packed = 0;
+			byte[] tiles = null;
+			int[] puzzle;
+
+			if(PackedBoard.fits(length)){
+				packed = buffer.getLong();
+				puzzle = PackedBoard.unpack(packed, length);
+			}else{
+				tiles = new byte[length];
+				buffer.get(tiles);
+				puzzle = new int[length];
+				for(int i=0; i<length; i++){
+					puzzle[i] = tiles[i];
+				}
+			}
+			int deep = buffer.getShort();
+			int blankPos = buffer.get() & 0xFF;
+			byte blankMove = buffer.get();
+			int estimate = buffer.getShort();
+			int pruningState = buffer.getChar();
+
+			long[] path = new long[(deep + 31) / 32];
+			int bytes = (deep + 3) / 4;
+			for(int i=0; i<bytes; i++){
+				path[i >>> 3] |= (buffer.get() & 0xFFL) << (8*(i & 7));
+			}
+
+			states[s] = new State(row, col, packed, tiles, deep, blankPos, blankMove, estimate, path, zobrist.hash(puzzle), pruningState);
+		}
+		return states;
+	}
+
+}
@@ -1,30 +1,76 @@
-package search;
-
-/**
- * class Util
- * 
- * @author michael
- */
-
-public class Util {
-
-	/**
-	 * Inhaltlicher vergleich zweier Integer Arrays
-	 * 
-	 * @param Array a
-	 * @param Array b
-	 * @return true, wenn die 2 Array den gleich Inhalt haben
-	 */
-	public static boolean isEqual(int[] a, int[] b){
-
-		boolean isEqual = true;
-
-		for(int i=0; i<a.length; i++){
-			if(a[i] != b[i]){
-				isEqual = false;
-			}
-		}
-		return isEqual;
-	}
-	
-}
+package search;
+
+/**
+ * class Util
+ * 
+ * @author michael
+ */
+
+public class Util {
+
+	/**
+	 * Prüft, ob das Puzzle jede Zahl von 0 bis length-1 genau einmal enthält
+	 * 
+	 * @param puzzle
+	 * @return true, wenn das Puzzle eine Permutation ist
+	 */
+	public static boolean isPermutation(int[] puzzle){
+		boolean[] seen = new boolean[puzzle.length];
+		for(int tile : puzzle){
+			if(tile < 0 || tile >= puzzle.length || seen[tile]){
+				return false;
+			}
+			seen[tile] = true;
+		}
+		return true;
+	}
+
+	/**
+	 * Prüft, ob das Puzzle lösbar ist
+	 * 
+	 * @param puzzle
+	 * @param col Anzahl Spalten des Puzzles
+	 * @return true, wenn das Puzzle lösbar ist
+	 */
+	public static boolean isSolvable(int[] puzzle, int col){
+
+		int parity = 0;
+		int gridWidth = col;
+		int row = 0; 
+		int blankRow = 0; 
+
+		for (int i = 0; i < puzzle.length; i++){
+
+			if (i % gridWidth == 0) { 
+				row++;
+			}
+
+			if (puzzle[i] == 0) { 
+				blankRow = row; 
+				continue;
+			}
+
+			for (int j = i + 1; j < puzzle.length; j++){
+				if (puzzle[i] > puzzle[j] && puzzle[j] != 0){
+					parity++;
+				}
+			}
+		}
+
+		if (gridWidth % 2 == 0) { 
+
+			//Zeile des Blanks von unten gezählt, damit auch Puzzles mit einer ungeraden Anzahl Zeilen stimmen
+			int blankRowFromBottom = puzzle.length / gridWidth - blankRow + 1;
+
+			if (blankRowFromBottom % 2 != 0) { 
+				return parity % 2 == 0;
+			} else { 
+				return parity % 2 != 0;
+			}
+
+		} else { 
+			return parity % 2 == 0;
+		}
+	}
+
+}
@@ -0,0 +1,63 @@
+package search;
+
+import java.util.Random;
+
+/**
+ * Zobrist-Hash eines Puzzles: XOR eines Zufallswerts pro Zahl und Position.
+ *
+ * Bei einer Bewegung ändert sich nur die Position einer Zahl, der Hash wird mit zwei XOR nachgeführt.
+ * Das Blank wird nicht gehasht, seine Position folgt aus den übrigen Zahlen.
+ * Die Zufallswerte hängen nur von der Puzzle-Grösse ab und sind auf allen Prozessoren gleich.
+ *
+ * @author michael koch
+ */
+
+public class Zobrist {
+
+	private final int length;
+
+	//Zufallswert pro Position und Zahl: keys[pos*length + tile]
+	private final long[] keys;
+
+	/**
+	 * @param length Anzahl Felder des Puzzles
+	 */
+	public Zobrist(int length){
+		this.length = length;
+		this.keys = new long[length*length];
+
+		Random random = new Random(length);
+		for(int i=0; i<keys.length; i++){
+			keys[i] = random.nextLong();
+		}
+	}
+
+
+	/**
+	 * @param puzzle
+	 * @return Hash des Puzzles
+	 */
+	public long hash(int[] puzzle){
+		long hash = 0;
+		for(int pos=0; pos<length; pos++){
+			if(puzzle[pos] != 0){
+				hash ^= keys[pos*length + puzzle[pos]];
+			}
+		}
+		return hash;
+	}
+
+
+	/**
+	 * Führt den Hash nach einer Bewegung nach
+	 * @param hash vor der Bewegung
+	 * @param tile verschobene Zahl
+	 * @param from alte Position der Zahl
+	 * @param to neue Position der Zahl
+	 * @return Hash nach der Bewegung
+	 */
+	public long move(long hash, int tile, int from, int to){
+		return hash ^ keys[from*length + tile] ^ keys[to*length + tile];
+	}
+
+}
@@ -0,0 +1,33 @@
+package solver;
+
+/**
+ * Teilt wie SubtreeSplit, passt aber den Schwellwert an die beobachtete Wartezeit an.
+ * Die Wartezeit meldet der IDLE-Prozessor mit dem WORK-Request, angepasst wird der Prozessor, welcher die Arbeit hält.
+ * Warten IDLE-Prozessoren lange auf Arbeit, wird früher geteilt (kleinerer Schwellwert).
+ * Kommt die Arbeit schnell, wird seltener geteilt, damit weniger Nachrichten anfallen.
+ * 
+ * @author michael koch
+ */
+
+public class AdaptiveSplit extends SubtreeSplit {
+
+	// Wartezeit in ms, ab welcher früher geteilt wird
+	private static final long TARGET = 2;
+
+	private static final int MIN_CUTOFF = 1;
+	private static final int MAX_CUTOFF = 64;
+
+	public AdaptiveSplit(){
+		super(10);
+	}
+
+	@Override
+	public void idle(long time) {
+		if(time > TARGET){
+			setCutoff(Math.max(MIN_CUTOFF, getCutoff() / 2));
+		}else{
+			setCutoff(Math.min(MAX_CUTOFF, getCutoff() + 1));
+		}
+	}
+
+}
@@ -0,0 +1,424 @@
+package solver;
+
+import heuristic.Heuristic;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Stack;
+import messagePassing.EventTrace;
+import messagePassing.MpjTransport;
+import messagePassing.ProgressEngine;
+import messagePassing.SolutionCOM;
+import messagePassing.TerminationCOM;
+import messagePassing.TraceEvent;
+import messagePassing.Transport;
+import search.MovePruning;
+import search.SearchContext;
+import search.Solution;
+import search.State;
+import search.StateCodec;
+import search.Util;
+
+/**
+ * AsyncSolver lösst ein NxM Puzzle mit asynchronem IDA*: zwischen den Suchtiefen gibt es keine globale Barriere.
+ *
+ * Alle Prozessoren expandieren den Root-State gleich in die Breite, bis genügend Arbeitspakete vorhanden sind,
+ * und teilen die Pakete nach Index unter sich auf. Jedes Paket trägt seine eigene Suchtiefe. Ein Prozessor sucht
+ * immer das Paket mit der kleinsten Suchtiefe und erhöht danach dessen Suchtiefe auf den kleinsten überschrittenen
+ * f-Wert. Ist ein Prozessor mit einer Suchtiefe fertig, beginnt er sofort mit der nächsten, während andere noch suchen.
+ *
+ * Optimalität: Findet ein Prozessor eine Lösung, sendet er deren Länge an alle (INCUMBENT). Ein Paket, dessen
+ * Suchtiefe mindestens so gross ist wie die beste bekannte Länge, kann keine kürzere Lösung mehr enthalten.
+ * Sind alle Pakete eines Prozessors so weit, meldet er DONE an den Root-Prozessor. Haben alle Prozessoren DONE
+ * gemeldet, beendet der Root-Prozessor die Suche und die kürzeste Lösung wird ermittelt.
+ *
+ * Im Report ist die Zeit pro Suchtiefe die Summe über alle Prozessoren.
+ *
+ * @author michael koch
+ */
+
+public class AsyncSolver {
+
+	private final SearchEngine engine;
+	private final SearchContext context;
+	private final ProgressEngine progress;
+	private final Transport transport;
+	private final Config config;
+	private final int units;
+	private int rank;
+	private int size;
+	private int row;
+	private int col;
+
+	//Arbeitspakete dieses Prozessors mit ihrer Suchtiefe
+	private List<State> states = new ArrayList<State>();
+	private List<Integer> bounds = new ArrayList<Integer>();
+
+	//beste bekannte Lösungslänge aller Prozessoren und eigene beste Lösung
+	private int best = Integer.MAX_VALUE;
+	private Solution solution;
+
+	//Nodes und Zeit pro Suchtiefe
+	private long[] boundNodes = new long[0];
+	private long[] boundTime = new long[0];
+
+	private IterationReport report = new IterationReport();
+	private long startTime;
+	private long elapsedTime;
+	private long nodes;
+
+	/**
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 * @param config Arbeitspakete pro Prozessor, SearchEngine und Heuristik
+	 */
+	public AsyncSolver(int row, int col, Config config) {
+		this(row, col, config, new MpjTransport());
+	}
+
+
+	/**
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 * @param config Arbeitspakete pro Prozessor, SearchEngine und Heuristik
+	 * @param transport Nachrichtenaustausch mit den anderen Prozessoren
+	 */
+	public AsyncSolver(int row, int col, Config config, Transport transport) {
+		//vor dem Start der Zeitmessung: Heuristik-Tabellen (z.B. PDB laden) und Automat,
+		//der Automat wird pro Puzzle-Grösse einmal pro JVM erzeugt
+		MovePruning pruning = config.createPruning(row, col);
+		Heuristic heuristic = null;
+		try{
+			heuristic = config.createHeuristic(row, col);
+		}catch(IOException | IllegalArgumentException e){
+			System.out.println("heuristic could not be loaded: " + e.getMessage());
+			transport.close();
+			System.exit(0);
+		}
+		this.startTime = System.currentTimeMillis();
+		this.transport = transport;
+		this.rank = transport.rank();
+		this.size = transport.size();
+		this.row = row;
+		this.col = col;
+		this.config = config;
+		this.units = Math.max(1, config.getAsyncUnits());
+
+		this.context = new SearchContext(row, col, heuristic, pruning);
+		this.progress = new ProgressEngine(new StateCodec(row, col), transport, config.getPollNodes(), config.getPollTime());
+		this.engine = EngineType.create(config.getEngine(), context, SplitPolicyType.create(config.getSplit()), config.createTable());
+
+		if(config.getTrace() != null){
+			EventTrace trace = new EventTrace(rank, Math.max(1, config.getTraceSize()));
+			trace.synchronize(transport);
+			progress.setTrace(trace);
+		}
+	}
+
+
+	/**
+	 * Löst ein NxM Puzzle
+	 *
+	 * @param puzzle
+	 * @return Gibt die Lösung zurück
+	 */
+	public Solution solve(int[] puzzle){
+
+		if(row*col != puzzle.length){
+			System.out.println("puzzleLength/row/col does not match");
+			transport.close();
+			System.exit(0);
+		}
+
+		if(!Util.isSolvable(puzzle, col)){
+			System.out.println("puzzle is not solvable");
+			transport.close();
+			System.exit(0);
+		}
+
+		//Arbeitspakete verteilen, jeder Prozessor rechnet dasselbe
+		List<State> frontier = frontier(new State(puzzle, context));
+		for(int i=0; i<frontier.size(); i++){
+			State state = frontier.get(i);
+			if(state.checkSolution()){
+				//Lösung liegt vor der Aufteilung, Breitensuche ist optimal
+				solution = rank == 0 ? new Solution(state) : null;
+				best = state.getDeep();
+				break;
+			}
+			if(i % size == rank){
+				states.add(state);
+				bounds.add(state.getHeuristic());
+			}
+		}
+
+		if(solution == null && best == Integer.MAX_VALUE){
+			search();
+		}
+
+		//kürzeste Lösung, bei gleicher Länge gewinnt der kleinste Rank
+		int length = solution == null ? Integer.MAX_VALUE : solution.getLength();
+		int shortest = transport.allreduceMin(length);
+		int winner = transport.allreduceMin(length == shortest ? rank : Integer.MAX_VALUE);
+
+		if(shortest == Integer.MAX_VALUE){
+			System.out.println("search space exhausted without solution");
+			transport.close();
+			System.exit(0);
+		}
+
+		reportBounds();
+
+		long[] localNodes = {engine.getNodes()};
+		long[] totalNodes = new long[1];
+		transport.reduceSum(localNodes, totalNodes);
+		nodes = totalNodes[0];
+		elapsedTime = System.currentTimeMillis()-startTime;
+
+		//verwirft die noch unterwegs befindlichen Nachrichten dieser Suche
+		progress.drain();
+
+		transport.barrier(); //Nur wegen println
+		if(rank==0){
+			System.out.println("elapsed time: " + String.valueOf(elapsedTime)+"ms");
+			System.out.println("nodes: " + nodes + " (" + getNodesPerSecond() + " nodes/s, "
+					+ units + " units per processor)");
+			report.print(config, context.getHeuristic());
+		}
+		transport.barrier(); //Nur wegen println
+		writeTrace();
+
+		return rank == winner ? solution : new Solution();
+	}
+
+
+	/**
+	 * Breitensuche ab dem Root-State, bis mindestens units Pakete pro Prozessor vorhanden sind
+	 *
+	 * @param root
+	 * @return States der letzten Ebene
+	 */
+	private List<State> frontier(State root){
+		List<State> frontier = new ArrayList<State>();
+		frontier.add(root);
+
+		while(frontier.size() < units*size){
+			for(State state : frontier){
+				if(state.checkSolution()){
+					return frontier;
+				}
+			}
+
+			List<State> next = new ArrayList<State>();
+			for(State state : frontier){
+				for(State child : state.expandNode(new Stack<State>(), context)){
+					//verhindere Loops des Blank
+					if(child.hasLoop()){
+						next.add(child);
+					}
+				}
+			}
+			frontier = next;
+		}
+		return frontier;
+	}
+
+
+	/**
+	 * Sucht die Pakete mit steigender Suchtiefe, bis der Root-Prozessor die Suche beendet
+	 */
+	private void search(){
+
+		boolean done = false;
+		int doneCount = 0;
+
+		while(true){
+
+			progress.poll(engine.getNodes());
+			best = Math.min(best, progress.takeIncumbent());
+
+			if(TerminationCOM.recvTermination(progress)){
+				return;
+			}
+
+			if(!done){
+				int unit = nextUnit();
+				if(unit == -1){
+					//keine kürzere Lösung mehr möglich
+					done = true;
+					if(rank == 0){
+						doneCount++;
+					}else{
+						SolutionCOM.sendDone(progress, best);
+					}
+				}else{
+					searchUnit(unit);
+				}
+			}
+
+			if(rank == 0){
+				doneCount += progress.takeDone();
+				if(doneCount == size){
+					TerminationCOM.sendTermination(progress);
+					return;
+				}
+			}
+
+			if(done){
+				Thread.yield();
+			}
+		}
+	}
+
+
+	/**
+	 * @return Paket mit der kleinsten Suchtiefe, welches noch eine kürzere Lösung enthalten kann, -1 wenn keines
+	 */
+	private int nextUnit(){
+		int unit = -1;
+		for(int i=0; i<bounds.size(); i++){
+			if(bounds.get(i) < best && (unit == -1 || bounds.get(i) < bounds.get(unit))){
+				unit = i;
+			}
+		}
+		return unit;
+	}
+
+
+	/**
+	 * Sucht ein Paket mit seiner Suchtiefe und erhöht diese danach
+	 *
+	 * @param unit Index des Pakets
+	 */
+	private void searchUnit(int unit){
+
+		int bound = bounds.get(unit);
+		long unitStart = System.currentTimeMillis();
+		long unitNodes = engine.getNodes();
+
+		engine.push(states.get(unit));
+		progress.trace(TraceEvent.DEEP_BEGIN, -1, bound);
+
+		//kleinster überschrittener f-Wert, ohne Lösung und Abbruch die nächste Suchtiefe des Pakets
+		int next = bound;
+
+		while(true){
+
+			if(engine.isEmpty()){
+				next = engine.nextBound();
+				break;
+			}
+
+			Solution found = engine.search(bound);
+			if(found != null){
+				engine.clear();
+				engine.nextBound();
+				next = Integer.MAX_VALUE;
+				if(found.getLength() < best){
+					best = found.getLength();
+					solution = found;
+					SolutionCOM.sendIncumbent(progress, best);
+				}
+				break;
+			}
+
+			if(progress.isDue(engine.getNodes())){
+				progress.poll(engine.getNodes());
+				best = Math.min(best, progress.takeIncumbent());
+
+				//das Paket kann keine kürzere Lösung mehr enthalten, die Suchtiefe bleibt
+				if(bound >= best){
+					engine.clear();
+					engine.nextBound();
+					break;
+				}
+			}
+		}
+
+		progress.trace(TraceEvent.DEEP_END, -1, bound);
+		bounds.set(unit, next);
+		countBound(bound, engine.getNodes() - unitNodes, System.currentTimeMillis() - unitStart);
+	}
+
+
+	/**
+	 * Nodes und Zeit pro Suchtiefe
+	 */
+	private void countBound(int bound, long nodes, long time){
+		if(bound >= boundNodes.length){
+			boundNodes = Arrays.copyOf(boundNodes, bound + 1);
+			boundTime = Arrays.copyOf(boundTime, bound + 1);
+		}
+		boundNodes[bound] += nodes;
+		boundTime[bound] += time;
+	}
+
+
+	/**
+	 * Summiert die Nodes und Zeit pro Suchtiefe über alle Prozessoren
+	 */
+	private void reportBounds(){
+		int length = transport.allreduceMax(boundNodes.length);
+
+		long[] nodes = new long[length];
+		long[] time = new long[length];
+		long[] localNodes = Arrays.copyOf(boundNodes, length);
+		long[] localTime = Arrays.copyOf(boundTime, length);
+		transport.reduceSum(localNodes, nodes);
+		transport.reduceSum(localTime, time);
+
+		for(int bound=0; bound<length; bound++){
+			if(nodes[bound] > 0){
+				report.add(bound, nodes[bound], time[bound]);
+			}
+		}
+	}
+
+
+	/**
+	 * Sendet die Ereignisse aller Prozessoren an den Root-Prozessor, dieser schreibt sie (siehe EventTrace)
+	 */
+	private void writeTrace(){
+		EventTrace trace = progress.getTrace();
+		if(trace == null){
+			return;
+		}
+		try{
+			trace.write(transport, config.getTrace());
+			if(rank == 0){
+				System.out.println("trace: " + config.getTrace());
+			}
+		}catch(IOException e){
+			System.out.println("trace could not be written: " + e.getMessage());
+		}
+	}
+
+
+	/**
+	 * Gesamtzahl der besuchten Nodes aller Prozessoren (nur auf dem Root-Prozessor gültig)
+	 * @return Anzahl Nodes
+	 */
+	public long getNodes(){
+		return nodes;
+	}
+
+
+	/**
+	 * Laufzeit von solve()
+	 * @return Laufzeit in ms
+	 */
+	public long getElapsedTime(){
+		return elapsedTime;
+	}
+
+
+	/**
+	 * Besuchte Nodes pro Sekunde (nur auf dem Root-Prozessor gültig)
+	 * @return nodes/s
+	 */
+	public long getNodesPerSecond(){
+		return elapsedTime == 0 ? nodes : nodes * 1000 / elapsedTime;
+	}
+
+}
@@ -0,0 +1,242 @@
+package solver;
+
+import heuristic.Heuristic;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.HashMap;
+import search.Move;
+import search.SearchContext;
+import search.Solution;
+import search.Util;
+
+/**
+ * BatchSolver löst viele Puzzles nacheinander bzw. gleichzeitig, z.B. aus einer Datei oder von stdin.
+ *
+ * Pro Zeile ein Puzzle, die Zahlen durch Leerzeichen oder Kommas getrennt. Quadratische Puzzles benötigen
+ * keine Angabe der Grösse, sonst steht sie am Anfang der Zeile, z.B. <pre>3x4 1 2 3 0 5 6 7 4 9 10 11 8</pre>
+ * Leere Zeilen und Zeilen mit # werden übersprungen.
+ *
+ * Es werden config.getInstances() Puzzles gleichzeitig gelöst, jedes mit einem ThreadSolver und config.getThreads()
+ * Threads: viele Instanzen mit je einem Thread oder eine Instanz mit allen Threads. Heuristik-Tabellen und der
+ * MovePruning-Automat werden pro Puzzle-Grösse nur einmal erzeugt und von allen Instanzen gemeinsam verwendet.
+ * Mit mehreren Prozessoren (MPJ oder LocalTransport) löst jeder Prozessor jedes size-te Puzzle.
+ *
+ * Das Resultat wird ausgegeben, sobald ein Puzzle gelöst ist (die Reihenfolge kann abweichen):
+ * <pre>12: length 43, 164879 nodes, 512ms, up down left ...</pre>
+ * Ein ungültiges Puzzle beendet den Prozess nicht, sondern erscheint als <pre>12: error puzzle is not solvable</pre>
+ *
+ * @author michael koch
+ */
+
+public class BatchSolver {
+
+	private final Config config;
+	private final PrintStream out;
+	private final int rank;
+	private final int size;
+
+	//Context pro Puzzle-Grösse, bzw. Fehler, falls die Heuristik nicht geladen werden kann
+	private final HashMap<String, SearchContext> contexts = new HashMap<String, SearchContext>();
+	private final HashMap<String, String> failures = new HashMap<String, String>();
+
+	//Eingabe, wird von den Instanzen gemeinsam gelesen
+	private BufferedReader in;
+	private int lineNumber;
+	private int puzzleNumber;
+
+	//Summe über alle gelösten Puzzles
+	private int solved;
+	private int errors;
+	private long nodes;
+
+	/**
+	 * BatchSolver für einen einzelnen Prozessor
+	 * @param config Anzahl Instanzen, Threads pro Instanz, SearchEngine und Heuristik
+	 * @param out Ausgabe der Resultate
+	 */
+	public BatchSolver(Config config, PrintStream out) {
+		this(config, out, 0, 1);
+	}
+
+
+	/**
+	 * @param config Anzahl Instanzen, Threads pro Instanz, SearchEngine und Heuristik
+	 * @param out Ausgabe der Resultate
+	 * @param rank des Prozessors
+	 * @param size Anzahl Prozessoren
+	 */
+	public BatchSolver(Config config, PrintStream out, int rank, int size) {
+		this.config = config;
+		this.out = out;
+		this.rank = rank;
+		this.size = size;
+	}
+
+
+	/**
+	 * Löst alle Puzzles der Eingabe und gibt am Ende die Summe aus
+	 *
+	 * @param in ein Puzzle pro Zeile
+	 * @throws InterruptedException
+	 */
+	public void solve(BufferedReader in) throws InterruptedException {
+		this.in = in;
+		long startTime = System.currentTimeMillis();
+
+		Thread[] instances = new Thread[Math.max(1, config.getInstances())];
+		for(int i=0; i<instances.length; i++){
+			instances[i] = new Thread(new Runnable(){
+				public void run(){
+					String[] next = next();
+					while(next != null){
+						solve(next[0], next[1]);
+						next = next();
+					}
+				}
+			});
+			instances[i].start();
+		}
+		for(Thread instance : instances){
+			instance.join();
+		}
+
+		long elapsedTime = System.currentTimeMillis() - startTime;
+		synchronized(out){
+			out.println("batch" + (size > 1 ? " (rank " + rank + ")" : "") + ": " + solved + " solved, " + errors + " errors, "
+					+ nodes + " nodes, " + elapsedTime + "ms, " + (elapsedTime == 0 ? nodes : nodes * 1000 / elapsedTime) + " nodes/s");
+		}
+	}
+
+
+	/**
+	 * Liest das nächste Puzzle dieses Prozessors
+	 * @return {Zeilennummer, Zeile} oder null am Ende der Eingabe
+	 */
+	private synchronized String[] next(){
+		try{
+			String line = in.readLine();
+			while(line != null){
+				lineNumber++;
+				line = line.trim();
+				if(!line.isEmpty() && !line.startsWith("#") && puzzleNumber++ % size == rank){
+					return new String[]{String.valueOf(lineNumber), line};
+				}
+				line = in.readLine();
+			}
+		}catch(IOException e){
+			print(String.valueOf(lineNumber + 1), "error input could not be read: " + e.getMessage(), 0, false);
+		}
+		return null;
+	}
+
+
+	/**
+	 * Löst das Puzzle einer Zeile und gibt das Resultat aus
+	 * @param number Zeilennummer
+	 * @param line
+	 */
+	private void solve(String number, String line){
+		try{
+			String[] tokens = line.split("[\\s,]+");
+			int first = 0;
+			int row;
+			int col;
+
+			if(tokens[0].matches("\\d+x\\d+")){
+				String[] dimension = tokens[0].split("x");
+				row = Integer.parseInt(dimension[0]);
+				col = Integer.parseInt(dimension[1]);
+				first = 1;
+			}else{
+				row = (int) Math.round(Math.sqrt(tokens.length));
+				col = row;
+			}
+
+			if(row*col != tokens.length - first || row < 2 || col < 2){
+				print(number, "error puzzleLength/row/col does not match", 0, false);
+				return;
+			}
+
+			int[] puzzle = new int[row*col];
+			for(int i=0; i<puzzle.length; i++){
+				puzzle[i] = Integer.parseInt(tokens[first + i]);
+			}
+
+			if(!Util.isPermutation(puzzle)){
+				print(number, "error puzzle must contain each tile from 0 to " + (puzzle.length-1) + " once", 0, false);
+				return;
+			}
+			if(!Util.isSolvable(puzzle, col)){
+				print(number, "error puzzle is not solvable", 0, false);
+				return;
+			}
+
+			SearchContext context = context(row, col);
+			if(context == null){
+				print(number, "error heuristic could not be loaded: " + failure(row, col), 0, false);
+				return;
+			}
+
+			ThreadSolver solver = new ThreadSolver(context, config);
+			solver.setQuiet(true);
+			Solution solution = solver.solve(puzzle);
+
+			StringBuilder result = new StringBuilder();
+			result.append("length ").append(solution.getLength()).append(", ").append(solver.getNodes()).append(" nodes, ")
+				.append(solver.getElapsedTime()).append("ms,");
+			for(byte move : solution.getMoves()){
+				result.append(' ').append(Move.getName(move));
+			}
+			print(number, result.toString(), solver.getNodes(), true);
+
+		}catch(NumberFormatException e){
+			print(number, "error invalid number " + e.getMessage(), 0, false);
+		}catch(RuntimeException e){
+			print(number, "error " + e, 0, false);
+		}
+	}
+
+
+	/**
+	 * Context pro Puzzle-Grösse, beim ersten Puzzle der Grösse wird die Heuristik geladen
+	 * @return Context oder null, wenn die Heuristik nicht geladen werden kann
+	 */
+	private synchronized SearchContext context(int row, int col){
+		String key = row + "x" + col;
+		if(!contexts.containsKey(key) && !failures.containsKey(key)){
+			try{
+				Heuristic heuristic = config.createHeuristic(row, col);
+				contexts.put(key, new SearchContext(row, col, heuristic, config.createPruning(row, col)));
+			}catch(IOException | IllegalArgumentException e){
+				failures.put(key, e.getMessage());
+			}
+		}
+		return contexts.get(key);
+	}
+
+
+	/**
+	 * @return Grund, weshalb die Heuristik der Puzzle-Grösse nicht geladen werden kann
+	 */
+	private synchronized String failure(int row, int col){
+		return failures.get(row + "x" + col);
+	}
+
+
+	/**
+	 * Gibt das Resultat eines Puzzles aus und zählt es zur Summe
+	 */
+	private void print(String number, String result, long puzzleNodes, boolean success){
+		synchronized(out){
+			if(success){
+				solved++;
+				nodes += puzzleNodes;
+			}else{
+				errors++;
+			}
+			out.println(number + ": " + result);
+		}
+	}
+
+}
@@ -0,0 +1,403 @@
+package solver;
+
+import heuristic.Heuristic;
+import heuristic.HeuristicType;
+import heuristic.PerimeterHeuristic;
+import heuristic.PerimeterTable;
+import java.io.IOException;
+import messagePassing.TerminationType;
+import messagePassing.VictimType;
+import search.MovePruning;
+
+/**
+ * Einstellungen des ParallelSolvers
+ * 
+ * Die Werte können im Code gesetzt oder aus der Kommandozeile gelesen werden, z.B.
+ * <pre>-engine inplace -split subtree -heuristic pdb -pdb /pfad/zu/den/tabellen</pre>
+ * 
+ * Mit <pre>-threads 64</pre> wird ohne MPJ in einer JVM mit dem ThreadSolver gesucht,
+ * mit <pre>-hybrid 64</pre> mit einem MPJ-Prozess pro Rechner und 64 Threads pro Prozess (HybridSolver).
+ * Mit <pre>-hda 4096</pre> wird mit hash-verteiltem A* statt IDA* gesucht (HdaSolver).
+ * Mit <pre>-local 8</pre> laufen 8 Ranks als Threads in einer JVM ohne MPJ (LocalTransport).
+ * Mit <pre>-batch puzzles.txt -instances 4</pre> werden alle Puzzles der Datei gelöst, 4 gleichzeitig (BatchSolver).
+ * 
+ * @author michael koch
+ */
+
+public class Config {
+
+	// siehe EngineType
+	private int engine = EngineType.STACK;
+
+	// siehe SplitPolicyType
+	private int split = SplitPolicyType.FIXED;
+
+	// siehe HeuristicType
+	private int heuristic = HeuristicType.MANHATTAN;
+
+	// Verzeichnis mit den Tabellen der Pattern-Database
+	private String patternDatabase = "pdb";
+
+	// Tiefe der Perimeter-Suche ab dem Ziel (siehe PerimeterTable), 0 = ohne, PerimeterTable.AUTO = aus dem freien Speicher
+	private int perimeter = 0;
+
+	// Anzahl Threads des ThreadSolvers bzw. pro Prozess des HybridSolvers, 0 = MPJ
+	private int threads = 0;
+
+	// MPJ und Threads kombinieren
+	private boolean hybrid = false;
+
+	// siehe TerminationType
+	private int termination = TerminationType.RING;
+
+	// siehe VictimType
+	private int victim = VictimType.RANDOM;
+
+	// Zeit in ms, nach welcher ein unbeantworteter WORK-Request wiederholt wird, 0 = nie
+	private int stealTimeout = 100;
+
+	// Arbeitspakete pro Prozessor beim asynchronen IDA* (AsyncSolver), 0 = synchrones IDA*
+	private int asyncUnits = 0;
+
+	// Expansionen pro Prozessor und Runde beim hash-verteilten A* (HdaSolver), 0 = IDA*
+	private int hdaBatch = 0;
+
+	// Grösse der Transpositionstabelle: 2^tableBits Einträge, 0 = ohne
+	private int tableBits = 0;
+
+	// eine Transpositionstabelle für alle Threads eines Prozesses statt einer pro Thread
+	private boolean sharedTable = false;
+
+	// Länge der längsten redundanten Bewegungsfolge im MovePruning-Automaten, 0 = nur das Zurückschieben des Blanks verhindern
+	private int pruningLength = MovePruning.DEFAULT_LENGTH;
+
+	// Anzahl Nodes zwischen zwei Abfragen der Nachrichten (siehe ProgressEngine)
+	private int pollNodes = 256;
+
+	// Zeit in ms zwischen zwei Abfragen der Nachrichten, 0 = nur nach Nodes
+	private int pollTime = 0;
+
+	// Anzahl Ranks als Threads in einer JVM (LocalTransport), 0 = MPJ
+	private int localRanks = 0;
+
+	// Datei mit einem Puzzle pro Zeile für den BatchSolver, "-" = stdin, null = ein einzelnes Puzzle
+	private String batch = null;
+
+	// Anzahl gleichzeitig gelöster Puzzles pro Prozessor im BatchSolver
+	private int instances = 1;
+
+	// Datei für die Zähler pro Iteration (siehe MetricsReport), .json oder .csv, null = ohne
+	private String metrics = null;
+
+	// Datei für die Ereignisse aller Prozessoren im Chrome-Trace-Format (siehe EventTrace), null = ohne
+	private String trace = null;
+
+	// Anzahl Ereignisse im Ringbuffer pro Prozessor
+	private int traceSize = 65536;
+
+	/**
+	 * Liest die Einstellungen aus den Programm-Argumenten (nach MPI.Init).
+	 * Unbekannte Argumente werden ignoriert.
+	 * 
+	 * @param args
+	 * @return Config
+	 */
+	public static Config parse(String[] args){
+		Config config = new Config();
+
+		for(int i=0; i<args.length-1; i++){
+			if(args[i].equals("-engine")){
+				config.setEngine(EngineType.parse(args[++i]));
+			}else if(args[i].equals("-split")){
+				config.setSplit(SplitPolicyType.parse(args[++i]));
+			}else if(args[i].equals("-heuristic")){
+				config.setHeuristic(HeuristicType.parse(args[++i]));
+			}else if(args[i].equals("-pdb")){
+				config.setPatternDatabase(args[++i]);
+			}else if(args[i].equals("-perimeter")){
+				String depth = args[++i];
+				config.setPerimeter(depth.equals("auto") ? PerimeterTable.AUTO : Integer.parseInt(depth));
+			}else if(args[i].equals("-threads")){
+				config.setThreads(Integer.parseInt(args[++i]));
+			}else if(args[i].equals("-hybrid")){
+				config.setThreads(Integer.parseInt(args[++i])).setHybrid(true);
+			}else if(args[i].equals("-termination")){
+				config.setTermination(TerminationType.parse(args[++i]));
+			}else if(args[i].equals("-victim")){
+				config.setVictim(VictimType.parse(args[++i]));
+			}else if(args[i].equals("-stealtimeout")){
+				config.setStealTimeout(Integer.parseInt(args[++i]));
+			}else if(args[i].equals("-async")){
+				config.setAsyncUnits(Integer.parseInt(args[++i]));
+			}else if(args[i].equals("-hda")){
+				config.setHdaBatch(Integer.parseInt(args[++i]));
+			}else if(args[i].equals("-tt")){
+				config.setTableBits(Integer.parseInt(args[++i])).setSharedTable(false);
+			}else if(args[i].equals("-ttshared")){
+				config.setTableBits(Integer.parseInt(args[++i])).setSharedTable(true);
+			}else if(args[i].equals("-fsm")){
+				config.setPruningLength(Integer.parseInt(args[++i]));
+			}else if(args[i].equals("-poll")){
+				config.setPollNodes(Integer.parseInt(args[++i]));
+			}else if(args[i].equals("-pollms")){
+				config.setPollTime(Integer.parseInt(args[++i]));
+			}else if(args[i].equals("-local")){
+				config.setLocalRanks(Integer.parseInt(args[++i]));
+			}else if(args[i].equals("-batch")){
+				config.setBatch(args[++i]);
+			}else if(args[i].equals("-instances")){
+				config.setInstances(Integer.parseInt(args[++i]));
+			}else if(args[i].equals("-metrics")){
+				config.setMetrics(args[++i]);
+			}else if(args[i].equals("-trace")){
+				config.setTrace(args[++i]);
+			}else if(args[i].equals("-tracesize")){
+				config.setTraceSize(Integer.parseInt(args[++i]));
+			}
+		}
+		return config;
+	}
+
+	public int getEngine() {
+		return engine;
+	}
+
+	public Config setEngine(int engine) {
+		this.engine = engine;
+		return this;
+	}
+
+	public int getSplit() {
+		return split;
+	}
+
+	public Config setSplit(int split) {
+		this.split = split;
+		return this;
+	}
+
+	public int getHeuristic() {
+		return heuristic;
+	}
+
+	public Config setHeuristic(int heuristic) {
+		this.heuristic = heuristic;
+		return this;
+	}
+
+	public String getPatternDatabase() {
+		return patternDatabase;
+	}
+
+	public Config setPatternDatabase(String patternDatabase) {
+		this.patternDatabase = patternDatabase;
+		return this;
+	}
+
+	public int getPerimeter() {
+		return perimeter;
+	}
+
+	public Config setPerimeter(int perimeter) {
+		this.perimeter = perimeter;
+		return this;
+	}
+
+	/**
+	 * Erzeugt die Heuristik, mit Perimeter-Suche falls eingestellt.
+	 * Die PerimeterTable wird pro Puzzle-Grösse nur einmal erzeugt.
+	 * @param row
+	 * @param col
+	 * @return Heuristik
+	 * @throws IOException falls die Tabellen der Pattern-Database nicht gelesen werden können
+	 */
+	Heuristic createHeuristic(int row, int col) throws IOException {
+		Heuristic function = HeuristicType.create(heuristic, row, col, patternDatabase);
+		if(perimeter == 0){
+			return function;
+		}
+		PerimeterTable table = PerimeterTable.get(row, col, perimeter, Runtime.getRuntime().availableProcessors());
+		return new PerimeterHeuristic(function, table, row, col);
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public Config setThreads(int threads) {
+		this.threads = threads;
+		return this;
+	}
+
+	public boolean isHybrid() {
+		return hybrid;
+	}
+
+	public Config setHybrid(boolean hybrid) {
+		this.hybrid = hybrid;
+		return this;
+	}
+
+	public int getTermination() {
+		return termination;
+	}
+
+	public Config setTermination(int termination) {
+		this.termination = termination;
+		return this;
+	}
+
+	public int getVictim() {
+		return victim;
+	}
+
+	public Config setVictim(int victim) {
+		this.victim = victim;
+		return this;
+	}
+
+	public int getStealTimeout() {
+		return stealTimeout;
+	}
+
+	public Config setStealTimeout(int stealTimeout) {
+		this.stealTimeout = stealTimeout;
+		return this;
+	}
+
+	public int getAsyncUnits() {
+		return asyncUnits;
+	}
+
+	public Config setAsyncUnits(int asyncUnits) {
+		this.asyncUnits = asyncUnits;
+		return this;
+	}
+
+	public int getHdaBatch() {
+		return hdaBatch;
+	}
+
+	public Config setHdaBatch(int hdaBatch) {
+		this.hdaBatch = hdaBatch;
+		return this;
+	}
+
+	public int getTableBits() {
+		return tableBits;
+	}
+
+	public Config setTableBits(int tableBits) {
+		this.tableBits = tableBits;
+		return this;
+	}
+
+	public boolean isSharedTable() {
+		return sharedTable;
+	}
+
+	public Config setSharedTable(boolean sharedTable) {
+		this.sharedTable = sharedTable;
+		return this;
+	}
+
+	/**
+	 * Erzeugt die Transpositionstabelle einer SearchEngine
+	 * @return Transpositionstabelle oder null
+	 */
+	TranspositionTable createTable() {
+		return tableBits > 0 ? new LocalTranspositionTable(tableBits) : null;
+	}
+
+	public int getPruningLength() {
+		return pruningLength;
+	}
+
+	public Config setPruningLength(int pruningLength) {
+		this.pruningLength = pruningLength;
+		return this;
+	}
+
+	/**
+	 * Automat gegen redundante Bewegungsfolgen, wird pro Puzzle-Grösse und Länge einmal pro JVM erzeugt
+	 * @param row
+	 * @param col
+	 * @return Automat oder null
+	 */
+	MovePruning createPruning(int row, int col) {
+		return pruningLength > 0 ? MovePruning.get(row, col, pruningLength) : null;
+	}
+
+	public int getPollNodes() {
+		return pollNodes;
+	}
+
+	public Config setPollNodes(int pollNodes) {
+		this.pollNodes = pollNodes;
+		return this;
+	}
+
+	public int getPollTime() {
+		return pollTime;
+	}
+
+	public Config setPollTime(int pollTime) {
+		this.pollTime = pollTime;
+		return this;
+	}
+
+	public int getLocalRanks() {
+		return localRanks;
+	}
+
+	public Config setLocalRanks(int localRanks) {
+		this.localRanks = localRanks;
+		return this;
+	}
+
+	public String getBatch() {
+		return batch;
+	}
+
+	public Config setBatch(String batch) {
+		this.batch = batch;
+		return this;
+	}
+
+	public int getInstances() {
+		return instances;
+	}
+
+	public Config setInstances(int instances) {
+		this.instances = instances;
+		return this;
+	}
+
+	public String getMetrics() {
+		return metrics;
+	}
+
+	public Config setMetrics(String metrics) {
+		this.metrics = metrics;
+		return this;
+	}
+
+	public String getTrace() {
+		return trace;
+	}
+
+	public Config setTrace(String trace) {
+		this.trace = trace;
+		return this;
+	}
+
+	public int getTraceSize() {
+		return traceSize;
+	}
+
+	public Config setTraceSize(int traceSize) {
+		this.traceSize = traceSize;
+		return this;
+	}
+
+}
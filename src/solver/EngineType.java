@@ -0,0 +1,69 @@
+package solver;
+
+import search.SearchContext;
+
+/**
+ * Verfügbare SearchEngines
+ * 
+ * @author michael koch
+ *
+ */
+
+public class EngineType {
+
+	// Stack mit State-Objekten (ursprüngliche Implementation)
+	public static final int STACK = 0;
+
+	// Ein einziges Puzzle, Bewegungen werden angewendet und beim Backtracking rückgängig gemacht
+	public static final int INPLACE = 1;
+
+	/**
+	 * Bestimmt den EngineType aus dem Namen
+	 * @param name "stack" oder "inplace"
+	 * @return EngineType
+	 */
+	public static int parse(String name){
+		if(name.equals("stack")){
+			return STACK;
+		}else if(name.equals("inplace")){
+			return INPLACE;
+		}
+		throw new IllegalArgumentException("unknown engine: " + name);
+	}
+
+	/**
+	 * Bezeichnung des EngineType
+	 * @param engine
+	 * @return Name
+	 */
+	public static String getName(int engine){
+		return engine == INPLACE ? "inplace" : "stack";
+	}
+
+	/**
+	 * Erzeugt eine SearchEngine
+	 * @param engine EngineType
+	 * @param context Dimension und Heuristik
+	 * @param policy SplitPolicy der Engine
+	 * @return SearchEngine
+	 */
+	public static SearchEngine create(int engine, SearchContext context, SplitPolicy policy){
+		return create(engine, context, policy, null);
+	}
+
+	/**
+	 * Erzeugt eine SearchEngine mit Transpositionstabelle
+	 * @param engine EngineType
+	 * @param context Dimension und Heuristik
+	 * @param policy SplitPolicy der Engine
+	 * @param table Transpositionstabelle, null = ohne
+	 * @return SearchEngine
+	 */
+	public static SearchEngine create(int engine, SearchContext context, SplitPolicy policy, TranspositionTable table){
+		if(engine == INPLACE){
+			return new InPlaceEngine(context, policy, table);
+		}
+		return new StackEngine(context, policy, table);
+	}
+
+}
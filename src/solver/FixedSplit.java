@@ -0,0 +1,45 @@
+package solver;
+
+import java.util.Stack;
+import search.State;
+
+/**
+ * Ursprüngliche Aufteilung: ab mehr als 10 States wird jeder zweite State des Stacks abgegeben
+ * 
+ * @author michael koch
+ */
+
+public class FixedSplit implements SplitPolicy {
+
+	private final int cutoff;
+
+	public FixedSplit(){
+		this(10);
+	}
+
+	/**
+	 * @param cutoff es wird geteilt, wenn mehr als cutoff States offen sind
+	 */
+	public FixedSplit(int cutoff){
+		this.cutoff = cutoff;
+	}
+
+	@Override
+	public boolean canShare(int size) {
+		return size > cutoff;
+	}
+
+	@Override
+	public State[] split(Stack<State> stack, int deeplimit) {
+		boolean[] give = new boolean[stack.size()];
+		for(int i=1; i<give.length; i+=2){
+			give[i] = true;
+		}
+		return SplitPolicyType.remove(stack, give);
+	}
+
+	@Override
+	public void idle(long time) {
+	}
+
+}
@@ -0,0 +1,443 @@
+package solver;
+
+import heuristic.Board;
+import heuristic.Heuristic;
+import java.io.IOException;
+import java.util.Arrays;
+import messagePassing.MpjTransport;
+import messagePassing.Tag;
+import messagePassing.Transport;
+import search.Move;
+import search.MoveTable;
+import search.PackedBoard;
+import search.SearchContext;
+import search.Solution;
+import search.State;
+import search.Util;
+
+/**
+ * HdaSolver lösst ein NxM Puzzle mit hash-verteiltem A* (HDA*) statt IDA*.
+ *
+ * Jedes Puzzle gehört dem Prozessor, welcher sich aus dem Hash des gepackten Puzzles ergibt. Nur dieser
+ * hält es in seiner Tabelle (StateTable: Tiefe, Heuristik, Bewegung vom Parent) und in seiner Open-Liste
+ * (OpenList: ein Bucket pro f-Wert). Ein Puzzle wird so im ganzen Cluster nur einmal expandiert.
+ *
+ * Die Suche läuft in Runden: jeder Prozessor expandiert bis zu config.getHdaBatch() States mit dem kleinsten f
+ * aller Prozessoren (grössere f erst, wenn dieses erledigt ist, sonst wird spekulativ zu viel expandiert), sammelt die Childs pro Besitzer und sendet am Ende der Runde jedem anderen Prozessor einen Batch (BATCH).
+ * Danach werden die beste gefundene Lösung und das kleinste f aller Open-Listen kombiniert. Ist das kleinste f
+ * nicht kleiner als die Lösung, ist diese optimal. Der Pfad wird zum Schluss vom Ziel rückwärts über die
+ * Besitzer der Parents zusammengesetzt.
+ *
+ * Ohne Duplikate braucht HDA* auf kleinen Puzzles (3x3, 3x4, 4x3) viel weniger Nodes als IDA*, dafür Speicher
+ * für alle besuchten Puzzles. Wird der Speicher auf einem Prozessor knapp, suchen alle mit IDA* (ParallelSolver)
+ * weiter. Das Puzzle muss gepackt in einen long passen (bis 16 Felder).
+ *
+ * @author michael koch
+ */
+
+public class HdaSolver {
+
+	//Aufbau der Einträge der StateTable: Tiefe << 16 | Heuristik << 8 | CLOSED | Bewegung vom Parent
+	private static final int CLOSED = 8;
+	private static final int ROOT = 4;
+
+	private final SearchContext context;
+	private final Heuristic heuristic;
+	private final MoveTable moveTable;
+	private final Transport transport;
+	private final Config config;
+	private final int rank;
+	private final int size;
+	private final int row;
+	private final int col;
+
+	private StateTable table = new StateTable(1 << 16);
+	private OpenList open = new OpenList();
+
+	//Childs pro Besitzer: gepacktes Puzzle, Eintrag
+	private long[][] outbox;
+	private int[] outboxCount;
+
+	//empfangener Batch: pro Runde höchstens 4 Childs pro expandiertem State mit je 2 longs
+	private long[] inbox;
+
+	//Zielkonfiguration und beste bekannte Lösungslänge
+	private long goal;
+	private int incumbent = Integer.MAX_VALUE;
+
+	//kleinstes f aller Open-Listen nach der letzten Runde, grössere f werden erst in einer späteren Runde expandiert
+	private int layer;
+
+	//Board-Sicht auf das gepackte Child für die Heuristik
+	private final PackedView view = new PackedView();
+
+	private long startTime;
+	private long elapsedTime;
+	private long expanded;
+	private long nodes;
+	private int rounds;
+
+	/**
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 * @param config Expansionen pro Runde und Heuristik
+	 */
+	public HdaSolver(int row, int col, Config config) {
+		this(row, col, config, new MpjTransport());
+	}
+
+
+	/**
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 * @param config Expansionen pro Runde und Heuristik
+	 * @param transport Nachrichtenaustausch mit den anderen Prozessoren
+	 */
+	public HdaSolver(int row, int col, Config config, Transport transport) {
+		//vor dem Start der Zeitmessung, z.B. PDB laden
+		Heuristic heuristic = null;
+		try{
+			heuristic = config.createHeuristic(row, col);
+		}catch(IOException | IllegalArgumentException e){
+			System.out.println("heuristic could not be loaded: " + e.getMessage());
+			transport.close();
+			System.exit(0);
+		}
+		this.startTime = System.currentTimeMillis();
+		this.transport = transport;
+		this.rank = transport.rank();
+		this.size = transport.size();
+		this.row = row;
+		this.col = col;
+		this.config = config;
+
+		this.heuristic = heuristic;
+		this.context = new SearchContext(row, col, heuristic, null);
+		this.moveTable = context.getMoveTable();
+
+		this.outbox = new long[size][1024];
+		this.outboxCount = new int[size];
+		this.inbox = new long[8 * Math.max(1, config.getHdaBatch())];
+	}
+
+
+	/**
+	 * Löst ein NxM Puzzle
+	 *
+	 * @param puzzle
+	 * @return Gibt die Lösung zurück (auf dem Root-Prozessor)
+	 */
+	public Solution solve(int[] puzzle){
+
+		if(row*col != puzzle.length){
+			System.out.println("puzzleLength/row/col does not match");
+			transport.close();
+			System.exit(0);
+		}
+
+		if(!Util.isSolvable(puzzle, col)){
+			System.out.println("puzzle is not solvable");
+			transport.close();
+			System.exit(0);
+		}
+
+		if(!PackedBoard.fits(puzzle.length)){
+			if(rank == 0){
+				System.out.println("hda: puzzle has more than " + PackedBoard.MAX_PACKED_LENGTH + " fields, using IDA*");
+			}
+			return fallback(puzzle);
+		}
+
+		int[] target = new int[puzzle.length];
+		for(int i=0; i<target.length-1; i++){
+			target[i] = i+1;
+		}
+		goal = PackedBoard.pack(target);
+
+		long root = PackedBoard.pack(puzzle);
+		layer = heuristic.evaluate(puzzle);
+		if(owner(root) == rank){
+			insert(root, 0, layer, ROOT);
+		}
+
+		while(true){
+			expand(Math.max(1, config.getHdaBatch()));
+			exchange();
+			rounds++;
+
+			incumbent = transport.allreduceMin(incumbent);
+			int minF = transport.allreduceMin(open.minF());
+			layer = minF;
+			boolean low = transport.allreduceMax(isMemoryLow() ? 1 : 0) == 1;
+
+			if(incumbent == Integer.MAX_VALUE && minF == Integer.MAX_VALUE){
+				System.out.println("search space exhausted without solution");
+				transport.close();
+				System.exit(0);
+			}
+
+			//kein offener State kann eine kürzere Lösung ergeben
+			if(minF >= incumbent){
+				break;
+			}
+
+			if(low){
+				if(rank == 0){
+					System.out.println("hda: memory low after " + rounds + " rounds, using IDA*");
+				}
+				return fallback(puzzle);
+			}
+		}
+
+		byte[] moves = path();
+
+		long[] local = {expanded, table.size()};
+		long[] total = new long[2];
+		transport.reduceSum(local, total);
+		nodes = total[0];
+		elapsedTime = System.currentTimeMillis()-startTime;
+
+		transport.barrier(); //Nur wegen println
+		if(rank==0){
+			System.out.println("elapsed time: " + String.valueOf(elapsedTime)+"ms");
+			System.out.println("nodes: " + nodes + " (" + getNodesPerSecond() + " nodes/s, " + rounds + " rounds, "
+					+ total[1] + " states stored)");
+		}
+		transport.barrier(); //Nur wegen println
+
+		return rank == 0 ? new Solution(new State(puzzle, context), moves, moves.length) : new Solution();
+	}
+
+
+	/**
+	 * Expandiert bis zu budget States mit dem kleinsten f, solange dieses kleiner als die beste Lösung ist
+	 * @param budget
+	 */
+	private void expand(int budget){
+
+		for(int n=0; n<budget; n++){
+
+			int f = open.minF();
+			if(f >= incumbent || f > layer){
+				return;
+			}
+			long board = open.pop();
+
+			//veralteter Eintrag: bereits expandiert oder später mit kleinerer Tiefe eingefügt
+			int entry = table.get(board);
+			if((entry & CLOSED) != 0 || (entry >>> 16) + ((entry >>> 8) & 0xFF) != f){
+				continue;
+			}
+			table.put(board, entry | CLOSED);
+			expanded++;
+
+			int g = (entry >>> 16) + 1;
+			int h = (entry >>> 8) & 0xFF;
+			int parentMove = entry & 7;
+			int blank = blank(board);
+
+			for(int i=moveTable.first(blank); i<moveTable.end(blank); i++){
+				byte move = moveTable.move(i);
+				if(parentMove != ROOT && move == Move.opposite(parentMove)){
+					continue;
+				}
+
+				int pos = moveTable.target(i);
+				int tile = PackedBoard.get(board, pos);
+				long child = PackedBoard.move(board, blank, pos);
+				view.board = child;
+				int childH = heuristic.update(h, view, tile, pos, blank);
+
+				if(g + childH >= incumbent){
+					continue;
+				}
+
+				int owner = owner(child);
+				if(owner == rank){
+					insert(child, g, childH, move);
+				}else{
+					send(owner, child, g << 16 | childH << 8 | move);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Übernimmt ein Puzzle, dessen Besitzer dieser Prozessor ist
+	 */
+	private void insert(long board, int g, int h, int move){
+		if(g + h >= incumbent){
+			return;
+		}
+
+		int entry = table.get(board);
+		if(entry != -1 && (entry >>> 16) <= g){
+			return;
+		}
+
+		if(board == goal){
+			table.put(board, g << 16 | CLOSED | move);
+			incumbent = g;
+			return;
+		}
+
+		table.put(board, g << 16 | h << 8 | move);
+		open.push(board, g + h);
+	}
+
+
+	/**
+	 * Legt ein Child für einen anderen Prozessor in dessen Batch
+	 */
+	private void send(int owner, long board, int entry){
+		int count = outboxCount[owner];
+		if(count + 2 > outbox[owner].length){
+			outbox[owner] = Arrays.copyOf(outbox[owner], 2*outbox[owner].length);
+		}
+		outbox[owner][count] = board;
+		outbox[owner][count + 1] = entry;
+		outboxCount[owner] = count + 2;
+	}
+
+
+	/**
+	 * Sendet jedem anderen Prozessor seinen Batch (auch leer) und übernimmt die empfangenen Childs.
+	 *
+	 * Die Batches werden blockierend pro Absender empfangen, ohne ProgressEngine: HDA* verwendet weder Worker
+	 * noch Token, jeder Prozessor sendet pro Runde genau einen Batch an jeden anderen, bevor er empfängt.
+	 * Die Runden sind durch die kollektiven Operationen getrennt.
+	 */
+	private void exchange(){
+		for(int dest=0; dest<size; dest++){
+			if(dest != rank){
+				transport.isend(outbox[dest], outboxCount[dest], dest, Tag.BATCH);
+			}
+		}
+
+		for(int source=0; source<size; source++){
+			if(source != rank){
+				int count = transport.recv(inbox, inbox.length, source, Tag.BATCH);
+				for(int i=0; i<count; i+=2){
+					int entry = (int) inbox[i + 1];
+					insert(inbox[i], entry >>> 16, (entry >>> 8) & 0xFF, entry & 7);
+				}
+			}
+		}
+
+		//erst danach dürfen die Outboxen wieder gefüllt werden
+		transport.waitSend();
+		Arrays.fill(outboxCount, 0);
+	}
+
+
+	/**
+	 * Setzt die Lösung vom Ziel rückwärts zusammen. Der Besitzer des aktuellen Puzzles kennt die Bewegung
+	 * vom Parent, alle anderen Prozessoren erhalten sie mit allreduceMax.
+	 *
+	 * @return Bewegungen ab dem Root-State
+	 */
+	private byte[] path(){
+		byte[] moves = new byte[incumbent];
+		int length = 0;
+		long board = goal;
+
+		while(true){
+			int move = owner(board) == rank ? table.get(board) & 7 : -1;
+			move = transport.allreduceMax(move);
+			if(move == ROOT){
+				break;
+			}
+
+			moves[moves.length - 1 - length++] = (byte) move;
+
+			//Parent: das Blank steht vor der Bewegung auf der Gegenseite
+			int blank = blank(board);
+			board = PackedBoard.move(board, blank, moveTable.neighbor(blank, Move.opposite(move)));
+		}
+		return Arrays.copyOfRange(moves, moves.length - length, moves.length);
+	}
+
+
+	/**
+	 * Speicher ist knapp, wenn weniger als ein Achtel frei ist oder die StateTable nicht mehr wachsen kann
+	 */
+	private boolean isMemoryLow(){
+		Runtime runtime = Runtime.getRuntime();
+		long free = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+		return free < runtime.maxMemory() / 8 || table.getGrowBytes() > free / 2;
+	}
+
+
+	/**
+	 * Gibt den Speicher frei und löst das Puzzle mit IDA*
+	 */
+	private Solution fallback(int[] puzzle){
+		table = null;
+		open = null;
+		outbox = null;
+		inbox = null;
+		return new ParallelSolver(row, col, config, transport).solve(puzzle);
+	}
+
+
+	/**
+	 * @return Prozessor, welchem das Puzzle gehört
+	 */
+	private int owner(long board){
+		long h = board * 0xC2B2AE3D27D4EB4FL;
+		h ^= h >>> 29;
+		return (int) ((h >>> 33) % size);
+	}
+
+
+	private static int blank(long board){
+		for(int pos=0; ; pos++){
+			if(PackedBoard.get(board, pos) == 0){
+				return pos;
+			}
+		}
+	}
+
+
+	/**
+	 * Besuchte Nodes aller Prozessoren (nur auf dem Root-Prozessor gültig)
+	 * @return Anzahl Nodes
+	 */
+	public long getNodes(){
+		return nodes;
+	}
+
+
+	/**
+	 * Laufzeit von solve()
+	 * @return Laufzeit in ms
+	 */
+	public long getElapsedTime(){
+		return elapsedTime;
+	}
+
+
+	/**
+	 * Besuchte Nodes pro Sekunde (nur auf dem Root-Prozessor gültig)
+	 * @return nodes/s
+	 */
+	public long getNodesPerSecond(){
+		return elapsedTime == 0 ? nodes : nodes * 1000 / elapsedTime;
+	}
+
+
+	/**
+	 * Board-Sicht auf ein gepacktes Puzzle
+	 */
+	private static class PackedView implements Board {
+
+		long board;
+
+		@Override
+		public int getTile(int pos) {
+			return PackedBoard.get(board, pos);
+		}
+	}
+
+}
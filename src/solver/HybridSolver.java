@@ -0,0 +1,413 @@
+package solver;
+
+import heuristic.Heuristic;
+import java.io.IOException;
+import messagePassing.EventTrace;
+import messagePassing.MpjTransport;
+import messagePassing.ProgressEngine;
+import messagePassing.SolutionCOM;
+import messagePassing.TerminationCOM;
+import messagePassing.TerminationDetector;
+import messagePassing.TerminationType;
+import messagePassing.TraceEvent;
+import messagePassing.Transport;
+import messagePassing.VictimType;
+import messagePassing.Worker;
+import search.MovePruning;
+import search.SearchContext;
+import search.Solution;
+import search.State;
+import search.StateCodec;
+import search.Util;
+
+/**
+ * HybridSolver lösst ein NxM Puzzle mit einem MPJ-Prozess pro Rechner und mehreren Threads pro Prozess.
+ *
+ * Innerhalb eines Prozesses stehlen sich die Threads die Arbeit gegenseitig (siehe WorkStealingPool),
+ * ohne Serialisierung. Nur der Thread, welcher solve() aufruft, kommuniziert über MPJ: er beantwortet
+ * WORK-Requests anderer Rechner, fordert Arbeit an, sobald der ganze Pool IDLE ist, und betreibt den TokenRing.
+ * Der TokenRing besteht so nur noch aus einem Prozessor pro Rechner.
+ *
+ * @author michael koch
+ */
+
+public class HybridSolver {
+
+	private final WorkStealingPool pool;
+	private final SearchContext context;
+	private final Worker worker;
+	private final ProgressEngine progress;
+	private final Transport transport;
+	private final TerminationDetector termination;
+	private final Config config;
+	private final int threads;
+	private int deep;
+	private int rank;
+	private int row;
+	private int col;
+
+	private Solution solution;
+	private IterationReport report = new IterationReport();
+
+	//Zähler pro Iteration (nur mit config.getMetrics()), Wartezeit des Pools in der aktuellen Iteration und bisherige Umläufe
+	private MetricsReport metrics;
+	private long idleSince;
+	private long idleTime;
+	private long laps;
+	private long startTime;
+	private long elapsedTime;
+	private long nodes;
+
+	/**
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 * @param config Anzahl Threads pro Prozess, SearchEngine und Heuristik
+	 */
+	public HybridSolver(int row, int col, Config config) {
+		this(row, col, config, new MpjTransport());
+	}
+
+
+	/**
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 * @param config Anzahl Threads pro Prozess, SearchEngine und Heuristik
+	 * @param transport Nachrichtenaustausch mit den anderen Prozessoren
+	 */
+	public HybridSolver(int row, int col, Config config, Transport transport) {
+		//vor dem Start der Zeitmessung: Heuristik-Tabellen (z.B. PDB laden) und Automat,
+		//der Automat wird pro Puzzle-Grösse einmal pro JVM erzeugt
+		MovePruning pruning = config.createPruning(row, col);
+		Heuristic heuristic = null;
+		try{
+			heuristic = config.createHeuristic(row, col);
+		}catch(IOException | IllegalArgumentException e){
+			System.out.println("heuristic could not be loaded: " + e.getMessage());
+			transport.close();
+			System.exit(0);
+		}
+		this.startTime = System.currentTimeMillis();
+		this.transport = transport;
+		this.rank = transport.rank();
+		this.row = row;
+		this.col = col;
+		this.config = config;
+		this.threads = Math.max(1, config.getThreads());
+
+		this.context = new SearchContext(row, col, heuristic, pruning);
+		StateCodec codec = new StateCodec(row, col);
+		this.progress = new ProgressEngine(codec, transport, config.getPollNodes(), config.getPollTime());
+		this.worker = new Worker(rank, codec, progress, VictimType.create(config.getVictim(), transport), config.getStealTimeout());
+		this.termination = TerminationType.create(config.getTermination(), rank, worker, progress);
+
+		if(config.getTrace() != null){
+			EventTrace trace = new EventTrace(rank, Math.max(1, config.getTraceSize()));
+			trace.synchronize(transport);
+			progress.setTrace(trace);
+		}
+		this.pool = new WorkStealingPool(context, config, threads, false);
+	}
+
+
+	/**
+	 * Löst ein NxM Puzzle
+	 *
+	 * @param puzzle
+	 * @return Gibt die Lösung zurück
+	 */
+	public Solution solve(int[] puzzle){
+
+		if(row*col != puzzle.length){
+			System.out.println("puzzleLength/row/col does not match");
+			transport.close();
+			System.exit(0);
+		}
+
+		if(!Util.isSolvable(puzzle, col)){
+			System.out.println("puzzle is not solvable");
+			transport.close();
+			System.exit(0);
+		}
+
+		State root = new State(puzzle, context);
+		deep = root.getHeuristic();
+
+		while(solution == null){
+
+			if(rank == 0){
+				pool.push(root);
+				termination.start();
+			}
+
+			long iterationStart = System.currentTimeMillis();
+			long iterationNodes = pool.getNodes();
+
+			progress.trace(TraceEvent.DEEP_BEGIN, -1, deep);
+			pool.start(deep);
+			try{
+				solution = idaStar();
+			}finally{
+				pool.finish();
+				pool.await();
+			}
+			if(idleSince != 0){
+				progress.trace(TraceEvent.IDLE_END, -1, 0);
+			}
+			progress.trace(TraceEvent.DEEP_END, -1, deep);
+
+			long iterationTime = System.currentTimeMillis() - iterationStart;
+			if(config.getMetrics() != null){
+				collectMetrics(deep, iterationTime);
+			}
+			reportIteration(deep, pool.getNodes() - iterationNodes, iterationTime);
+
+			if(solution == null){
+				deep = nextBound();
+			}
+		}
+
+		//Summe der besuchten Nodes aller Rechner
+		long[] localNodes = {pool.getNodes()};
+		long[] totalNodes = new long[1];
+		transport.reduceSum(localNodes, totalNodes);
+		nodes = totalNodes[0];
+		elapsedTime = System.currentTimeMillis()-startTime;
+
+		//verwirft die noch unterwegs befindlichen Nachrichten dieser Suche
+		progress.drain();
+
+		transport.barrier(); //Nur wegen println
+		if(rank==0){
+			System.out.println("elapsed time: " + String.valueOf(elapsedTime)+"ms");
+			System.out.println("nodes: " + nodes + " (" + getNodesPerSecond() + " nodes/s, "
+					+ transport.size() + "x" + threads + " threads)");
+			report.print(config, context.getHeuristic());
+			writeMetrics();
+		}
+		transport.barrier(); //Nur wegen println
+		writeTrace();
+
+		return solution;
+	}
+
+
+	/**
+	 * Kommunikations-Schleife einer Suchtiefe. Die Threads des Pools suchen währenddessen.
+	 *
+	 * @return gibt die Lösung zurück, null wenn die Suchtiefe erledigt ist
+	 */
+	private Solution idaStar(){
+
+		worker.reset();
+		idleSince = 0;
+		idleTime = 0;
+
+		//Rechner, dessen WORK-Request noch nicht beantwortet ist
+		int receiver = -1;
+
+		while(true){
+
+			//ein Thread hat die Lösung gefunden
+			if(pool.getSolution() != null){
+				SolutionCOM.foundSolution(progress);
+				return pool.getSolution();
+			}
+
+			//der Kommunikations-Thread sucht nicht selbst und pollt bei jedem Durchlauf
+			progress.poll(0);
+
+			//verteile Arbeit an einen IDLE-Rechner
+			if(receiver == -1){
+				receiver = worker.recvWorkRequest();
+				if(receiver != -1){
+					pool.idle(worker.getRequestWait());
+				}
+			}
+			if(receiver != -1){
+				pool.setDemand(true);
+				State[] sharedStates = pool.split();
+				if(sharedStates.length > 0){
+					worker.sendWork(sharedStates, receiver);
+					receiver = -1;
+					pool.setDemand(false);
+				}else if(pool.isIdle()){
+					worker.sendNoWork(receiver, 0);
+					receiver = -1;
+					pool.setDemand(false);
+				}
+			}
+
+			//prüfe, ob ein anderer Rechner die Lösung gefunden hat
+			if(SolutionCOM.checkSolution(progress)){
+				return new Solution();
+			}
+
+			//alle Threads sind IDLE
+			boolean idle = pool.isIdle();
+			if(idle){
+				State[] sharedStates = worker.recvWork();
+				if(sharedStates != null){
+					for(int i=0; i<sharedStates.length; i++){
+						pool.push(sharedStates[i]);
+					}
+					idle = false;
+				}else{
+					worker.sendWorkRequest(idleSince == 0 ? 0 : System.currentTimeMillis() - idleSince);
+				}
+			}
+
+			//Wartezeit des ganzen Pools
+			if(idle && idleSince == 0){
+				idleSince = System.currentTimeMillis();
+				progress.trace(TraceEvent.IDLE_BEGIN, -1, 0);
+			}else if(!idle && idleSince != 0){
+				idleTime += System.currentTimeMillis() - idleSince;
+				idleSince = 0;
+				progress.trace(TraceEvent.IDLE_END, -1, 0);
+			}
+
+			//Termination wie beim ParallelSolver, die Queue-Länge ist 0, wenn der ganze Pool IDLE ist
+			if(termination.check(idle ? 0 : 1)) {
+				TerminationCOM.sendTermination(progress);
+				System.out.println("deep " + deep + " finished");
+				return null;
+			}
+
+			if(TerminationCOM.recvTermination(progress)){
+				return null;
+			}
+
+			Thread.yield();
+		}
+	}
+
+
+	/**
+	 * Kombiniert die Zähler einer Iteration aller Rechner (Summe und Maximum) auf dem Root-Prozessor.
+	 * Die Zähler der Engines sind über alle Threads summiert, busyMs und idleMs beziehen sich auf den ganzen Pool.
+	 *
+	 * @param deeplimit Suchtiefe der Iteration
+	 * @param time Laufzeit der Iteration in ms
+	 */
+	private void collectMetrics(int deeplimit, long time){
+		if(idleSince != 0){
+			idleTime += System.currentTimeMillis() - idleSince;
+			idleSince = 0;
+		}
+
+		long[] local = new long[Metric.COUNT];
+		pool.collect(local);
+		local[Metric.BUSY_TIME] = Math.max(0, time - idleTime);
+		local[Metric.IDLE_TIME] = idleTime;
+		local[Metric.REQUESTS_SENT] = worker.getWorkRequests();
+		local[Metric.REQUESTS_SERVED] = worker.getSentWork();
+		local[Metric.REQUESTS_FAILED] = worker.getNoWork();
+		local[Metric.STATES_SHIPPED] = worker.getSentStates();
+		local[Metric.BYTES_SENT] = worker.getSentBytes();
+		local[Metric.TOKEN_LAPS] = termination.getLaps() - laps;
+		laps = termination.getLaps();
+
+		long[] sum = new long[Metric.COUNT];
+		long[] max = new long[Metric.COUNT];
+		transport.reduceSum(local, sum);
+		transport.reduceMax(local, max);
+
+		if(rank == 0){
+			if(metrics == null){
+				metrics = new MetricsReport(transport.size());
+			}
+			metrics.add(deeplimit, time, sum, max);
+		}
+	}
+
+
+	/**
+	 * Schreibt die Zähler pro Iteration (nur Root-Prozessor)
+	 */
+	private void writeMetrics(){
+		if(metrics == null){
+			return;
+		}
+		try{
+			metrics.write(config.getMetrics());
+			System.out.println("metrics: " + config.getMetrics());
+		}catch(IOException e){
+			System.out.println("metrics could not be written: " + e.getMessage());
+		}
+	}
+
+
+	/**
+	 * Sendet die Ereignisse aller Prozessoren an den Root-Prozessor, dieser schreibt sie (siehe EventTrace)
+	 */
+	private void writeTrace(){
+		EventTrace trace = progress.getTrace();
+		if(trace == null){
+			return;
+		}
+		try{
+			trace.write(transport, config.getTrace());
+			if(rank == 0){
+				System.out.println("trace: " + config.getTrace());
+			}
+		}catch(IOException e){
+			System.out.println("trace could not be written: " + e.getMessage());
+		}
+	}
+
+
+	/**
+	 * Kleinster überschrittener f-Wert aller Rechner
+	 *
+	 * @return nächste Suchtiefe
+	 */
+	private int nextBound(){
+		int bound = transport.allreduceMin(pool.nextBound());
+
+		if(bound == Integer.MAX_VALUE){
+			System.out.println("search space exhausted without solution");
+			transport.close();
+			System.exit(0);
+		}
+		return bound;
+	}
+
+
+	/**
+	 * Summiert die Nodes einer Iteration über alle Rechner
+	 */
+	private void reportIteration(int deeplimit, long localNodes, long time){
+		long[] local = {localNodes};
+		long[] total = new long[1];
+		transport.reduceSum(local, total);
+		report.add(deeplimit, total[0], time);
+	}
+
+
+	/**
+	 * Gesamtzahl der besuchten Nodes aller Rechner (nur auf dem Root-Prozessor gültig)
+	 * @return Anzahl Nodes
+	 */
+	public long getNodes(){
+		return nodes;
+	}
+
+
+	/**
+	 * Laufzeit von solve()
+	 * @return Laufzeit in ms
+	 */
+	public long getElapsedTime(){
+		return elapsedTime;
+	}
+
+
+	/**
+	 * Besuchte Nodes pro Sekunde (nur auf dem Root-Prozessor gültig)
+	 * @return nodes/s
+	 */
+	public long getNodesPerSecond(){
+		return elapsedTime == 0 ? nodes : nodes * 1000 / elapsedTime;
+	}
+
+}
@@ -0,0 +1,406 @@
+package solver;
+
+import heuristic.Board;
+import heuristic.Heuristic;
+import java.util.ArrayList;
+import java.util.Stack;
+import search.Move;
+import search.MoveTable;
+import search.MovePruning;
+import search.SearchContext;
+import search.Solution;
+import search.State;
+import search.Zobrist;
+
+/**
+ * InPlaceEngine sucht auf einem einzigen, veränderbaren Puzzle.
+ *
+ * Eine Bewegung wird direkt im Puzzle angewendet und beim Backtracking rückgängig gemacht.
+ * Pro Tiefe gibt es einen vorallozierten Frame (nächste Bewegung, Blank-Position, Heuristik, Zustand des MovePruning-Automaten),
+ * der Pfad wird als byte Array mit den Bewegungen gespeichert. Während der Suche werden keine Objekte erzeugt.
+ *
+ * Empfangene Arbeit (State) wird auf einem Stack gehalten und nacheinander in das Puzzle geladen.
+ *
+ * @author michael koch
+ */
+
+public class InPlaceEngine implements SearchEngine, Board {
+
+	//Anzahl Nodes pro Aufruf von search(), danach wird wieder kommuniziert
+	private static final int BUDGET = 256;
+
+	//Das Puzzle, welches verändert wird
+	private final int[] puzzle;
+
+	//Nachbarposition des Blanks pro Position und Bewegung
+	private final MoveTable moves;
+
+	private final SearchContext context;
+	private final Heuristic heuristicFunction;
+	private final SplitPolicy policy;
+	private final TranspositionTable table;
+	private final Zobrist zobrist;
+	private final MovePruning pruning;
+
+	//Frames pro Tiefe
+	private byte[] nextMove = new byte[0];
+	private int[] blank = new int[0];
+	private int[] heuristic = new int[0];
+	private long[] hash = new long[0];
+	private int[] pruningState = new int[0];
+	private byte[] path = new byte[0];
+
+	//aktuelle Tiefe ab dem geladenen State
+	private int depth;
+
+	//geladener State
+	private State start;
+	private boolean active;
+	private int bound;
+	private int nextBound = Integer.MAX_VALUE;
+
+	//empfangene, noch nicht geladene Arbeit
+	private Stack<State> stack = new Stack<State>();
+
+	private long nodes;
+
+	//Zähler für Metric
+	private long expanded;
+	private long generated;
+	private long pruned;
+	private int peakStack;
+
+
+	/**
+	 * @param context Dimension und Heuristik
+	 */
+	public InPlaceEngine(SearchContext context){
+		this(context, new FixedSplit());
+	}
+
+
+	/**
+	 * @param context Dimension und Heuristik
+	 * @param policy Aufteilung der wartenden States. Die Frames werden immer ab dem Root-State geteilt.
+	 */
+	public InPlaceEngine(SearchContext context, SplitPolicy policy){
+		this(context, policy, null);
+	}
+
+
+	/**
+	 * @param context Dimension und Heuristik
+	 * @param policy Aufteilung der wartenden States
+	 * @param table Transpositionstabelle, null = ohne
+	 */
+	public InPlaceEngine(SearchContext context, SplitPolicy policy, TranspositionTable table){
+		this.policy = policy;
+		this.table = table;
+		this.zobrist = context.getZobrist();
+		this.pruning = context.getPruning();
+		this.context = context;
+		this.heuristicFunction = context.getHeuristic();
+		this.puzzle = new int[context.getRow()*context.getCol()];
+		this.moves = context.getMoveTable();
+	}
+
+
+	@Override
+	public void push(State state) {
+		stack.push(state);
+	}
+
+
+	@Override
+	public boolean isEmpty() {
+		return !active && stack.isEmpty();
+	}
+
+
+	@Override
+	public int size() {
+		return stack.size() + (active ? 1 : 0);
+	}
+
+
+	@Override
+	public Solution search(int deeplimit) {
+
+		if(!active){
+			if(stack.isEmpty()){
+				return null;
+			}
+			if(load(stack.pop(), deeplimit)){
+				return new Solution(start);
+			}
+		}
+
+		for(int n=0; n<BUDGET && active; n++){
+
+			int d = depth;
+			int b = blank[d];
+			int target = -1;
+			int move = nextMove[d];
+
+			//nächste mögliche Bewegung, ohne das Blank zurückzuschieben bzw. welche der Automat erlaubt
+			while(move < 4 && target == -1){
+				if(isOpenMove(d, move)){
+					target = moves.neighbor(b, move);
+				}else if(moves.neighbor(b, move) != -1){
+					pruned++;
+				}
+				move++;
+			}
+			nextMove[d] = (byte) move;
+
+			if(target == -1){
+				backtrack();
+				continue;
+			}
+
+			//Zahl wandert von target nach b, das Blank nach target
+			int tile = puzzle[target];
+			puzzle[b] = tile;
+			puzzle[target] = 0;
+
+			path[d] = (byte) (move - 1);
+			blank[d+1] = target;
+			heuristic[d+1] = heuristicFunction.update(heuristic[d], this, tile, target, b);
+			hash[d+1] = zobrist.move(hash[d], tile, target, b);
+			pruningState[d+1] = pruning == null ? 0 : pruning.next(pruningState[d], move - 1);
+			nextMove[d+1] = 0;
+			depth = d+1;
+			nodes++;
+			generated++;
+
+			if(heuristic[d+1] == 0 && isGoal()){
+				return new Solution(start, path, depth);
+			}
+
+			int f = start.getDeep() + depth + heuristic[depth];
+			if(f > bound){
+				nextBound = Math.min(nextBound, f);
+				undo();
+			}else if(table != null && table.visit(MovePruning.hash(hash[depth], pruningState[depth]), start.getDeep() + depth, bound)){
+				//über einen anderen Pfad bereits besucht
+				pruned++;
+				undo();
+			}else{
+				expanded++;
+				peakStack = Math.max(peakStack, depth + stack.size());
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * Lädt einen State in das Puzzle
+	 * @param state
+	 * @param deeplimit
+	 * @return true, wenn der State bereits die Lösung ist
+	 */
+	private boolean load(State state, int deeplimit){
+		start = state;
+		bound = deeplimit;
+		nodes++;
+
+		if(state.checkSolution()){
+			return true;
+		}
+		if(state.getHeuristic() > deeplimit){
+			nextBound = Math.min(nextBound, state.getHeuristic());
+			return false;
+		}
+
+		int[] tiles = state.getPuzzle();
+		System.arraycopy(tiles, 0, puzzle, 0, tiles.length);
+
+		ensureCapacity(deeplimit - state.getDeep() + 2);
+		depth = 0;
+		blank[0] = state.getBlankPos();
+		heuristic[0] = state.getEstimate();
+		hash[0] = state.getHash();
+		pruningState[0] = state.getPruningState();
+		nextMove[0] = 0;
+		active = true;
+		expanded++;
+		return false;
+	}
+
+
+	/**
+	 * Vergrössert die Frames, falls die Suchtiefe gewachsen ist
+	 * @param frames
+	 */
+	private void ensureCapacity(int frames){
+		if(frames > blank.length){
+			nextMove = new byte[frames];
+			blank = new int[frames];
+			heuristic = new int[frames];
+			hash = new long[frames];
+			pruningState = new int[frames];
+			path = new byte[frames];
+		}
+	}
+
+
+	/**
+	 * Der aktuelle Frame hat keine Bewegungen mehr, zurück zum vorherigen Frame
+	 */
+	private void backtrack(){
+		if(depth == 0){
+			active = false;
+		}else{
+			undo();
+		}
+	}
+
+
+	/**
+	 * Macht die letzte Bewegung rückgängig
+	 */
+	private void undo(){
+		int from = blank[depth-1];
+		int to = blank[depth];
+		puzzle[to] = puzzle[from];
+		puzzle[from] = 0;
+		depth--;
+	}
+
+
+	@Override
+	public void clear() {
+		stack.clear();
+		active = false;
+	}
+
+
+	/**
+	 * Es kann geteilt werden, wenn noch empfangene States warten
+	 * oder ein Frame unterhalb der aktuellen Tiefe noch Bewegungen offen hat.
+	 */
+	@Override
+	public boolean canShare() {
+		return stack.size() > 1 || shareableFrame() != -1;
+	}
+
+
+	/**
+	 * Gibt die Hälfte der wartenden States ab oder, falls keine warten,
+	 * die offenen Bewegungen des Frames, welcher am nächsten beim geladenen State liegt.
+	 */
+	@Override
+	public State[] split() {
+
+		if(stack.size() > 1){
+			return policy.split(stack, bound);
+		}
+
+		int d = shareableFrame();
+		if(d == -1){
+			return new State[0];
+		}
+
+		//State des Frames d aus dem Pfad rekonstruieren
+		State state = start;
+		for(int i=0; i<d; i++){
+			state = state.move(path[i], context);
+		}
+
+		ArrayList<State> sharedStates = new ArrayList<State>();
+		for(int move=nextMove[d]; move<4; move++){
+			if(isOpenMove(d, move)){
+				sharedStates.add(state.move(move, context));
+			}
+		}
+		nextMove[d] = 4;
+
+		return sharedStates.toArray(new State[sharedStates.size()]);
+	}
+
+
+	/**
+	 * Sucht den Frame am nächsten beim geladenen State, welcher noch Bewegungen offen hat
+	 * @return Frame oder -1
+	 */
+	private int shareableFrame(){
+		if(!active){
+			return -1;
+		}
+		for(int d=0; d<depth; d++){
+			for(int move=nextMove[d]; move<4; move++){
+				if(isOpenMove(d, move)){
+					return d;
+				}
+			}
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Kann die Bewegung im Frame d noch ausgeführt werden?
+	 * @param d Frame
+	 * @param move
+	 * @return true, wenn das Blank verschoben werden kann und die Bewegung nicht zurückführt bzw. der Automat sie erlaubt
+	 */
+	private boolean isOpenMove(int d, int move){
+		if(moves.neighbor(blank[d], move) == -1){
+			return false;
+		}
+		if(pruning != null){
+			return pruning.next(pruningState[d], move) != -1;
+		}
+		int previous = d > 0 ? path[d-1] : start.getBlankMove();
+		return move != Move.opposite(previous);
+	}
+
+
+	/**
+	 * Vergleicht das Puzzle mit der Zielkonfiguration
+	 * @return true, wenn die Lösung gefunden wurde
+	 */
+	private boolean isGoal(){
+		for(int i=0; i<puzzle.length-1; i++){
+			if(puzzle[i] != i+1){
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	@Override
+	public int getTile(int pos) {
+		return puzzle[pos];
+	}
+
+
+	@Override
+	public int nextBound() {
+		int bound = nextBound;
+		nextBound = Integer.MAX_VALUE;
+		return bound;
+	}
+
+
+	@Override
+	public long getNodes() {
+		return nodes;
+	}
+
+
+	@Override
+	public void collect(long[] metrics) {
+		metrics[Metric.EXPANDED] += expanded;
+		metrics[Metric.GENERATED] += generated;
+		metrics[Metric.PRUNED] += pruned;
+		metrics[Metric.PEAK_STACK] = Math.max(metrics[Metric.PEAK_STACK], peakStack);
+		expanded = 0;
+		generated = 0;
+		pruned = 0;
+		peakStack = 0;
+	}
+
+}
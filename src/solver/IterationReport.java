@@ -0,0 +1,48 @@
+package solver;
+
+import heuristic.Heuristic;
+import heuristic.HeuristicType;
+import heuristic.PerimeterHeuristic;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Nodes und Laufzeit pro IDA*-Iteration, damit Heuristiken und Engines verglichen werden können
+ * 
+ * @author michael koch
+ */
+
+class IterationReport {
+
+	//Suchtiefe, Nodes, Laufzeit in ms
+	private final List<long[]> iterations = new ArrayList<long[]>();
+
+	/**
+	 * @param deeplimit Suchtiefe der Iteration
+	 * @param nodes Nodes aller Prozessoren bzw. Threads
+	 * @param time Laufzeit der Iteration in ms
+	 */
+	void add(int deeplimit, long nodes, long time){
+		iterations.add(new long[]{deeplimit, nodes, time});
+	}
+
+	/**
+	 * Gibt Nodes und Laufzeit pro Iteration aus
+	 * @param config verwendete Heuristik und Engine
+	 * @param heuristic verwendete Heuristik, bei der Perimeter-Suche wird zusätzlich der Perimeter ausgegeben
+	 */
+	void print(Config config, Heuristic heuristic){
+		System.out.println("-------------Report-------------------");
+		System.out.println("heuristic: " + HeuristicType.getName(config.getHeuristic())
+				+ ", engine: " + EngineType.getName(config.getEngine())
+				+ ", split: " + SplitPolicyType.getName(config.getSplit()));
+		if(heuristic instanceof PerimeterHeuristic){
+			System.out.println(((PerimeterHeuristic) heuristic).getTable());
+		}
+		for(long[] iteration : iterations){
+			System.out.println("deep " + iteration[0] + ": " + iteration[1] + " nodes, " + iteration[2] + "ms");
+		}
+		System.out.println("--------------------------------------");
+	}
+
+}
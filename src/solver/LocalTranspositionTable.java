@@ -0,0 +1,51 @@
+package solver;
+
+/**
+ * Transpositionstabelle für eine SearchEngine (ein Thread bzw. ein Prozessor).
+ *
+ * Open Addressing mit Buckets aus zwei Einträgen in primitiven long Arrays. Der erste Eintrag eines Buckets
+ * wird nur ersetzt, wenn er veraltet ist oder der neue State näher beim Root-State liegt (grösserer Teilbaum),
+ * der zweite Eintrag wird immer ersetzt.
+ *
+ * @author michael koch
+ */
+
+public class LocalTranspositionTable implements TranspositionTable {
+
+	private final long[] keys;
+
+	//Suchtiefe << 32 | g
+	private final long[] data;
+	private final int mask;
+
+	/**
+	 * @param bits Grösse der Tabelle: 2^bits Einträge
+	 */
+	public LocalTranspositionTable(int bits){
+		this.keys = new long[1 << bits];
+		this.data = new long[1 << bits];
+		this.mask = (1 << bits) - 2;
+	}
+
+	@Override
+	public boolean visit(long hash, int g, int bound) {
+		int bucket = (int) hash & mask;
+		long entry = ((long) bound << 32) | g;
+
+		for(int i=bucket; i<bucket+2; i++){
+			if(keys[i] == hash){
+				if((int) (data[i] >>> 32) == bound && (int) data[i] <= g){
+					return true;
+				}
+				data[i] = entry;
+				return false;
+			}
+		}
+
+		int i = (int) (data[bucket] >>> 32) != bound || g <= (int) data[bucket] ? bucket : bucket + 1;
+		keys[i] = hash;
+		data[i] = entry;
+		return false;
+	}
+
+}
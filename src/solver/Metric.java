@@ -0,0 +1,57 @@
+package solver;
+
+/**
+ * Zähler der Instrumentierung pro Prozessor und IDA*-Iteration (siehe MetricsReport).
+ *
+ * Die Zähler liegen als long[] mit diesen Indizes vor. Engines und Worker zählen in eigenen primitiven Feldern
+ * und übertragen sie erst am Ende einer Iteration, in der Suchschleife wird nichts alloziert.
+ *
+ * @author michael koch
+ */
+
+public class Metric {
+
+	// States, deren Childs erzeugt wurden
+	public static final int EXPANDED = 0;
+
+	// erzeugte Childs
+	public static final int GENERATED = 1;
+
+	// verworfene Bewegungen bzw. States: Zurückschieben des Blanks, MovePruning, Transpositionstabelle
+	public static final int PRUNED = 2;
+
+	// grösste Anzahl offener States bzw. Frames der Engine
+	public static final int PEAK_STACK = 3;
+
+	// Zeit in ms mit bzw. ohne Arbeit
+	public static final int BUSY_TIME = 4;
+	public static final int IDLE_TIME = 5;
+
+	// versendete WORK-Requests, mit Arbeit beantwortete Requests, eigene Requests mit NOWORK als Antwort
+	public static final int REQUESTS_SENT = 6;
+	public static final int REQUESTS_SERVED = 7;
+	public static final int REQUESTS_FAILED = 8;
+
+	// versendete States und Bytes der verteilten Arbeit
+	public static final int STATES_SHIPPED = 9;
+	public static final int BYTES_SENT = 10;
+
+	// gestartete Umläufe des Tokens bzw. Wellen (siehe TerminationDetector)
+	public static final int TOKEN_LAPS = 11;
+
+	// Anzahl Zähler
+	public static final int COUNT = 12;
+
+	private static final String[] NAMES = {"expanded", "generated", "pruned", "peakStack", "busyMs", "idleMs",
+		"requestsSent", "requestsServed", "requestsFailed", "statesShipped", "bytesSent", "tokenLaps"};
+
+	/**
+	 * Bezeichnung des Zählers
+	 * @param metric
+	 * @return Name, z.B. "expanded"
+	 */
+	public static String getName(int metric){
+		return NAMES[metric];
+	}
+
+}
@@ -0,0 +1,107 @@
+package solver;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zähler pro IDA*-Iteration, Summe und Maximum über alle Prozessoren (siehe Metric).
+ *
+ * Das Verhältnis von Maximum zu Durchschnitt (Summe / Prozessoren) zeigt ungleich verteilte Last,
+ * z.B. bei busyMs und expanded, requestsFailed und tokenLaps den Aufwand der Kommunikation.
+ *
+ * Geschrieben wird mit <pre>-metrics datei.csv</pre> eine Zeile pro Iteration,
+ * mit <pre>-metrics datei.json</pre> ein JSON-Objekt mit einem Eintrag pro Iteration.
+ *
+ * @author michael koch
+ */
+
+class MetricsReport {
+
+	private final int processors;
+
+	//Suchtiefe, Laufzeit in ms, Summe und Maximum pro Zähler
+	private final List<long[]> iterations = new ArrayList<long[]>();
+
+	/**
+	 * @param processors Anzahl Prozessoren
+	 */
+	MetricsReport(int processors){
+		this.processors = processors;
+	}
+
+	/**
+	 * @param deeplimit Suchtiefe der Iteration
+	 * @param time Laufzeit der Iteration in ms
+	 * @param sum Summe pro Zähler über alle Prozessoren
+	 * @param max Maximum pro Zähler über alle Prozessoren
+	 */
+	void add(int deeplimit, long time, long[] sum, long[] max){
+		long[] iteration = new long[2 + 2*Metric.COUNT];
+		iteration[0] = deeplimit;
+		iteration[1] = time;
+		System.arraycopy(sum, 0, iteration, 2, Metric.COUNT);
+		System.arraycopy(max, 0, iteration, 2 + Metric.COUNT, Metric.COUNT);
+		iterations.add(iteration);
+	}
+
+	/**
+	 * Schreibt den Report, als JSON wenn die Datei auf .json endet, sonst als CSV
+	 * @param file
+	 * @throws IOException
+	 */
+	void write(String file) throws IOException {
+		try(PrintWriter out = new PrintWriter(new FileWriter(file))){
+			if(file.endsWith(".json")){
+				writeJson(out);
+			}else{
+				writeCsv(out);
+			}
+		}
+	}
+
+	private void writeCsv(PrintWriter out){
+		StringBuilder header = new StringBuilder("deep,processors,timeMs");
+		for(int metric=0; metric<Metric.COUNT; metric++){
+			header.append(',').append(Metric.getName(metric)).append("Sum,").append(Metric.getName(metric)).append("Max");
+		}
+		out.println(header);
+
+		for(long[] iteration : iterations){
+			StringBuilder line = new StringBuilder();
+			line.append(iteration[0]).append(',').append(processors).append(',').append(iteration[1]);
+			for(int metric=0; metric<Metric.COUNT; metric++){
+				line.append(',').append(iteration[2 + metric]).append(',').append(iteration[2 + Metric.COUNT + metric]);
+			}
+			out.println(line);
+		}
+	}
+
+	private void writeJson(PrintWriter out){
+		out.println("{");
+		out.println("  \"processors\": " + processors + ",");
+		out.println("  \"iterations\": [");
+		for(int i=0; i<iterations.size(); i++){
+			long[] iteration = iterations.get(i);
+			out.println("    {\"deep\": " + iteration[0] + ", \"timeMs\": " + iteration[1] + ",");
+			out.println("     \"sum\": " + object(iteration, 2) + ",");
+			out.println("     \"max\": " + object(iteration, 2 + Metric.COUNT) + "}" + (i < iterations.size()-1 ? "," : ""));
+		}
+		out.println("  ]");
+		out.println("}");
+	}
+
+	/**
+	 * @return JSON-Objekt mit einem Wert pro Zähler ab offset
+	 */
+	private static String object(long[] iteration, int offset){
+		StringBuilder object = new StringBuilder("{");
+		for(int metric=0; metric<Metric.COUNT; metric++){
+			object.append(metric > 0 ? ", " : "").append('"').append(Metric.getName(metric)).append("\": ").append(iteration[offset + metric]);
+		}
+		return object.append('}').toString();
+	}
+
+}
@@ -0,0 +1,75 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * Open-Liste des HdaSolvers: gepackte Puzzles (siehe PackedBoard) in einem Bucket pro f-Wert.
+ *
+ * Die f-Werte sind kleine ganze Zahlen, push() und pop() brauchen deshalb keinen Heap. Innerhalb eines
+ * Buckets wird der zuletzt eingefügte State zuerst expandiert, bei gleichem f also der tiefere.
+ *
+ * @author michael koch
+ */
+
+class OpenList {
+
+	private long[][] buckets = new long[64][];
+	private int[] counts = new int[64];
+	private int minF = Integer.MAX_VALUE;
+	private long size;
+
+	/**
+	 * @param board gepacktes Puzzle
+	 * @param f Tiefe + Heuristik
+	 */
+	void push(long board, int f){
+		if(f >= buckets.length){
+			buckets = Arrays.copyOf(buckets, Math.max(f + 1, 2*buckets.length));
+			counts = Arrays.copyOf(counts, buckets.length);
+		}
+		if(buckets[f] == null){
+			buckets[f] = new long[1024];
+		}else if(counts[f] == buckets[f].length){
+			buckets[f] = Arrays.copyOf(buckets[f], 2*counts[f]);
+		}
+		buckets[f][counts[f]++] = board;
+		minF = Math.min(minF, f);
+		size++;
+	}
+
+	/**
+	 * @return kleinster f-Wert, Integer.MAX_VALUE wenn die Liste leer ist
+	 */
+	int minF(){
+		if(size == 0){
+			return Integer.MAX_VALUE;
+		}
+		while(counts[minF] == 0){
+			minF++;
+		}
+		return minF;
+	}
+
+	/**
+	 * Entfernt ein Puzzle mit dem kleinsten f-Wert, die Liste darf nicht leer sein
+	 * @return gepacktes Puzzle
+	 */
+	long pop(){
+		int f = minF();
+		size--;
+		long board = buckets[f][--counts[f]];
+		if(counts[f] == 0){
+			//der Bucket wird erst wieder gebraucht, wenn ein kleineres f eingefügt wird
+			buckets[f] = null;
+		}
+		return board;
+	}
+
+	/**
+	 * @return Anzahl Puzzles, inklusive veralteter Einträge
+	 */
+	long size(){
+		return size;
+	}
+
+}
@@ -1,287 +1,471 @@
-package solver;
-
-import java.util.Stack;
-import messagePassing.Worker;
-import messagePassing.SolutionCOM;
-import messagePassing.TerminationCOM;
-import messagePassing.TokenColor;
-import mpi.MPI;
-import search.Solution;
-import search.State;
-
-/**
- * ParallelSolver lsst mit IDA* und der Manhattan-Distanz ein NxM Puzzle
- * 
- * @author michael koch
- */
-
-public class ParallelSolver {
-
-	private Stack<State> stack = new Stack<State>();
-	private int deep;
-	private int rank;
-	private int row;
-	private int col;
-	
-	private Solution solution;
-	private long startTime;
-
-	/**
-	 * ParallelSolver wird mit der Puzzle-Dimension (Row, Col) initialisiert
-	 * 
-	 * @param row Anzahl Zeilen des Puzzles
-	 * @param col Anzahl Reihen des Puzzles
-	 */
-	public ParallelSolver(int row, int col) {
-		this.startTime = System.currentTimeMillis();
-		this.rank = MPI.COMM_WORLD.Rank();
-		this.row = row;
-		this.col = col;
-	}
-
-
-	/**
-	 * Lst ein NxM Puzzle
-	 * 
-	 * @param Puzzle
-	 * @return Gibt die Lsung zurck
-	 */
-	public Solution solve(int[] puzzle){
-
-		//Prft die Puzzle-Dimension: length, row, col
-		if(!checkPuzzleLength(puzzle.length)){
-			System.out.println("puzzleLength/row/col does not match");
-			MPI.Finalize();
-			System.exit(0);
-		}
-
-
-		//Prft, ob das Puzzle lsbar ist.
-		if (!isSolvable(puzzle)){
-			System.out.println("puzzle is not solvable");
-			MPI.Finalize();
-			System.exit(0);
-		}
-
-
-		//Rootstate wird bestimmt
-		State root = new State(puzzle, row, col);
-		deep = root.getHeuristic();
-
-
-		//Beginne die Suche
-		while(solution == null){
-
-			if(rank == 0){
-				stack.push(root);
-				Worker.startToken(TokenColor.BLACK);
-			} 
-
-			solution = idaStar(deep);
-
-			//Erhhung der Suchtiefe bei einer Manhattan Distanz
-			deep+=2;
-		}
-
-
-		//Barrier fr die Reihenfolge der PrintLine-Ausgaben
-		MPI.COMM_WORLD.Barrier(); //Nur wegen println
-		if(rank==0){
-			System.out.println("elapsed time: " + String.valueOf(System.currentTimeMillis()-startTime)+"ms");
-		}
-		MPI.COMM_WORLD.Barrier(); //Nur wegen println
-
-		return solution;
-	}
-
-
-
-	/**
-	 * Iterative deepening A*
-	 * 
-	 * @param deeplimit
-	 * @return gibt die Lsung zurck
-	 */
-	public Solution idaStar(int deeplimit){
-
-		Worker worker = new Worker(rank);
-
-		while(true){
-
-			//Prozessor ist nicht IDLE
-			if(!stack.isEmpty()){
-
-				State state = stack.pop();
-
-				//prfe, ob der State die Lsung beinhaltet
-				if(state.checkSolution()){
-					Solution solution = new Solution(state);
-					SolutionCOM.foundSolution(rank);
-					return solution;
-				}
-
-				//Expandiere nur State, welche kleiner als die Suchtiefe sind.
-				if(deeplimit >= state.getHeuristic()){
-					//verhindere Loops des Blank
-					if(state.hasLoop()){
-						stack = state.expandNode(stack);
-					}
-				}
-			}
-
-			//verteile Arbeit an einen IDLE-Prozessor
-			shareWork(worker);
-
-
-			//prfe, ob ein anderer Prozessor die Lsung gefunden hat
-			if(SolutionCOM.checkSolution(rank)){
-				return new Solution();
-			}
-
-			//Prozessor ist IDLE
-			if(stack.isEmpty()){
-				isIdle(worker);
-			}
-
-
-			//Root-Prozessor prft, ob die aktuelle Suchtiefe beendet ist
-			if(rank == 0){
-				//Welche Farbe hat das Token?
-				if(worker.recvWhiteToken(stack.size())) {
-					TerminationCOM.sendTermination(rank);
-					System.out.println("deep " + deep + " finished");
-					return null;
-				}
-
-			//alle Nicht-Root-Prozessoren geben das Token im TokenRing weiter
-			}else{
-				worker.passToken(stack.size());
-			}
-
-			//Empfange TERMINATION -> aktuelle Tiefe ist erledigt
-			if(TerminationCOM.recvTermination()){
-				return null;
-			}
-
-		}
-	}
-	
-	
-	/**
-	 * Der Prozessor ist IDLE und empfngt Arbeit
-	 * @param worker
-	 */
-	private void isIdle(Worker worker){
-		State[] sharedStates = worker.recvWork();
-		if(sharedStates != null){
-
-			for(int i=0; i<sharedStates.length; i++){
-				stack.push(sharedStates[i]);
-			}
-		}else{
-			worker.sendWorkRequest();
-		}
-	}
-	
-	
-	/**
-	 * Arbeit wird Verteilt
-	 * @param worker
-	 */
-	private void shareWork(Worker worker){
-		
-		if(stack.size() > 10){
-			int receiver = worker.recvWorkRequest();
-			if(receiver != -1){
-				State[] sharedStack = split(stack);
-				worker.sendWork(sharedStack, receiver);
-			}
-		}
-	}
-	
-	
-	/**
-	 * Splittet den Stack
-	 * 
-	 * @param stackToSplit
-	 * @return Array mit den SharedStates
-	 */
-	private State[] split(Stack<State> stackToSplit){
-
-		int index = 0;
-		State[] sharedStates = new State[stackToSplit.size()/2];
-		Stack<State> tmpStack = new Stack<State>();
-
-		while(stackToSplit.size() > 0){
-			tmpStack.push(stackToSplit.pop());
-			if(stackToSplit.size() > 0){
-				sharedStates[index] = stackToSplit.pop();
-				index++;
-			}
-		}
-
-		stack = tmpStack;
-		return sharedStates;
-	}
-
-	
-	/**
-	 * Prft, ob die Puzzlelnge zu der angegebenen Anzahl Zeilen (row) und Spalten (col) passt
-	 * 
-	 * @param puzzleLength
-	 * @return true, wenn die Lnge korrekt ist
-	 */
-	private boolean checkPuzzleLength(int puzzleLength){
-		boolean check = true;
-		if(row*col != puzzleLength){
-			check = false;
-		}
-		return check;
-	}
-	
-
-	/**
-	 * Prft, ob das Puzzle lsbar ist
-	 * 
-	 * @param puzzle
-	 * @return true, wenn das Puzzle lsbar ist
-	 */
-	private boolean isSolvable(int[] puzzle){
-
-		int parity = 0;
-		int gridWidth = col;
-		int row = 0; 
-		int blankRow = 0; 
-
-		for (int i = 0; i < puzzle.length; i++){
-
-			if (i % gridWidth == 0) { 
-				row++;
-			}
-
-			if (puzzle[i] == 0) { 
-				blankRow = row; 
-				continue;
-			}
-
-			for (int j = i + 1; j < puzzle.length; j++){
-				if (puzzle[i] > puzzle[j] && puzzle[j] != 0){
-					parity++;
-				}
-			}
-		}
-
-		if (gridWidth % 2 == 0) { 
-
-			if (blankRow % 2 == 0) { 
-				return parity % 2 == 0;
-			} else { 
-				return parity % 2 != 0;
-			}
-
-		} else { 
-			return parity % 2 == 0;
-		}
-	}
-
-}
+package solver;
+
+import heuristic.Heuristic;
+import java.io.IOException;
+import messagePassing.EventTrace;
+import messagePassing.MpjTransport;
+import messagePassing.ProgressEngine;
+import messagePassing.Worker;
+import messagePassing.SolutionCOM;
+import messagePassing.TerminationCOM;
+import messagePassing.TerminationDetector;
+import messagePassing.TerminationType;
+import messagePassing.TraceEvent;
+import messagePassing.Transport;
+import messagePassing.VictimType;
+import search.MovePruning;
+import search.SearchContext;
+import search.Solution;
+import search.State;
+import search.StateCodec;
+import search.Util;
+
+/**
+ * ParallelSolver lösst mit IDA* und der Manhattan-Distanz ein NxM Puzzle
+ * 
+ * @author michael koch
+ */
+
+public class ParallelSolver {
+
+	private SearchEngine engine;
+	private SplitPolicy policy;
+	private SearchContext context;
+	private Worker worker;
+	private ProgressEngine progress;
+	private final Transport transport;
+	private TerminationDetector termination;
+	private Config config;
+	private int deep;
+	private int rank;
+	private int row;
+	private int col;
+	
+	private Solution solution;
+	private long startTime;
+	private long elapsedTime;
+	private long nodes;
+
+	//Beginn der aktuellen Wartezeit auf Arbeit, 0 wenn nicht IDLE
+	private long idleSince;
+
+	//Report pro Iteration
+	private IterationReport report = new IterationReport();
+
+	//Zähler pro Iteration (nur mit config.getMetrics()), Wartezeit der aktuellen Iteration und bisherige Umläufe
+	private MetricsReport metrics;
+	private long idleTime;
+	private long laps;
+
+	/**
+	 * ParallelSolver wird mit der Puzzle-Dimension (Row, Col) initialisiert
+	 * 
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Reihen des Puzzles
+	 */
+	public ParallelSolver(int row, int col) {
+		this(row, col, new Config());
+	}
+
+
+	/**
+	 * ParallelSolver wird mit der Puzzle-Dimension (Row, Col) und den Einstellungen initialisiert
+	 * 
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Reihen des Puzzles
+	 * @param config z.B. die zu verwendende SearchEngine
+	 */
+	public ParallelSolver(int row, int col, Config config) {
+		this(row, col, config, new MpjTransport());
+	}
+
+
+	/**
+	 * ParallelSolver wird mit der Puzzle-Dimension (Row, Col) und den Einstellungen initialisiert
+	 * 
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Reihen des Puzzles
+	 * @param config z.B. die zu verwendende SearchEngine
+	 * @param transport Nachrichtenaustausch mit den anderen Prozessoren
+	 */
+	public ParallelSolver(int row, int col, Config config, Transport transport) {
+		//vor dem Start der Zeitmessung: Heuristik-Tabellen (z.B. PDB laden) und Automat,
+		//der Automat wird pro Puzzle-Grösse einmal pro JVM erzeugt
+		MovePruning pruning = config.createPruning(row, col);
+		Heuristic heuristic = null;
+		try{
+			heuristic = config.createHeuristic(row, col);
+		}catch(IOException | IllegalArgumentException e){
+			System.out.println("heuristic could not be loaded: " + e.getMessage());
+			transport.close();
+			System.exit(0);
+		}
+		this.startTime = System.currentTimeMillis();
+		this.transport = transport;
+		this.rank = transport.rank();
+		this.row = row;
+		this.col = col;
+		this.config = config;
+
+		this.context = new SearchContext(row, col, heuristic, pruning);
+		StateCodec codec = new StateCodec(row, col);
+		this.progress = new ProgressEngine(codec, transport, config.getPollNodes(), config.getPollTime());
+		this.worker = new Worker(rank, codec, progress, VictimType.create(config.getVictim(), transport), config.getStealTimeout());
+		this.termination = TerminationType.create(config.getTermination(), rank, worker, progress);
+
+		if(config.getTrace() != null){
+			EventTrace trace = new EventTrace(rank, Math.max(1, config.getTraceSize()));
+			trace.synchronize(transport);
+			progress.setTrace(trace);
+		}
+		this.policy = SplitPolicyType.create(config.getSplit());
+		this.engine = EngineType.create(config.getEngine(), context, policy, config.createTable());
+	}
+
+
+	/**
+	 * Löst ein NxM Puzzle
+	 * 
+	 * @param Puzzle
+	 * @return Gibt die Lösung zurück
+	 */
+	public Solution solve(int[] puzzle){
+
+		//Prüft die Puzzle-Dimension: length, row, col
+		if(!checkPuzzleLength(puzzle.length)){
+			System.out.println("puzzleLength/row/col does not match");
+			transport.close();
+			System.exit(0);
+		}
+
+
+		//Prüft, ob das Puzzle lösbar ist.
+		if (!Util.isSolvable(puzzle, col)){
+			System.out.println("puzzle is not solvable");
+			transport.close();
+			System.exit(0);
+		}
+
+
+		//Rootstate wird bestimmt
+		State root = new State(puzzle, context);
+		deep = root.getHeuristic();
+
+
+		//Beginne die Suche
+		while(solution == null){
+
+			if(rank == 0){
+				engine.push(root);
+				termination.start();
+			} 
+
+			long iterationStart = System.currentTimeMillis();
+			long iterationNodes = engine.getNodes();
+
+			progress.trace(TraceEvent.DEEP_BEGIN, -1, deep);
+			solution = idaStar(deep);
+			if(idleSince != 0){
+				progress.trace(TraceEvent.IDLE_END, -1, 0);
+			}
+			progress.trace(TraceEvent.DEEP_END, -1, deep);
+
+			long iterationTime = System.currentTimeMillis() - iterationStart;
+			if(config.getMetrics() != null){
+				collectMetrics(deep, iterationTime);
+			}
+			reportIteration(deep, engine.getNodes() - iterationNodes, iterationTime);
+
+			//Erhöhung der Suchtiefe
+			if(solution == null){
+				deep = nextBound();
+			}
+		}
+
+
+		//Summe der besuchten Nodes aller Prozessoren
+		long[] localNodes = {engine.getNodes()};
+		long[] totalNodes = new long[1];
+		transport.reduceSum(localNodes, totalNodes);
+		nodes = totalNodes[0];
+		elapsedTime = System.currentTimeMillis()-startTime;
+
+		//verwirft die noch unterwegs befindlichen Nachrichten dieser Suche
+		progress.drain();
+
+		//Barrier für die Reihenfolge der PrintLine-Ausgaben
+		transport.barrier(); //Nur wegen println
+		if(rank==0){
+			System.out.println("elapsed time: " + String.valueOf(elapsedTime)+"ms");
+			System.out.println("nodes: " + nodes + " (" + getNodesPerSecond() + " nodes/s)");
+			report.print(config, context.getHeuristic());
+			writeMetrics();
+		}
+		transport.barrier(); //Nur wegen println
+		writeTrace();
+
+		return solution;
+	}
+
+
+
+	/**
+	 * Iterative deepening A*
+	 * 
+	 * @param deeplimit
+	 * @return gibt die Lösung zurück
+	 */
+	public Solution idaStar(int deeplimit){
+
+		worker.reset();
+		idleSince = 0;
+		idleTime = 0;
+
+		while(true){
+
+			//Prozessor ist nicht IDLE
+			if(!engine.isEmpty()){
+
+				Solution solution = engine.search(deeplimit);
+
+				//die Engine hat die Lösung gefunden
+				if(solution != null){
+					SolutionCOM.foundSolution(progress);
+					return solution;
+				}
+
+				//kommuniziere erst, wenn das Budget aufgebraucht ist
+				if(!progress.isDue(engine.getNodes())){
+					continue;
+				}
+			}
+
+			//empfange alle wartenden Nachrichten
+			progress.poll(engine.getNodes());
+
+			//verteile Arbeit an einen IDLE-Prozessor
+			shareWork(worker);
+
+
+			//prüfe, ob ein anderer Prozessor die Lösung gefunden hat
+			if(SolutionCOM.checkSolution(progress)){
+				return new Solution();
+			}
+
+			//Prozessor ist IDLE
+			if(engine.isEmpty()){
+				isIdle(worker);
+			}
+
+
+			//Root-Prozessor prüft, ob die aktuelle Suchtiefe beendet ist (TokenRing oder Welle)
+			if(termination.check(engine.size())) {
+				TerminationCOM.sendTermination(progress);
+				System.out.println("deep " + deep + " finished");
+				return null;
+			}
+
+			//Empfange TERMINATION -> aktuelle Tiefe ist erledigt
+			if(TerminationCOM.recvTermination(progress)){
+				return null;
+			}
+
+		}
+	}
+	
+	
+	/**
+	 * Die nächste Suchtiefe ist der kleinste f-Wert, welcher die aktuelle Suchtiefe auf einem
+	 * der Prozessoren überschritten hat. So wird keine Iteration ohne neue Nodes ausgeführt.
+	 * 
+	 * @return nächste Suchtiefe
+	 */
+	private int nextBound(){
+		int bound = transport.allreduceMin(engine.nextBound());
+
+		if(bound == Integer.MAX_VALUE){
+			System.out.println("search space exhausted without solution");
+			transport.close();
+			System.exit(0);
+		}
+		return bound;
+	}
+
+
+	/**
+	 * Summiert die Nodes einer Iteration über alle Prozessoren
+	 * 
+	 * @param deeplimit Suchtiefe der Iteration
+	 * @param localNodes Nodes dieses Prozessors
+	 * @param time Laufzeit der Iteration in ms
+	 */
+	private void reportIteration(int deeplimit, long localNodes, long time){
+		long[] local = {localNodes};
+		long[] total = new long[1];
+		transport.reduceSum(local, total);
+		report.add(deeplimit, total[0], time);
+	}
+
+
+	/**
+	 * Kombiniert die Zähler einer Iteration aller Prozessoren (Summe und Maximum) auf dem Root-Prozessor
+	 * 
+	 * @param deeplimit Suchtiefe der Iteration
+	 * @param time Laufzeit der Iteration in ms
+	 */
+	private void collectMetrics(int deeplimit, long time){
+		if(idleSince != 0){
+			idleTime += System.currentTimeMillis() - idleSince;
+			idleSince = 0;
+		}
+
+		long[] local = new long[Metric.COUNT];
+		engine.collect(local);
+		local[Metric.BUSY_TIME] = Math.max(0, time - idleTime);
+		local[Metric.IDLE_TIME] = idleTime;
+		local[Metric.REQUESTS_SENT] = worker.getWorkRequests();
+		local[Metric.REQUESTS_SERVED] = worker.getSentWork();
+		local[Metric.REQUESTS_FAILED] = worker.getNoWork();
+		local[Metric.STATES_SHIPPED] = worker.getSentStates();
+		local[Metric.BYTES_SENT] = worker.getSentBytes();
+		local[Metric.TOKEN_LAPS] = termination.getLaps() - laps;
+		laps = termination.getLaps();
+
+		long[] sum = new long[Metric.COUNT];
+		long[] max = new long[Metric.COUNT];
+		transport.reduceSum(local, sum);
+		transport.reduceMax(local, max);
+
+		if(rank == 0){
+			if(metrics == null){
+				metrics = new MetricsReport(transport.size());
+			}
+			metrics.add(deeplimit, time, sum, max);
+		}
+	}
+
+
+	/**
+	 * Schreibt die Zähler pro Iteration (nur Root-Prozessor)
+	 */
+	private void writeMetrics(){
+		if(metrics == null){
+			return;
+		}
+		try{
+			metrics.write(config.getMetrics());
+			System.out.println("metrics: " + config.getMetrics());
+		}catch(IOException e){
+			System.out.println("metrics could not be written: " + e.getMessage());
+		}
+	}
+
+
+	/**
+	 * Sendet die Ereignisse aller Prozessoren an den Root-Prozessor, dieser schreibt sie (siehe EventTrace)
+	 */
+	private void writeTrace(){
+		EventTrace trace = progress.getTrace();
+		if(trace == null){
+			return;
+		}
+		try{
+			trace.write(transport, config.getTrace());
+			if(rank == 0){
+				System.out.println("trace: " + config.getTrace());
+			}
+		}catch(IOException e){
+			System.out.println("trace could not be written: " + e.getMessage());
+		}
+	}
+
+
+	/**
+	 * Der Prozessor ist IDLE und empfängt Arbeit. Die Wartezeit geht mit dem WORK-Request an den angefragten Prozessor.
+	 * @param worker
+	 */
+	private void isIdle(Worker worker){
+		if(idleSince == 0){
+			idleSince = System.currentTimeMillis();
+			progress.trace(TraceEvent.IDLE_BEGIN, -1, 0);
+		}
+
+		State[] sharedStates = worker.recvWork();
+		if(sharedStates != null){
+			idleTime += System.currentTimeMillis() - idleSince;
+			idleSince = 0;
+			progress.trace(TraceEvent.IDLE_END, -1, 0);
+
+			for(int i=0; i<sharedStates.length; i++){
+				engine.push(sharedStates[i]);
+			}
+		}else{
+			worker.sendWorkRequest(System.currentTimeMillis() - idleSince);
+		}
+	}
+	
+	
+	/**
+	 * Arbeit wird Verteilt. Kann der Prozessor nicht teilen, antwortet er mit NOWORK.
+	 * Die Wartezeit des IDLE-Prozessors geht an die SplitPolicy dieses Prozessors, welcher die Arbeit hält.
+	 * @param worker
+	 */
+	private void shareWork(Worker worker){
+
+		int receiver = worker.recvWorkRequest();
+		while(receiver != -1){
+			policy.idle(worker.getRequestWait());
+			if(engine.canShare()){
+				State[] sharedStack = engine.split();
+				worker.sendWork(sharedStack, receiver);
+			}else{
+				//die offenen States können nicht geteilt werden, für den IDLE-Prozessor ist die Last 0
+				worker.sendNoWork(receiver, 0);
+			}
+			receiver = worker.recvWorkRequest();
+		}
+	}
+
+
+	/**
+	 * Gesamtzahl der besuchten Nodes aller Prozessoren (nur auf dem Root-Prozessor gültig)
+	 * @return Anzahl Nodes
+	 */
+	public long getNodes(){
+		return nodes;
+	}
+
+
+	/**
+	 * Laufzeit von solve()
+	 * @return Laufzeit in ms
+	 */
+	public long getElapsedTime(){
+		return elapsedTime;
+	}
+
+
+	/**
+	 * Besuchte Nodes pro Sekunde (nur auf dem Root-Prozessor gültig)
+	 * @return nodes/s
+	 */
+	public long getNodesPerSecond(){
+		return elapsedTime == 0 ? nodes : nodes * 1000 / elapsedTime;
+	}
+
+	
+	/**
+	 * Prüft, ob die Puzzlelänge zu der angegebenen Anzahl Zeilen (row) und Spalten (col) passt
+	 * 
+	 * @param puzzleLength
+	 * @return true, wenn die Länge korrekt ist
+	 */
+	private boolean checkPuzzleLength(int puzzleLength){
+		boolean check = true;
+		if(row*col != puzzleLength){
+			check = false;
+		}
+		return check;
+	}
+
+}
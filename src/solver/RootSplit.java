@@ -0,0 +1,63 @@
+package solver;
+
+import java.util.Stack;
+import search.State;
+
+/**
+ * Gibt die States ab, welche am nächsten beim Root-State liegen (unten im Stack).
+ * Von der geringsten Tiefe im Stack wird jeder zweite State abgegeben, bei nur einem State dieser.
+ * Diese States haben die grössten Teilbäume, ein Empfänger ist deshalb lange beschäftigt.
+ * 
+ * @author michael koch
+ */
+
+public class RootSplit implements SplitPolicy {
+
+	private final int cutoff;
+
+	public RootSplit(){
+		this(2);
+	}
+
+	/**
+	 * @param cutoff es wird geteilt, wenn mehr als cutoff States offen sind
+	 */
+	public RootSplit(int cutoff){
+		this.cutoff = Math.max(1, cutoff);
+	}
+
+	@Override
+	public boolean canShare(int size) {
+		return size > cutoff;
+	}
+
+	@Override
+	public State[] split(Stack<State> stack, int deeplimit) {
+		int minDeep = Integer.MAX_VALUE;
+		for(int i=0; i<stack.size(); i++){
+			minDeep = Math.min(minDeep, stack.get(i).getDeep());
+		}
+
+		//jeder zweite State der geringsten Tiefe, beginnend beim untersten
+		boolean[] give = new boolean[stack.size()];
+		boolean next = true;
+		for(int i=0; i<give.length; i++){
+			if(stack.get(i).getDeep() == minDeep){
+				give[i] = next;
+				next = !next;
+			}
+		}
+
+		//mindestens ein State bleibt
+		if(give[give.length-1]){
+			give[give.length-1] = false;
+			give[0] = true;
+		}
+		return SplitPolicyType.remove(stack, give);
+	}
+
+	@Override
+	public void idle(long time) {
+	}
+
+}
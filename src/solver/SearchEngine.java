@@ -0,0 +1,75 @@
+package solver;
+
+import search.Solution;
+import search.State;
+
+/**
+ * Eine SearchEngine führt die Tiefensuche eines Prozessors für eine Suchtiefe aus.
+ * 
+ * Der ParallelSolver ruft search() in seiner Schleife auf und kümmert sich dazwischen
+ * um die Kommunikation (Arbeit verteilen, TokenRing, Lösung, Termination).
+ * 
+ * @author michael koch
+ */
+
+public interface SearchEngine {
+
+	/**
+	 * Fügt einen State als Arbeit hinzu (Root-State oder empfangene Arbeit)
+	 * @param state
+	 */
+	void push(State state);
+
+	/**
+	 * @return true, wenn der Prozessor keine Arbeit mehr hat
+	 */
+	boolean isEmpty();
+
+	/**
+	 * @return Menge der offenen Arbeit, wird für den TokenRing benötigt
+	 */
+	int size();
+
+	/**
+	 * Führt einen Suchschritt aus
+	 * @param deeplimit aktuelle Suchtiefe
+	 * @return die Lösung oder null
+	 */
+	Solution search(int deeplimit);
+
+	/**
+	 * Verwirft die ganze offene Arbeit, z.B. wenn sie keine bessere Lösung mehr enthalten kann
+	 */
+	void clear();
+
+	/**
+	 * @return true, wenn genügend Arbeit zum Verteilen vorhanden ist
+	 */
+	boolean canShare();
+
+	/**
+	 * Teilt die Arbeit auf und gibt den abzugebenden Teil zurück
+	 * @return Array mit den SharedStates
+	 */
+	State[] split();
+
+	/**
+	 * Kleinster f-Wert (Tiefe + Heuristik) eines States, welcher die Suchtiefe überschritten hat.
+	 * Der Wert wird beim Aufruf zurückgesetzt.
+	 * @return kleinster überschrittener f-Wert oder Integer.MAX_VALUE
+	 */
+	int nextBound();
+
+	/**
+	 * @return Anzahl besuchter Nodes seit dem Erzeugen der Engine
+	 */
+	long getNodes();
+
+	/**
+	 * Addiert die Zähler seit dem letzten Aufruf zu metrics (siehe Metric) und setzt sie zurück.
+	 * PEAK_STACK wird als Maximum übernommen.
+	 * @param metrics
+	 */
+	void collect(long[] metrics);
+
+}
@@ -0,0 +1,55 @@
+package solver;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Transpositionstabelle für alle Threads eines Prozesses, ohne Locks.
+ *
+ * Gleiche Buckets und Ersetzung wie LocalTranspositionTable. Pro Eintrag werden key^data und data gespeichert:
+ * überschreiben zwei Threads denselben Eintrag gleichzeitig, passt das Paar nicht mehr zusammen und der Eintrag
+ * gilt als leer. So wird kein State wegen eines halb geschriebenen Eintrags abgeschnitten.
+ *
+ * @author michael koch
+ */
+
+public class SharedTranspositionTable implements TranspositionTable {
+
+	//pro Eintrag key^data, data
+	private final AtomicLongArray entries;
+	private final int mask;
+
+	/**
+	 * @param bits Grösse der Tabelle: 2^bits Einträge
+	 */
+	public SharedTranspositionTable(int bits){
+		this.entries = new AtomicLongArray(2 << bits);
+		this.mask = (1 << bits) - 2;
+	}
+
+	@Override
+	public boolean visit(long hash, int g, int bound) {
+		int bucket = (int) hash & mask;
+		long entry = ((long) bound << 32) | g;
+
+		for(int i=bucket; i<bucket+2; i++){
+			long data = entries.get(2*i + 1);
+			if((entries.get(2*i) ^ data) == hash){
+				if((int) (data >>> 32) == bound && (int) data <= g){
+					return true;
+				}
+				write(i, hash, entry);
+				return false;
+			}
+		}
+
+		long data = entries.get(2*bucket + 1);
+		write((int) (data >>> 32) != bound || g <= (int) data ? bucket : bucket + 1, hash, entry);
+		return false;
+	}
+
+	private void write(int i, long hash, long data){
+		entries.set(2*i + 1, data);
+		entries.set(2*i, hash ^ data);
+	}
+
+}
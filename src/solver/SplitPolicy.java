@@ -0,0 +1,37 @@
+package solver;
+
+import java.util.Stack;
+import search.State;
+
+/**
+ * Strategie, wann und wie eine SearchEngine ihre Arbeit aufteilt (siehe SplitPolicyType)
+ * 
+ * @author michael koch
+ */
+
+public interface SplitPolicy {
+
+	/**
+	 * @param size Anzahl offener States
+	 * @return true, wenn genügend Arbeit zum Verteilen vorhanden ist
+	 */
+	boolean canShare(int size);
+
+	/**
+	 * Entfernt die abzugebenden States aus dem Stack. Die Reihenfolge der verbleibenden States bleibt erhalten.
+	 * Unten im Stack (Index 0) liegen die States, welche am nächsten beim Root-State sind.
+	 * 
+	 * @param stack offene States, mindestens 2
+	 * @param deeplimit aktuelle Suchtiefe
+	 * @return abgegebene States, mindestens einer
+	 */
+	State[] split(Stack<State> stack, int deeplimit);
+
+	/**
+	 * Rückmeldung, wie lange ein IDLE-Prozessor bzw. Thread gewartet hat, welcher von diesem Arbeit verlangt
+	 * (aus dem WORK-Request) bzw. bei diesem gestohlen hat
+	 * @param time Wartezeit in ms
+	 */
+	void idle(long time);
+
+}
@@ -0,0 +1,93 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Stack;
+import search.State;
+
+/**
+ * Verfügbare SplitPolicies
+ * 
+ * @author michael koch
+ *
+ */
+
+public class SplitPolicyType {
+
+	// ab 10 States jeder zweite State (ursprüngliche Implementation)
+	public static final int FIXED = 0;
+
+	// States nächst dem Root-State
+	public static final int ROOT = 1;
+
+	// nach geschätzter Teilbaumgrösse
+	public static final int SUBTREE = 2;
+
+	// Teilbaumgrösse, Schwellwert nach Wartezeit
+	public static final int ADAPTIVE = 3;
+
+	private static final String[] NAMES = {"fixed", "root", "subtree", "adaptive"};
+
+	/**
+	 * Bestimmt den SplitPolicyType aus dem Namen
+	 * @param name z.B. "subtree"
+	 * @return SplitPolicyType
+	 */
+	public static int parse(String name){
+		for(int i=0; i<NAMES.length; i++){
+			if(NAMES[i].equals(name)){
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("unknown split policy: " + name);
+	}
+
+	/**
+	 * Bezeichnung des SplitPolicyType
+	 * @param split
+	 * @return Name
+	 */
+	public static String getName(int split){
+		return NAMES[split];
+	}
+
+	/**
+	 * Erzeugt eine neue SplitPolicy, jede Engine benötigt eine eigene
+	 * @param split SplitPolicyType
+	 * @return SplitPolicy
+	 */
+	public static SplitPolicy create(int split){
+		switch(split){
+		case ROOT:
+			return new RootSplit();
+		case SUBTREE:
+			return new SubtreeSplit();
+		case ADAPTIVE:
+			return new AdaptiveSplit();
+		default:
+			return new FixedSplit();
+		}
+	}
+
+	/**
+	 * Entfernt die markierten States aus dem Stack, die Reihenfolge der übrigen bleibt erhalten
+	 * @param stack
+	 * @param give markierte States
+	 * @return entfernte States
+	 */
+	static State[] remove(Stack<State> stack, boolean[] give){
+		ArrayList<State> given = new ArrayList<State>();
+		int kept = 0;
+
+		for(int i=0; i<give.length; i++){
+			State state = stack.get(i);
+			if(give[i]){
+				given.add(state);
+			}else{
+				stack.set(kept++, state);
+			}
+		}
+		stack.setSize(kept);
+		return given.toArray(new State[given.size()]);
+	}
+
+}
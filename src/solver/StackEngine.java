@@ -0,0 +1,169 @@
+package solver;
+
+import java.util.Stack;
+import search.MovePruning;
+import search.SearchContext;
+import search.Solution;
+import search.State;
+
+/**
+ * StackEngine expandiert pro Suchschritt einen State vom Stack.
+ * Die Childs werden als neue State-Objekte auf den Stack gelegt.
+ *
+ * @author michael koch
+ */
+
+public class StackEngine implements SearchEngine {
+
+	private Stack<State> stack = new Stack<State>();
+	private final SearchContext context;
+	private final SplitPolicy policy;
+	private final TranspositionTable table;
+	private int deeplimit;
+	private long nodes;
+	private int nextBound = Integer.MAX_VALUE;
+
+	//Zähler für Metric
+	private long expanded;
+	private long generated;
+	private long pruned;
+	private int peakStack;
+
+
+	/**
+	 * @param context Dimension und Heuristik
+	 */
+	public StackEngine(SearchContext context){
+		this(context, new FixedSplit());
+	}
+
+
+	/**
+	 * @param context Dimension und Heuristik
+	 * @param policy wann und wie der Stack aufgeteilt wird
+	 */
+	public StackEngine(SearchContext context, SplitPolicy policy){
+		this(context, policy, null);
+	}
+
+
+	/**
+	 * @param context Dimension und Heuristik
+	 * @param policy wann und wie der Stack aufgeteilt wird
+	 * @param table Transpositionstabelle, null = ohne
+	 */
+	public StackEngine(SearchContext context, SplitPolicy policy, TranspositionTable table){
+		this.context = context;
+		this.policy = policy;
+		this.table = table;
+	}
+
+
+	@Override
+	public void push(State state) {
+		stack.push(state);
+	}
+
+
+	@Override
+	public boolean isEmpty() {
+		return stack.isEmpty();
+	}
+
+
+	@Override
+	public int size() {
+		return stack.size();
+	}
+
+
+	@Override
+	public Solution search(int deeplimit) {
+
+		if(stack.isEmpty()){
+			return null;
+		}
+
+		this.deeplimit = deeplimit;
+		State state = stack.pop();
+		nodes++;
+
+		//prüfe, ob der State die Lösung beinhaltet
+		if(state.checkSolution()){
+			return new Solution(state);
+		}
+
+		//Expandiere nur State, welche kleiner als die Suchtiefe sind.
+		if(deeplimit >= state.getHeuristic()){
+			//verhindere Loops des Blank und bereits über einen anderen Pfad besuchte States
+			if(state.hasLoop() && (table == null || !table.visit(MovePruning.hash(state.getHash(), state.getPruningState()), state.getDeep(), deeplimit))){
+				int size = stack.size();
+				stack = state.expandNode(stack, context);
+
+				//vom Automaten verbotene Bewegungen erzeugen kein Child
+				int children = stack.size() - size;
+				int blank = state.getBlankPos();
+				expanded++;
+				generated += children;
+				pruned += context.getMoveTable().end(blank) - context.getMoveTable().first(blank) - children;
+				peakStack = Math.max(peakStack, stack.size());
+			}else{
+				pruned++;
+			}
+		}else{
+			nextBound = Math.min(nextBound, state.getHeuristic());
+		}
+		return null;
+	}
+
+
+	@Override
+	public void clear() {
+		stack.clear();
+	}
+
+
+	@Override
+	public boolean canShare() {
+		return stack.size() > 1 && policy.canShare(stack.size());
+	}
+
+
+	/**
+	 * Splittet den Stack mit der SplitPolicy
+	 *
+	 * @return Array mit den SharedStates
+	 */
+	@Override
+	public State[] split(){
+		return policy.split(stack, deeplimit);
+	}
+
+
+	@Override
+	public int nextBound() {
+		int bound = nextBound;
+		nextBound = Integer.MAX_VALUE;
+		return bound;
+	}
+
+
+	@Override
+	public long getNodes() {
+		return nodes;
+	}
+
+
+	@Override
+	public void collect(long[] metrics) {
+		metrics[Metric.EXPANDED] += expanded;
+		metrics[Metric.GENERATED] += generated;
+		metrics[Metric.PRUNED] += pruned;
+		metrics[Metric.PEAK_STACK] = Math.max(metrics[Metric.PEAK_STACK], peakStack);
+		expanded = 0;
+		generated = 0;
+		pruned = 0;
+		peakStack = 0;
+	}
+
+}
@@ -0,0 +1,101 @@
+package solver;
+
+/**
+ * Hash-Tabelle von gepackten Puzzles (siehe PackedBoard) auf einen int, für den HdaSolver.
+ *
+ * Open Addressing mit linearem Sondieren in primitiven Arrays, höchstens die Hälfte der Plätze ist belegt.
+ * Ein leerer Platz hat den Schlüssel 0, ein gültiges Puzzle ist nie 0.
+ *
+ * @author michael koch
+ */
+
+class StateTable {
+
+	private long[] keys;
+	private int[] values;
+	private int mask;
+	private int size;
+
+	/**
+	 * @param capacity Anzahl Plätze, eine Zweierpotenz
+	 */
+	StateTable(int capacity){
+		this.keys = new long[capacity];
+		this.values = new int[capacity];
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * @param board gepacktes Puzzle
+	 * @return Wert oder -1, wenn das Puzzle nicht in der Tabelle ist
+	 */
+	int get(long board){
+		for(int slot=index(board); ; slot=(slot + 1) & mask){
+			if(keys[slot] == board){
+				return values[slot];
+			}
+			if(keys[slot] == 0){
+				return -1;
+			}
+		}
+	}
+
+	/**
+	 * Trägt ein Puzzle ein oder ersetzt seinen Wert
+	 * @param board gepacktes Puzzle
+	 * @param value nicht negativ
+	 */
+	void put(long board, int value){
+		if(2*(size + 1) > keys.length){
+			grow();
+		}
+		int slot = index(board);
+		while(keys[slot] != 0 && keys[slot] != board){
+			slot = (slot + 1) & mask;
+		}
+		if(keys[slot] == 0){
+			keys[slot] = board;
+			size++;
+		}
+		values[slot] = value;
+	}
+
+	/**
+	 * @return Anzahl Puzzles
+	 */
+	int size(){
+		return size;
+	}
+
+	/**
+	 * @return Bytes, welche das nächste Vergrössern zusätzlich braucht
+	 */
+	long getGrowBytes(){
+		return 2L * keys.length * 12;
+	}
+
+	private void grow(){
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new long[2*oldKeys.length];
+		values = new int[2*oldKeys.length];
+		mask = keys.length - 1;
+
+		for(int old=0; old<oldKeys.length; old++){
+			if(oldKeys[old] != 0){
+				int slot = index(oldKeys[old]);
+				while(keys[slot] != 0){
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[old];
+				values[slot] = oldValues[old];
+			}
+		}
+	}
+
+	private int index(long board){
+		long h = board * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+}
@@ -0,0 +1,82 @@
+package solver;
+
+import java.util.Stack;
+import search.State;
+
+/**
+ * Teilt nach der geschätzten Grösse der Teilbäume: ein State mit dem Spielraum bound - f
+ * hat etwa b^(bound - f) Nodes (b = effektiver Verzweigungsfaktor). Die States werden vom Root-State
+ * her so verteilt, dass beide Seiten ungefähr gleich viel Arbeit erhalten.
+ * 
+ * @author michael koch
+ */
+
+public class SubtreeSplit implements SplitPolicy {
+
+	// effektiver Verzweigungsfaktor des 15-Puzzles mit Loop-Prüfung
+	private static final double BRANCHING = 2.13;
+
+	// f wächst bei Manhattan um 0 oder 2 pro Bewegung
+	private static final double STEP = 2;
+
+	private int cutoff;
+
+	public SubtreeSplit(){
+		this(4);
+	}
+
+	/**
+	 * @param cutoff es wird geteilt, wenn mehr als cutoff States offen sind
+	 */
+	public SubtreeSplit(int cutoff){
+		this.cutoff = Math.max(1, cutoff);
+	}
+
+	@Override
+	public boolean canShare(int size) {
+		return size > cutoff;
+	}
+
+	/**
+	 * Neuer Schwellwert, siehe AdaptiveSplit
+	 * @param cutoff
+	 */
+	protected void setCutoff(int cutoff){
+		this.cutoff = Math.max(1, cutoff);
+	}
+
+	protected int getCutoff(){
+		return cutoff;
+	}
+
+	@Override
+	public State[] split(Stack<State> stack, int deeplimit) {
+		boolean[] give = new boolean[stack.size()];
+		double given = 0;
+		double kept = 0;
+
+		for(int i=0; i<give.length; i++){
+			State state = stack.get(i);
+			double size = Math.pow(BRANCHING, Math.max(0, deeplimit - state.getHeuristic()) / STEP);
+
+			//der State geht an die Seite mit weniger Arbeit
+			if(given < kept){
+				give[i] = true;
+				given += size;
+			}else{
+				kept += size;
+			}
+		}
+
+		//mindestens ein State wird abgegeben
+		if(given == 0){
+			give[0] = true;
+		}
+		return SplitPolicyType.remove(stack, give);
+	}
+
+	@Override
+	public void idle(long time) {
+	}
+
+}
@@ -0,0 +1,200 @@
+package solver;
+
+import heuristic.Heuristic;
+import java.io.IOException;
+import search.SearchContext;
+import search.Solution;
+import search.State;
+import search.Util;
+
+/**
+ * ThreadSolver löst ein NxM Puzzle mit IDA* in einer einzigen JVM, ein Thread pro Kern.
+ * MPJ wird nicht benötigt (kein MPI.Init).
+ *
+ * Die Threads stehlen sich die Arbeit gegenseitig (siehe WorkStealingPool).
+ * Eine Suchtiefe ist erledigt, sobald der Pool keine Arbeit mehr besitzt.
+ *
+ * @author michael koch
+ */
+
+public class ThreadSolver {
+
+	private final int row;
+	private final int col;
+	private final int threads;
+	private final Config config;
+	private final SearchContext context;
+
+	private final WorkStealingPool pool;
+
+	private Solution solution;
+	private int deep;
+
+	private IterationReport report = new IterationReport();
+	private boolean quiet;
+	private long startTime;
+	private long elapsedTime;
+	private long nodes;
+
+	/**
+	 * ThreadSolver mit einem Thread pro Kern
+	 *
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 */
+	public ThreadSolver(int row, int col) {
+		this(row, col, new Config().setThreads(Runtime.getRuntime().availableProcessors()));
+	}
+
+
+	/**
+	 * @param row Anzahl Zeilen des Puzzles
+	 * @param col Anzahl Spalten des Puzzles
+	 * @param config Anzahl Threads, SearchEngine und Heuristik
+	 */
+	public ThreadSolver(int row, int col, Config config) {
+		this(createContext(row, col, config), config);
+	}
+
+
+	/**
+	 * ThreadSolver mit einem bereits erzeugten Context, z.B. für viele Puzzles derselben Grösse (siehe BatchSolver).
+	 * Heuristik-Tabellen und Automat werden nicht neu erzeugt.
+	 *
+	 * @param context Puzzle-Dimension, Heuristik und MovePruning
+	 * @param config Anzahl Threads und SearchEngine
+	 */
+	public ThreadSolver(SearchContext context, Config config) {
+		this.startTime = System.currentTimeMillis();
+		this.row = context.getRow();
+		this.col = context.getCol();
+		this.config = config;
+		this.threads = Math.max(1, config.getThreads());
+		this.context = context;
+
+		this.pool = new WorkStealingPool(context, config, threads, true);
+	}
+
+
+	/**
+	 * Erzeugt den Context mit der Heuristik aus der Config
+	 */
+	private static SearchContext createContext(int row, int col, Config config){
+		Heuristic heuristic = null;
+		try{
+			heuristic = config.createHeuristic(row, col);
+		}catch(IOException | IllegalArgumentException e){
+			System.out.println("heuristic could not be loaded: " + e.getMessage());
+			System.exit(0);
+		}
+		return new SearchContext(row, col, heuristic, config.createPruning(row, col));
+	}
+
+
+	/**
+	 * Ohne Ausgabe pro Suchtiefe und ohne Report am Ende
+	 * @param quiet
+	 */
+	void setQuiet(boolean quiet){
+		this.quiet = quiet;
+	}
+
+
+	/**
+	 * Löst ein NxM Puzzle
+	 *
+	 * @param puzzle
+	 * @return Gibt die Lösung zurück
+	 */
+	public Solution solve(int[] puzzle){
+
+		if(row*col != puzzle.length){
+			System.out.println("puzzleLength/row/col does not match");
+			System.exit(0);
+		}
+
+		if(!Util.isSolvable(puzzle, col)){
+			System.out.println("puzzle is not solvable");
+			System.exit(0);
+		}
+
+		State root = new State(puzzle, context);
+		deep = root.getHeuristic();
+
+		while(solution == null){
+
+			long iterationStart = System.currentTimeMillis();
+			long iterationNodes = pool.getNodes();
+
+			//eine Suchtiefe mit allen Threads
+			pool.push(root);
+			pool.start(deep);
+			pool.await();
+			solution = pool.getSolution();
+
+			report.add(deep, pool.getNodes() - iterationNodes, System.currentTimeMillis() - iterationStart);
+
+			if(solution == null){
+				if(!quiet){
+					System.out.println("deep " + deep + " finished");
+				}
+				deep = nextBound();
+			}
+		}
+
+		nodes = pool.getNodes();
+		elapsedTime = System.currentTimeMillis()-startTime;
+
+		if(!quiet){
+			System.out.println("elapsed time: " + String.valueOf(elapsedTime)+"ms");
+			System.out.println("nodes: " + nodes + " (" + getNodesPerSecond() + " nodes/s, " + threads + " threads)");
+			report.print(config, context.getHeuristic());
+		}
+
+		return solution;
+	}
+
+
+	/**
+	 * Kleinster überschrittener f-Wert aller Threads
+	 *
+	 * @return nächste Suchtiefe
+	 */
+	private int nextBound(){
+		int bound = pool.nextBound();
+
+		if(bound == Integer.MAX_VALUE){
+			System.out.println("search space exhausted without solution");
+			System.exit(0);
+		}
+		return bound;
+	}
+
+
+	/**
+	 * Gesamtzahl der besuchten Nodes aller Threads
+	 * @return Anzahl Nodes
+	 */
+	public long getNodes(){
+		return nodes;
+	}
+
+
+	/**
+	 * Laufzeit von solve()
+	 * @return Laufzeit in ms
+	 */
+	public long getElapsedTime(){
+		return elapsedTime;
+	}
+
+
+	/**
+	 * Besuchte Nodes pro Sekunde
+	 * @return nodes/s
+	 */
+	public long getNodesPerSecond(){
+		return elapsedTime == 0 ? nodes : nodes * 1000 / elapsedTime;
+	}
+
+}
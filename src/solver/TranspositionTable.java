@@ -0,0 +1,25 @@
+package solver;
+
+/**
+ * Transpositionstabelle für IDA*: erkennt States, welche über einen anderen Pfad erneut erreicht werden.
+ *
+ * Pro State (Zobrist-Hash) wird das kleinste g (Tiefe) der aktuellen Suchtiefe gespeichert. Wird der State in
+ * derselben Suchtiefe mit grösserem oder gleichem g erneut erreicht, ist sein Teilbaum bereits abgedeckt.
+ * Die Tabelle hat eine feste Grösse, Einträge werden nach Tiefe ersetzt (siehe LocalTranspositionTable).
+ *
+ * @author michael koch
+ */
+
+public interface TranspositionTable {
+
+	/**
+	 * Prüft einen State und speichert ihn, falls er nicht abgeschnitten wird
+	 *
+	 * @param hash Zobrist-Hash des States
+	 * @param g Tiefe des States
+	 * @param bound aktuelle Suchtiefe, Einträge anderer Suchtiefen sind veraltet
+	 * @return true, wenn der State in dieser Suchtiefe bereits mit kleinerem oder gleichem g besucht wurde
+	 */
+	boolean visit(long hash, int g, int bound);
+
+}
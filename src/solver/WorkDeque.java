@@ -0,0 +1,147 @@
+package solver;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import search.State;
+
+/**
+ * Lock-freie Work-Stealing Deque nach Chase und Lev.
+ *
+ * Nur der besitzende Thread ruft push() und pop() am unteren Ende auf,
+ * alle anderen Threads stehlen mit steal() am oberen Ende. Die ältesten States
+ * liegen oben, sie sind am wenigsten tief und enthalten deshalb die meiste Arbeit.
+ *
+ * @author michael koch
+ */
+
+public class WorkDeque {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	//Ringpuffer, wird vom Besitzer bei Bedarf vergrössert
+	private volatile AtomicReferenceArray<State> array = new AtomicReferenceArray<State>(INITIAL_CAPACITY);
+
+	//nächster zu stehlender Index
+	private final AtomicLong top = new AtomicLong();
+
+	//nächster freier Index des Besitzers
+	private volatile long bottom;
+
+
+	/**
+	 * Legt einen State unten ab (nur Besitzer)
+	 * @param state
+	 */
+	public void push(State state){
+		long b = bottom;
+		long t = top.get();
+		AtomicReferenceArray<State> a = array;
+
+		if(b - t >= a.length() - 1){
+			a = grow(a, b, t);
+		}
+		a.set((int) (b & (a.length() - 1)), state);
+		bottom = b + 1;
+	}
+
+
+	/**
+	 * Nimmt den untersten State (nur Besitzer)
+	 * @return State oder null, wenn die Deque leer ist
+	 */
+	public State pop(){
+		long b = bottom - 1;
+		AtomicReferenceArray<State> a = array;
+		bottom = b;
+		long t = top.get();
+
+		if(t > b){
+			bottom = t;
+			return null;
+		}
+
+		State state = a.get((int) (b & (a.length() - 1)));
+		if(t == b){
+			//letzter State: Wettlauf mit den Dieben
+			if(!top.compareAndSet(t, t + 1)){
+				state = null;
+			}
+			bottom = t + 1;
+		}
+		return state;
+	}
+
+
+	/**
+	 * Stiehlt den obersten State (andere Threads)
+	 * @return State oder null, wenn die Deque leer ist oder ein anderer Thread schneller war
+	 */
+	public State steal(){
+		long t = top.get();
+		long b = bottom;
+		if(t >= b){
+			return null;
+		}
+
+		AtomicReferenceArray<State> a = array;
+		State state = a.get((int) (t & (a.length() - 1)));
+		if(!top.compareAndSet(t, t + 1)){
+			return null;
+		}
+		return state;
+	}
+
+
+	/**
+	 * Stiehlt die obere Hälfte der Deque, mindestens einen State
+	 * @return gestohlene States, leer wenn nichts gestohlen werden konnte
+	 */
+	public State[] stealHalf(){
+		int count = Math.max(1, size() / 2);
+		State[] states = new State[count];
+		int stolen = 0;
+
+		while(stolen < count){
+			State state = steal();
+			if(state == null){
+				break;
+			}
+			states[stolen++] = state;
+		}
+
+		if(stolen < count){
+			State[] tmp = new State[stolen];
+			System.arraycopy(states, 0, tmp, 0, stolen);
+			states = tmp;
+		}
+		return states;
+	}
+
+
+	/**
+	 * @return ungefähre Anzahl States
+	 */
+	public int size(){
+		long size = bottom - top.get();
+		return size > 0 ? (int) size : 0;
+	}
+
+
+	public boolean isEmpty(){
+		return size() == 0;
+	}
+
+
+	/**
+	 * Verdoppelt den Ringpuffer. Diebe, welche noch das alte Array lesen, sehen dieselben States.
+	 */
+	private AtomicReferenceArray<State> grow(AtomicReferenceArray<State> a, long b, long t){
+		AtomicReferenceArray<State> bigger = new AtomicReferenceArray<State>(a.length() * 2);
+		for(long i=t; i<b; i++){
+			bigger.set((int) (i & (bigger.length() - 1)), a.get((int) (i & (a.length() - 1))));
+		}
+		array = bigger;
+		return bigger;
+	}
+
+}
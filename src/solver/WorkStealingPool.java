@@ -0,0 +1,336 @@
+package solver;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import search.SearchContext;
+import search.Solution;
+import search.State;
+
+/**
+ * Threads einer JVM, welche eine Suchtiefe gemeinsam mit Work-Stealing abarbeiten.
+ *
+ * Jeder Thread sucht mit einer eigenen SearchEngine und besitzt eine WorkDeque. Sind Threads IDLE
+ * (oder wird Arbeit für einen anderen Rechner verlangt), splittet ein arbeitender Thread seine Engine
+ * wie beim ParallelSolver und legt die abgegebenen States in seine Deque. IDLE-Threads stehlen die obere
+ * Hälfte der Deque eines zufälligen anderen Threads.
+ *
+ * Der steuernde Thread (ThreadSolver bzw. Kommunikations-Thread des HybridSolvers) legt Arbeit in die
+ * Inbox, eine zusätzliche Deque, aus welcher die Threads ebenfalls stehlen.
+ *
+ * busy zählt die Threads, welche Arbeit besitzen. Ein Dieb zählt sich vor dem Stehlen dazu.
+ * Ist die Inbox leer und danach busy 0, gibt es im Pool keine Arbeit mehr (isIdle).
+ *
+ * @author michael koch
+ */
+
+class WorkStealingPool {
+
+	private final int threads;
+
+	//true: die Threads beenden sich, sobald der Pool IDLE ist. false: erst mit finish()
+	private final boolean standalone;
+
+	//Engine und Deque pro Thread, die letzte Deque ist die Inbox
+	private final SearchEngine[] engines;
+	private final SplitPolicy[] policies;
+	private final WorkDeque[] deques;
+	private final WorkDeque inbox;
+
+	//längste Wartezeit der Diebe pro Thread seit seiner letzten SplitPolicy.idle(), -1 = keine
+	private final AtomicLongArray stealWaits;
+
+	private final AtomicInteger busy = new AtomicInteger();
+	private final AtomicReference<Solution> solution = new AtomicReference<Solution>();
+	private volatile boolean finished;
+	private volatile boolean demand;
+
+	private Thread[] workers = new Thread[0];
+
+
+	/**
+	 * @param context Dimension und Heuristik
+	 * @param config SearchEngine, SplitPolicy und Transpositionstabelle
+	 * @param threads Anzahl Threads
+	 * @param standalone true, wenn die Suchtiefe endet, sobald der Pool IDLE ist
+	 */
+	WorkStealingPool(SearchContext context, Config config, int threads, boolean standalone){
+		this.threads = threads;
+		this.standalone = standalone;
+		this.engines = new SearchEngine[threads];
+		this.policies = new SplitPolicy[threads];
+		this.deques = new WorkDeque[threads + 1];
+
+		//eine gemeinsame oder eine Transpositionstabelle pro Thread
+		TranspositionTable shared = null;
+		if(config.getTableBits() > 0 && config.isSharedTable()){
+			shared = new SharedTranspositionTable(config.getTableBits());
+		}
+
+		for(int i=0; i<threads; i++){
+			policies[i] = SplitPolicyType.create(config.getSplit());
+			TranspositionTable table = shared != null ? shared : config.createTable();
+			engines[i] = EngineType.create(config.getEngine(), context, policies[i], table);
+			deques[i] = new WorkDeque();
+		}
+		this.inbox = new WorkDeque();
+		this.deques[threads] = inbox;
+
+		this.stealWaits = new AtomicLongArray(threads);
+		for(int i=0; i<threads; i++){
+			stealWaits.set(i, -1);
+		}
+	}
+
+
+	/**
+	 * Startet die Threads für eine Suchtiefe
+	 * @param deeplimit
+	 */
+	void start(final int deeplimit){
+		finished = false;
+		demand = false;
+		busy.set(threads);
+
+		workers = new Thread[threads];
+		for(int i=0; i<threads; i++){
+			final int me = i;
+			workers[i] = new Thread(new Runnable(){
+				public void run(){
+					search(me, deeplimit);
+				}
+			}, "solver-" + i);
+			workers[i].start();
+		}
+	}
+
+
+	/**
+	 * Wartet, bis alle Threads beendet sind
+	 */
+	void await(){
+		for(int i=0; i<workers.length; i++){
+			try{
+				workers[i].join();
+			}catch(InterruptedException e){
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+
+	/**
+	 * Beendet die aktuelle Suchtiefe (Termination oder Lösung auf einem anderen Rechner)
+	 */
+	void finish(){
+		finished = true;
+	}
+
+
+	/**
+	 * Legt Arbeit in die Inbox (nur steuernder Thread)
+	 * @param state
+	 */
+	void push(State state){
+		inbox.push(state);
+	}
+
+
+	/**
+	 * Nimmt die Hälfte der grössten Deque aus dem Pool, z.B. für einen anderen Rechner (nur steuernder Thread).
+	 * Der letzte State einer Deque wird nicht abgegeben, damit der Rechner nicht selbst IDLE wird.
+	 * @return States, leer wenn keine Deque mindestens 2 States enthält
+	 */
+	State[] split(){
+		int victim = 0;
+		for(int i=1; i<deques.length; i++){
+			if(deques[i].size() > deques[victim].size()){
+				victim = i;
+			}
+		}
+		if(deques[victim].size() < 2){
+			return new State[0];
+		}
+		return deques[victim].stealHalf();
+	}
+
+
+	/**
+	 * @return true, wenn im Pool keine Arbeit mehr vorhanden ist
+	 */
+	boolean isIdle(){
+		//Reihenfolge wichtig: ein Dieb der Inbox zählt sich vor dem Stehlen zu busy
+		return inbox.isEmpty() && busy.get() == 0;
+	}
+
+
+	/**
+	 * Arbeitende Threads legen Arbeit in ihre Deques, auch wenn kein Thread IDLE ist
+	 * @param demand
+	 */
+	void setDemand(boolean demand){
+		this.demand = demand;
+	}
+
+
+	/**
+	 * @return die Lösung oder null
+	 */
+	Solution getSolution(){
+		return solution.get();
+	}
+
+
+	/**
+	 * @return kleinster überschrittener f-Wert aller Threads
+	 */
+	int nextBound(){
+		int bound = Integer.MAX_VALUE;
+		for(int i=0; i<threads; i++){
+			bound = Math.min(bound, engines[i].nextBound());
+		}
+		return bound;
+	}
+
+
+	/**
+	 * Zähler aller Engines (siehe SearchEngine.collect), nur wenn die Threads beendet sind
+	 * @param metrics
+	 */
+	void collect(long[] metrics){
+		for(int i=0; i<threads; i++){
+			engines[i].collect(metrics);
+		}
+	}
+
+
+	/**
+	 * @return Anzahl Nodes aller Threads
+	 */
+	long getNodes(){
+		long sum = 0;
+		for(int i=0; i<threads; i++){
+			sum += engines[i].getNodes();
+		}
+		return sum;
+	}
+
+
+	/**
+	 * Suchschleife eines Threads
+	 *
+	 * @param me Index des Threads
+	 * @param deeplimit
+	 */
+	private void search(int me, int deeplimit){
+
+		SearchEngine engine = engines[me];
+		WorkDeque deque = deques[me];
+		Random random = new Random(me);
+
+		while(!finished && solution.get() == null){
+
+			//die Wartezeit der Diebe geht an die SplitPolicy dieses Threads, nur er verwendet sie
+			long wait = stealWaits.getAndSet(me, -1);
+			if(wait >= 0){
+				policies[me].idle(wait);
+			}
+
+			if(!engine.isEmpty()){
+				Solution found = engine.search(deeplimit);
+				if(found != null){
+					solution.compareAndSet(null, found);
+					return;
+				}
+
+				//Arbeit zum Stehlen bereitlegen
+				if((demand || busy.get() < threads) && deque.isEmpty() && engine.canShare()){
+					for(State state : engine.split()){
+						deque.push(state);
+					}
+				}
+				continue;
+			}
+
+			State state = deque.pop();
+			if(state != null){
+				engine.push(state);
+				continue;
+			}
+
+			//Thread ist IDLE
+			busy.decrementAndGet();
+			if(!steal(me, random)){
+				return;
+			}
+		}
+	}
+
+
+	/**
+	 * Wartezeit eines Diebs bzw. eines anderen Rechners für die SplitPolicy eines Threads
+	 * @param thread Index des Threads, welcher die Arbeit hält
+	 * @param wait Wartezeit in ms
+	 */
+	private void addWait(int thread, long wait){
+		long current = stealWaits.get(thread);
+		while(wait > current && !stealWaits.compareAndSet(thread, current, wait)){
+			current = stealWaits.get(thread);
+		}
+	}
+
+
+	/**
+	 * Wartezeit eines anderen Rechners (WORK-Request), geht an die SplitPolicy aller Threads
+	 * @param wait Wartezeit in ms
+	 */
+	void idle(long wait){
+		for(int i=0; i<threads; i++){
+			addWait(i, wait);
+		}
+	}
+
+
+	/**
+	 * Stiehlt Arbeit von einem zufälligen anderen Thread oder aus der Inbox
+	 *
+	 * @param me Index des Threads
+	 * @param random
+	 * @return true, wenn Arbeit gestohlen wurde; false, wenn die Suchtiefe erledigt ist
+	 */
+	private boolean steal(int me, Random random){
+
+		long idleSince = System.currentTimeMillis();
+
+		while(!finished && solution.get() == null){
+
+			if(standalone && isIdle()){
+				finished = true;
+				return false;
+			}
+
+			int victim = random.nextInt(deques.length);
+			if(victim == me || deques[victim].isEmpty()){
+				Thread.yield();
+				continue;
+			}
+
+			busy.incrementAndGet();
+			State[] states = deques[victim].stealHalf();
+			if(states.length > 0){
+				for(int i=0; i<states.length; i++){
+					engines[me].push(states[i]);
+				}
+				if(victim < threads){
+					addWait(victim, System.currentTimeMillis() - idleSince);
+				}
+				return true;
+			}
+			busy.decrementAndGet();
+		}
+		return false;
+	}
+
+}